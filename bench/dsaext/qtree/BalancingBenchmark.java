@@ -0,0 +1,187 @@
+package dsaext.qtree;
+
+/**
+ * Compares the QTree balancing strategies on insert-heavy, delete-heavy and
+ * read-heavy operation mixes
+ *
+ * Each mix is a fixed sequence of random operations on a tree that is
+ * prefilled with random keys. Every strategy runs the same sequence, and the
+ * time per operation and the number of rotations per update are reported for
+ * the best of several rounds.
+ *
+ * Compile and run from the repository root:
+ *   javac -d out $(find src bench -name '*.java')
+ *   java -cp out dsaext.qtree.BalancingBenchmark [treeSize [operations [rounds]]]
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class BalancingBenchmark
+{
+    private static final int OP_INSERT = 0;
+    private static final int OP_REMOVE = 1;
+    private static final int OP_GET    = 2;
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    /* keeps the results of get() from being optimized away */
+    private static volatile long sink;
+
+    private BalancingBenchmark()
+    {
+    }
+
+    private static final class Mix
+    {
+        final String name;
+        final int    insertPercent;
+        final int    removePercent;
+
+        Mix(String mixName, int insertPct, int removePct)
+        {
+            name          = mixName;
+            insertPercent = insertPct;
+            removePercent = removePct;
+        }
+    }
+
+    private static final class Result
+    {
+        long nanos       = Long.MAX_VALUE;
+        long rotations;
+        long updates;
+        long checksum;
+    }
+
+    public static void main(String[] args)
+    {
+        int treeSize   = args.length >= 1 ? Integer.parseInt(args[0]) : 1_000_000;
+        int operations = args.length >= 2 ? Integer.parseInt(args[1]) : 2_000_000;
+        int rounds     = args.length >= 3 ? Integer.parseInt(args[2]) : 5;
+
+        Mix[] mixes =
+        {
+            new Mix("insert-heavy", 70, 20),
+            new Mix("delete-heavy", 20, 70),
+            new Mix("read-heavy",    5,  5)
+        };
+
+        System.out.printf(
+            "QTree balancing, %d prefilled keys, %d operations, best of %d rounds%n%n",
+            treeSize, operations, rounds
+        );
+        System.out.printf(
+            "%-14s %-10s %10s %14s %12s%n",
+            "mix", "balancing", "ns/op", "rotations", "rot/update"
+        );
+        for (Mix mix : mixes)
+        {
+            java.util.Random rnd = new java.util.Random(SEED);
+            long keyRange = 2L * treeSize;
+            long[] prefillKeys = new long[treeSize];
+            for (int idx = 0; idx < treeSize; ++idx)
+            {
+                prefillKeys[idx] = (long) (rnd.nextDouble() * keyRange);
+            }
+            byte[] ops = new byte[operations];
+            long[] opKeys = new long[operations];
+            for (int idx = 0; idx < operations; ++idx)
+            {
+                int pct = rnd.nextInt(100);
+                ops[idx] = (byte) (pct < mix.insertPercent ? OP_INSERT :
+                    pct < mix.insertPercent + mix.removePercent ? OP_REMOVE : OP_GET);
+                opKeys[idx] = (long) (rnd.nextDouble() * keyRange);
+            }
+
+            for (Balancing balancing : Balancing.values())
+            {
+                Result result = new Result();
+                for (int round = 0; round < rounds; ++round)
+                {
+                    run(balancing, prefillKeys, ops, opKeys, result);
+                }
+                System.out.printf(
+                    "%-14s %-10s %10.1f %14d %12.3f%n",
+                    mix.name, balancing, (double) result.nanos / operations, result.rotations,
+                    result.updates > 0 ? (double) result.rotations / result.updates : 0.0
+                );
+                sink = result.checksum;
+            }
+        }
+    }
+
+    private static void run(Balancing balancing, long[] prefillKeys, byte[] ops, long[] opKeys, Result result)
+    {
+        QTree<Long, Long> tree = new QTree<>(balancing);
+        for (long key : prefillKeys)
+        {
+            tree.insert(key, key);
+        }
+        Long[] keys = new Long[opKeys.length];
+        for (int idx = 0; idx < opKeys.length; ++idx)
+        {
+            keys[idx] = opKeys[idx];
+        }
+
+        long startRotations = tree.getRotationCount();
+        long updates = 0;
+        long checksum = 0;
+        long startTime = System.nanoTime();
+        for (int idx = 0; idx < ops.length; ++idx)
+        {
+            Long key = keys[idx];
+            switch (ops[idx])
+            {
+                case OP_INSERT:
+                    tree.insert(key, key);
+                    ++updates;
+                    break;
+                case OP_REMOVE:
+                    tree.remove(key);
+                    ++updates;
+                    break;
+                default:
+                    Long value = tree.get(key);
+                    if (value != null)
+                    {
+                        checksum += value;
+                    }
+                    break;
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        if (elapsed < result.nanos)
+        {
+            result.nanos = elapsed;
+        }
+        result.rotations = tree.getRotationCount() - startRotations;
+        result.updates   = updates;
+        result.checksum += checksum + tree.getSize();
+    }
+}
@@ -0,0 +1,1236 @@
+package dsaext.art;
+
+import dsaext.QIterator;
+import dsaext.MapEntry;
+import java.util.Arrays;
+
+/**
+ * Ordered map implemented as an adaptive radix tree
+ *
+ * Keys are converted to byte strings by a KeyEncoder, and the tree branches
+ * on one byte of the encoded key per level. Inner nodes adapt their size to
+ * the number of children (4, 16, 48 or 256), and chains of nodes with a
+ * single child are collapsed into a byte prefix that is stored in the next
+ * inner node. Lookups therefore cost O(k) for keys of k bytes, independent of
+ * the number of keys in the map.
+ *
+ * A key that is a prefix of other keys is stored in the prefix leaf slot of
+ * the inner node at the end of its encoding. All leaves are additionally
+ * linked in key order, so that iteration and navigation to neighboring keys
+ * do not need to walk the tree.
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class ArtMap<K extends Comparable<K>, V>
+    implements Iterable<MapEntry<K, V>>
+{
+    private final KeyEncoder<K> encoder;
+
+    private Node root;
+    private long size;
+
+    /* least and greatest leaves of the leaf list */
+    private Leaf<K, V> head;
+    private Leaf<K, V> tail;
+
+    private static final byte[] EMPTY_PREFIX = new byte[0];
+
+    public ArtMap(KeyEncoder<K> keyEncoder)
+    {
+        encoder = keyEncoder;
+        root = null;
+        size = 0;
+        head = null;
+        tail = null;
+    }
+
+    /**
+     * Creates a map with Long keys
+     */
+    public static <V> ArtMap<Long, V> longKeys()
+    {
+        return new ArtMap<>(KeyEncoders.LONG);
+    }
+
+    /**
+     * Creates a map with String keys
+     */
+    public static <V> ArtMap<String, V> stringKeys()
+    {
+        return new ArtMap<>(KeyEncoders.STRING);
+    }
+
+    private abstract static class Node
+    {
+    }
+
+    private static final class Leaf<K, V> extends Node
+    {
+        final byte[] keyData;
+        final K key;
+        V value;
+
+        Leaf<K, V> prev;
+        Leaf<K, V> next;
+
+        Leaf(byte[] keyDataRef, K keyRef, V valueRef)
+        {
+            keyData = keyDataRef;
+            key = keyRef;
+            value = valueRef;
+        }
+    }
+
+    private abstract static class InnerNode extends Node
+    {
+        /* collapsed path of single child nodes above this node */
+        byte[] prefix = EMPTY_PREFIX;
+
+        /* leaf of the key that ends at this node, if any */
+        Leaf<?, ?> prefixLeaf;
+
+        int childCount;
+
+        abstract Node findChild(int keyByte);
+
+        abstract void setChild(int keyByte, Node child);
+
+        abstract void addChild(int keyByte, Node child);
+
+        abstract void removeChild(int keyByte);
+
+        abstract boolean isFull();
+
+        /* returns the least key byte that has a child, or -1 */
+        abstract int minChildByte();
+
+        /* returns the child with the least key byte greater than keyByte, or null */
+        abstract Node nextChild(int keyByte);
+
+        abstract InnerNode grow();
+
+        /* returns a smaller node type if this node is sparse, otherwise this node */
+        abstract InnerNode shrink();
+
+        final <T extends InnerNode> T copyHeaderTo(T other)
+        {
+            other.prefix = prefix;
+            other.prefixLeaf = prefixLeaf;
+            return other;
+        }
+    }
+
+    private static final class Node4 extends InnerNode
+    {
+        final byte[] keys = new byte[4];
+        final Node[] children = new Node[4];
+
+        @Override
+        Node findChild(int keyByte)
+        {
+            Node child = null;
+            for (int idx = 0; idx < childCount; ++idx)
+            {
+                if ((keys[idx] & 0xFF) == keyByte)
+                {
+                    child = children[idx];
+                    break;
+                }
+            }
+            return child;
+        }
+
+        @Override
+        void setChild(int keyByte, Node child)
+        {
+            for (int idx = 0; idx < childCount; ++idx)
+            {
+                if ((keys[idx] & 0xFF) == keyByte)
+                {
+                    children[idx] = child;
+                    break;
+                }
+            }
+        }
+
+        @Override
+        void addChild(int keyByte, Node child)
+        {
+            int idx = childCount;
+            while (idx > 0 && (keys[idx - 1] & 0xFF) > keyByte)
+            {
+                keys[idx] = keys[idx - 1];
+                children[idx] = children[idx - 1];
+                --idx;
+            }
+            keys[idx] = (byte) keyByte;
+            children[idx] = child;
+            ++childCount;
+        }
+
+        @Override
+        void removeChild(int keyByte)
+        {
+            int idx = 0;
+            while (idx < childCount && (keys[idx] & 0xFF) != keyByte)
+            {
+                ++idx;
+            }
+            if (idx < childCount)
+            {
+                --childCount;
+                for (; idx < childCount; ++idx)
+                {
+                    keys[idx] = keys[idx + 1];
+                    children[idx] = children[idx + 1];
+                }
+                children[childCount] = null;
+            }
+        }
+
+        @Override
+        boolean isFull()
+        {
+            return childCount == 4;
+        }
+
+        @Override
+        int minChildByte()
+        {
+            return childCount > 0 ? keys[0] & 0xFF : -1;
+        }
+
+        @Override
+        Node nextChild(int keyByte)
+        {
+            Node child = null;
+            for (int idx = 0; idx < childCount; ++idx)
+            {
+                if ((keys[idx] & 0xFF) > keyByte)
+                {
+                    child = children[idx];
+                    break;
+                }
+            }
+            return child;
+        }
+
+        @Override
+        InnerNode grow()
+        {
+            Node16 node = copyHeaderTo(new Node16());
+            System.arraycopy(keys, 0, node.keys, 0, childCount);
+            System.arraycopy(children, 0, node.children, 0, childCount);
+            node.childCount = childCount;
+            return node;
+        }
+
+        @Override
+        InnerNode shrink()
+        {
+            return this;
+        }
+    }
+
+    private static final class Node16 extends InnerNode
+    {
+        final byte[] keys = new byte[16];
+        final Node[] children = new Node[16];
+
+        /* returns the index of keyByte, or -(insertion index) - 1 */
+        private int search(int keyByte)
+        {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high)
+            {
+                int mid = (low + high) >>> 1;
+                int midByte = keys[mid] & 0xFF;
+                if (midByte < keyByte)
+                {
+                    low = mid + 1;
+                }
+                else
+                if (midByte > keyByte)
+                {
+                    high = mid - 1;
+                }
+                else
+                {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        @Override
+        Node findChild(int keyByte)
+        {
+            int idx = search(keyByte);
+            return idx >= 0 ? children[idx] : null;
+        }
+
+        @Override
+        void setChild(int keyByte, Node child)
+        {
+            int idx = search(keyByte);
+            if (idx >= 0)
+            {
+                children[idx] = child;
+            }
+        }
+
+        @Override
+        void addChild(int keyByte, Node child)
+        {
+            int idx = -(search(keyByte) + 1);
+            System.arraycopy(keys, idx, keys, idx + 1, childCount - idx);
+            System.arraycopy(children, idx, children, idx + 1, childCount - idx);
+            keys[idx] = (byte) keyByte;
+            children[idx] = child;
+            ++childCount;
+        }
+
+        @Override
+        void removeChild(int keyByte)
+        {
+            int idx = search(keyByte);
+            if (idx >= 0)
+            {
+                --childCount;
+                System.arraycopy(keys, idx + 1, keys, idx, childCount - idx);
+                System.arraycopy(children, idx + 1, children, idx, childCount - idx);
+                children[childCount] = null;
+            }
+        }
+
+        @Override
+        boolean isFull()
+        {
+            return childCount == 16;
+        }
+
+        @Override
+        int minChildByte()
+        {
+            return childCount > 0 ? keys[0] & 0xFF : -1;
+        }
+
+        @Override
+        Node nextChild(int keyByte)
+        {
+            int idx = search(keyByte);
+            idx = idx >= 0 ? idx + 1 : -(idx + 1);
+            return idx < childCount ? children[idx] : null;
+        }
+
+        @Override
+        InnerNode grow()
+        {
+            Node48 node = copyHeaderTo(new Node48());
+            for (int idx = 0; idx < childCount; ++idx)
+            {
+                node.addChild(keys[idx] & 0xFF, children[idx]);
+            }
+            return node;
+        }
+
+        @Override
+        InnerNode shrink()
+        {
+            InnerNode result = this;
+            if (childCount <= 3)
+            {
+                Node4 node = copyHeaderTo(new Node4());
+                System.arraycopy(keys, 0, node.keys, 0, childCount);
+                System.arraycopy(children, 0, node.children, 0, childCount);
+                node.childCount = childCount;
+                result = node;
+            }
+            return result;
+        }
+    }
+
+    private static final class Node48 extends InnerNode
+    {
+        /* slot index + 1 of the child for each key byte, 0 if there is no child */
+        final byte[] index = new byte[256];
+        final Node[] children = new Node[48];
+
+        @Override
+        Node findChild(int keyByte)
+        {
+            int slot = index[keyByte];
+            return slot != 0 ? children[slot - 1] : null;
+        }
+
+        @Override
+        void setChild(int keyByte, Node child)
+        {
+            int slot = index[keyByte];
+            if (slot != 0)
+            {
+                children[slot - 1] = child;
+            }
+        }
+
+        @Override
+        void addChild(int keyByte, Node child)
+        {
+            int slot = 0;
+            while (children[slot] != null)
+            {
+                ++slot;
+            }
+            children[slot] = child;
+            index[keyByte] = (byte) (slot + 1);
+            ++childCount;
+        }
+
+        @Override
+        void removeChild(int keyByte)
+        {
+            int slot = index[keyByte];
+            if (slot != 0)
+            {
+                children[slot - 1] = null;
+                index[keyByte] = 0;
+                --childCount;
+            }
+        }
+
+        @Override
+        boolean isFull()
+        {
+            return childCount == 48;
+        }
+
+        @Override
+        int minChildByte()
+        {
+            int result = -1;
+            for (int keyByte = 0; keyByte < 256; ++keyByte)
+            {
+                if (index[keyByte] != 0)
+                {
+                    result = keyByte;
+                    break;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Node nextChild(int keyByte)
+        {
+            Node child = null;
+            for (int nextByte = keyByte + 1; nextByte < 256; ++nextByte)
+            {
+                int slot = index[nextByte];
+                if (slot != 0)
+                {
+                    child = children[slot - 1];
+                    break;
+                }
+            }
+            return child;
+        }
+
+        @Override
+        InnerNode grow()
+        {
+            Node256 node = copyHeaderTo(new Node256());
+            for (int keyByte = 0; keyByte < 256; ++keyByte)
+            {
+                int slot = index[keyByte];
+                if (slot != 0)
+                {
+                    node.children[keyByte] = children[slot - 1];
+                }
+            }
+            node.childCount = childCount;
+            return node;
+        }
+
+        @Override
+        InnerNode shrink()
+        {
+            InnerNode result = this;
+            if (childCount <= 12)
+            {
+                Node16 node = copyHeaderTo(new Node16());
+                int count = 0;
+                for (int keyByte = 0; keyByte < 256; ++keyByte)
+                {
+                    int slot = index[keyByte];
+                    if (slot != 0)
+                    {
+                        node.keys[count] = (byte) keyByte;
+                        node.children[count] = children[slot - 1];
+                        ++count;
+                    }
+                }
+                node.childCount = count;
+                result = node;
+            }
+            return result;
+        }
+    }
+
+    private static final class Node256 extends InnerNode
+    {
+        final Node[] children = new Node[256];
+
+        @Override
+        Node findChild(int keyByte)
+        {
+            return children[keyByte];
+        }
+
+        @Override
+        void setChild(int keyByte, Node child)
+        {
+            children[keyByte] = child;
+        }
+
+        @Override
+        void addChild(int keyByte, Node child)
+        {
+            children[keyByte] = child;
+            ++childCount;
+        }
+
+        @Override
+        void removeChild(int keyByte)
+        {
+            if (children[keyByte] != null)
+            {
+                children[keyByte] = null;
+                --childCount;
+            }
+        }
+
+        @Override
+        boolean isFull()
+        {
+            return false;
+        }
+
+        @Override
+        int minChildByte()
+        {
+            int result = -1;
+            for (int keyByte = 0; keyByte < 256; ++keyByte)
+            {
+                if (children[keyByte] != null)
+                {
+                    result = keyByte;
+                    break;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Node nextChild(int keyByte)
+        {
+            Node child = null;
+            for (int nextByte = keyByte + 1; nextByte < 256; ++nextByte)
+            {
+                if (children[nextByte] != null)
+                {
+                    child = children[nextByte];
+                    break;
+                }
+            }
+            return child;
+        }
+
+        @Override
+        InnerNode grow()
+        {
+            return this;
+        }
+
+        @Override
+        InnerNode shrink()
+        {
+            InnerNode result = this;
+            if (childCount <= 37)
+            {
+                Node48 node = copyHeaderTo(new Node48());
+                for (int keyByte = 0; keyByte < 256; ++keyByte)
+                {
+                    if (children[keyByte] != null)
+                    {
+                        node.addChild(keyByte, children[keyByte]);
+                    }
+                }
+                result = node;
+            }
+            return result;
+        }
+    }
+
+    private abstract static class BaseIterator<K extends Comparable<K>, V>
+    {
+        final ArtMap<K, V> container;
+        final boolean reverse;
+        Leaf<K, V> next;
+        Leaf<K, V> current;
+
+        BaseIterator(ArtMap<K, V> containerRef, Leaf<K, V> startLeaf, boolean reverseFlag)
+        {
+            container = containerRef;
+            next = startLeaf;
+            current = null;
+            reverse = reverseFlag;
+        }
+
+        public final long getSize()
+        {
+            return container.size;
+        }
+
+        public final boolean hasNext()
+        {
+            return next != null;
+        }
+
+        final Leaf<K, V> nextLeaf()
+        {
+            current = next;
+            if (current != null)
+            {
+                next = reverse ? current.prev : current.next;
+            }
+            return current;
+        }
+
+        public final void remove()
+        {
+            if (current != null)
+            {
+                container.remove(current.key);
+                current = null;
+            }
+            else
+            {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private static final class EntriesIterator<K extends Comparable<K>, V>
+        extends BaseIterator<K, V> implements QIterator<MapEntry<K, V>>
+    {
+        EntriesIterator(ArtMap<K, V> containerRef, Leaf<K, V> startLeaf, boolean reverseFlag)
+        {
+            super(containerRef, startLeaf, reverseFlag);
+        }
+
+        @Override
+        public MapEntry<K, V> next()
+        {
+            MapEntry<K, V> entry = null;
+            Leaf<K, V> leaf = nextLeaf();
+            if (leaf != null)
+            {
+                entry = new MapEntry<>(leaf.key, leaf.value);
+            }
+            return entry;
+        }
+    }
+
+    private static final class KeysIterator<K extends Comparable<K>, V>
+        extends BaseIterator<K, V> implements QIterator<K>
+    {
+        KeysIterator(ArtMap<K, V> containerRef, Leaf<K, V> startLeaf, boolean reverseFlag)
+        {
+            super(containerRef, startLeaf, reverseFlag);
+        }
+
+        @Override
+        public K next()
+        {
+            Leaf<K, V> leaf = nextLeaf();
+            return leaf != null ? leaf.key : null;
+        }
+    }
+
+    private static final class ValuesIterator<K extends Comparable<K>, V>
+        extends BaseIterator<K, V> implements QIterator<V>
+    {
+        ValuesIterator(ArtMap<K, V> containerRef, Leaf<K, V> startLeaf, boolean reverseFlag)
+        {
+            super(containerRef, startLeaf, reverseFlag);
+        }
+
+        @Override
+        public V next()
+        {
+            Leaf<K, V> leaf = nextLeaf();
+            return leaf != null ? leaf.value : null;
+        }
+    }
+
+    public void insert(K key, V val)
+    {
+        byte[] keyData = encoder.encode(key);
+        Leaf<K, V> ceilingLeaf = findCeilingLeaf(keyData);
+        if (ceilingLeaf != null && Arrays.equals(ceilingLeaf.keyData, keyData))
+        {
+            ceilingLeaf.value = val;
+        }
+        else
+        {
+            Leaf<K, V> leaf = new Leaf<>(keyData, key, val);
+            root = insertLeaf(root, leaf, 0);
+
+            /* link the new leaf in front of its ceiling leaf */
+            Leaf<K, V> prevLeaf = ceilingLeaf != null ? ceilingLeaf.prev : tail;
+            leaf.prev = prevLeaf;
+            leaf.next = ceilingLeaf;
+            if (prevLeaf != null)
+            {
+                prevLeaf.next = leaf;
+            }
+            else
+            {
+                head = leaf;
+            }
+            if (ceilingLeaf != null)
+            {
+                ceilingLeaf.prev = leaf;
+            }
+            else
+            {
+                tail = leaf;
+            }
+            ++size;
+        }
+    }
+
+    /**
+     * Inserts a leaf with a key that is not contained in the subtree
+     *
+     * @return the node that replaces the subtree's root node
+     */
+    private static Node insertLeaf(Node node, Leaf<?, ?> leaf, int depth)
+    {
+        Node result;
+        byte[] keyData = leaf.keyData;
+        if (node == null)
+        {
+            result = leaf;
+        }
+        else
+        if (node instanceof Leaf)
+        {
+            /* split the leaf into an inner node with both leaves */
+            Leaf<?, ?> otherLeaf = (Leaf<?, ?>) node;
+            byte[] otherData = otherLeaf.keyData;
+            int limit = Math.min(keyData.length, otherData.length);
+            int splitDepth = depth;
+            while (splitDepth < limit && keyData[splitDepth] == otherData[splitDepth])
+            {
+                ++splitDepth;
+            }
+            Node4 inner = new Node4();
+            inner.prefix = Arrays.copyOfRange(keyData, depth, splitDepth);
+            attachLeaf(inner, otherLeaf, splitDepth);
+            attachLeaf(inner, leaf, splitDepth);
+            result = inner;
+        }
+        else
+        {
+            InnerNode inner = (InnerNode) node;
+            byte[] prefix = inner.prefix;
+            int limit = Math.min(prefix.length, keyData.length - depth);
+            int matched = 0;
+            while (matched < limit && prefix[matched] == keyData[depth + matched])
+            {
+                ++matched;
+            }
+            if (matched < prefix.length)
+            {
+                /* split the prefix at the first mismatch */
+                Node4 parent = new Node4();
+                parent.prefix = Arrays.copyOf(prefix, matched);
+                int splitByte = prefix[matched] & 0xFF;
+                inner.prefix = Arrays.copyOfRange(prefix, matched + 1, prefix.length);
+                parent.addChild(splitByte, inner);
+                attachLeaf(parent, leaf, depth + matched);
+                result = parent;
+            }
+            else
+            {
+                result = inner;
+                int childDepth = depth + prefix.length;
+                if (childDepth == keyData.length)
+                {
+                    inner.prefixLeaf = leaf;
+                }
+                else
+                {
+                    int keyByte = keyData[childDepth] & 0xFF;
+                    Node child = inner.findChild(keyByte);
+                    if (child != null)
+                    {
+                        Node newChild = insertLeaf(child, leaf, childDepth + 1);
+                        if (newChild != child)
+                        {
+                            inner.setChild(keyByte, newChild);
+                        }
+                    }
+                    else
+                    {
+                        if (inner.isFull())
+                        {
+                            inner = inner.grow();
+                            result = inner;
+                        }
+                        inner.addChild(keyByte, leaf);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void attachLeaf(InnerNode inner, Leaf<?, ?> leaf, int depth)
+    {
+        if (leaf.keyData.length == depth)
+        {
+            inner.prefixLeaf = leaf;
+        }
+        else
+        {
+            inner.addChild(leaf.keyData[depth] & 0xFF, leaf);
+        }
+    }
+
+    public V get(K key)
+    {
+        Leaf<K, V> leaf = findLeaf(encoder.encode(key));
+        return leaf != null ? leaf.value : null;
+    }
+
+    public boolean contains(K key)
+    {
+        return findLeaf(encoder.encode(key)) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Leaf<K, V> findLeaf(byte[] keyData)
+    {
+        Leaf<K, V> result = null;
+        Node node = root;
+        int depth = 0;
+        while (node != null)
+        {
+            if (node instanceof Leaf)
+            {
+                Leaf<K, V> leaf = (Leaf<K, V>) node;
+                if (Arrays.equals(leaf.keyData, keyData))
+                {
+                    result = leaf;
+                }
+                break;
+            }
+            InnerNode inner = (InnerNode) node;
+            byte[] prefix = inner.prefix;
+            int childDepth = depth + prefix.length;
+            if (childDepth > keyData.length ||
+                !Arrays.equals(prefix, 0, prefix.length, keyData, depth, childDepth))
+            {
+                break;
+            }
+            if (childDepth == keyData.length)
+            {
+                result = (Leaf<K, V>) inner.prefixLeaf;
+                break;
+            }
+            node = inner.findChild(keyData[childDepth] & 0xFF);
+            depth = childDepth + 1;
+        }
+        return result;
+    }
+
+    private Leaf<K, V> findCeilingLeaf(byte[] keyData)
+    {
+        return findCeilingLeaf(root, keyData, 0);
+    }
+
+    /**
+     * Returns the least leaf in the subtree with a key that is greater than
+     * or equal to the specified key, or null if there is no such leaf
+     */
+    @SuppressWarnings("unchecked")
+    private Leaf<K, V> findCeilingLeaf(Node node, byte[] keyData, int depth)
+    {
+        Leaf<K, V> result = null;
+        if (node instanceof Leaf)
+        {
+            Leaf<K, V> leaf = (Leaf<K, V>) node;
+            if (Arrays.compareUnsigned(leaf.keyData, keyData) >= 0)
+            {
+                result = leaf;
+            }
+        }
+        else
+        if (node != null)
+        {
+            InnerNode inner = (InnerNode) node;
+            byte[] prefix = inner.prefix;
+            int remaining = keyData.length - depth;
+            int limit = Math.min(prefix.length, remaining);
+            int matched = 0;
+            while (matched < limit && prefix[matched] == keyData[depth + matched])
+            {
+                ++matched;
+            }
+            if (matched < limit)
+            {
+                /* the subtree is either entirely greater or entirely less */
+                if ((prefix[matched] & 0xFF) > (keyData[depth + matched] & 0xFF))
+                {
+                    result = findMinLeaf(inner);
+                }
+            }
+            else
+            if (matched == remaining)
+            {
+                /* the key is a prefix of all keys in the subtree */
+                result = findMinLeaf(inner);
+            }
+            else
+            {
+                int childDepth = depth + prefix.length;
+                int keyByte = keyData[childDepth] & 0xFF;
+                Node child = inner.findChild(keyByte);
+                if (child != null)
+                {
+                    result = findCeilingLeaf(child, keyData, childDepth + 1);
+                }
+                if (result == null)
+                {
+                    Node nextChild = inner.nextChild(keyByte);
+                    if (nextChild != null)
+                    {
+                        result = findMinLeaf(nextChild);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Leaf<K, V> findMinLeaf(Node node)
+    {
+        while (!(node instanceof Leaf))
+        {
+            InnerNode inner = (InnerNode) node;
+            if (inner.prefixLeaf != null)
+            {
+                node = inner.prefixLeaf;
+            }
+            else
+            {
+                node = inner.findChild(inner.minChildByte());
+            }
+        }
+        return (Leaf<K, V>) node;
+    }
+
+    private Leaf<K, V> findFloorLeaf(byte[] keyData)
+    {
+        Leaf<K, V> leaf = findCeilingLeaf(keyData);
+        if (leaf == null)
+        {
+            leaf = tail;
+        }
+        else
+        if (!Arrays.equals(leaf.keyData, keyData))
+        {
+            leaf = leaf.prev;
+        }
+        return leaf;
+    }
+
+    private Leaf<K, V> findGreaterLeaf(byte[] keyData)
+    {
+        Leaf<K, V> leaf = findCeilingLeaf(keyData);
+        if (leaf != null && Arrays.equals(leaf.keyData, keyData))
+        {
+            leaf = leaf.next;
+        }
+        return leaf;
+    }
+
+    private Leaf<K, V> findLessLeaf(byte[] keyData)
+    {
+        Leaf<K, V> leaf = findCeilingLeaf(keyData);
+        return leaf != null ? leaf.prev : tail;
+    }
+
+    public void remove(K key)
+    {
+        byte[] keyData = encoder.encode(key);
+        Leaf<K, V> leaf = findLeaf(keyData);
+        if (leaf != null)
+        {
+            root = removeLeaf(root, keyData, 0);
+
+            if (leaf.prev != null)
+            {
+                leaf.prev.next = leaf.next;
+            }
+            else
+            {
+                head = leaf.next;
+            }
+            if (leaf.next != null)
+            {
+                leaf.next.prev = leaf.prev;
+            }
+            else
+            {
+                tail = leaf.prev;
+            }
+            leaf.prev = null;
+            leaf.next = null;
+            --size;
+        }
+    }
+
+    /**
+     * Removes the leaf of a key that is contained in the subtree
+     *
+     * @return the node that replaces the subtree's root node, or null if the
+     *     subtree is empty
+     */
+    private static Node removeLeaf(Node node, byte[] keyData, int depth)
+    {
+        Node result = null;
+        if (node instanceof InnerNode)
+        {
+            InnerNode inner = (InnerNode) node;
+            int childDepth = depth + inner.prefix.length;
+            if (childDepth == keyData.length)
+            {
+                inner.prefixLeaf = null;
+            }
+            else
+            {
+                int keyByte = keyData[childDepth] & 0xFF;
+                Node child = inner.findChild(keyByte);
+                Node newChild = removeLeaf(child, keyData, childDepth + 1);
+                if (newChild == null)
+                {
+                    inner.removeChild(keyByte);
+                }
+                else
+                if (newChild != child)
+                {
+                    inner.setChild(keyByte, newChild);
+                }
+            }
+            result = compact(inner);
+        }
+        return result;
+    }
+
+    /**
+     * Replaces an inner node that has become too sparse after a removal
+     */
+    private static Node compact(InnerNode inner)
+    {
+        Node result;
+        if (inner.childCount == 0)
+        {
+            result = inner.prefixLeaf;
+        }
+        else
+        if (inner.childCount == 1 && inner.prefixLeaf == null)
+        {
+            /* merge the node into its only child */
+            int keyByte = inner.minChildByte();
+            Node child = inner.findChild(keyByte);
+            if (child instanceof InnerNode)
+            {
+                InnerNode childInner = (InnerNode) child;
+                byte[] prefix = inner.prefix;
+                byte[] childPrefix = childInner.prefix;
+                byte[] mergedPrefix = new byte[prefix.length + 1 + childPrefix.length];
+                System.arraycopy(prefix, 0, mergedPrefix, 0, prefix.length);
+                mergedPrefix[prefix.length] = (byte) keyByte;
+                System.arraycopy(childPrefix, 0, mergedPrefix, prefix.length + 1, childPrefix.length);
+                childInner.prefix = mergedPrefix;
+            }
+            result = child;
+        }
+        else
+        {
+            result = inner.shrink();
+        }
+        return result;
+    }
+
+    public K getFirstKey()
+    {
+        return head != null ? head.key : null;
+    }
+
+    public K getLastKey()
+    {
+        return tail != null ? tail.key : null;
+    }
+
+    public V getFirstValue()
+    {
+        return head != null ? head.value : null;
+    }
+
+    public V getLastValue()
+    {
+        return tail != null ? tail.value : null;
+    }
+
+    public K getCeilingKey(K key)
+    {
+        Leaf<K, V> leaf = findCeilingLeaf(encoder.encode(key));
+        return leaf != null ? leaf.key : null;
+    }
+
+    public K getFloorKey(K key)
+    {
+        Leaf<K, V> leaf = findFloorLeaf(encoder.encode(key));
+        return leaf != null ? leaf.key : null;
+    }
+
+    public K getGreaterKey(K key)
+    {
+        Leaf<K, V> leaf = findGreaterLeaf(encoder.encode(key));
+        return leaf != null ? leaf.key : null;
+    }
+
+    public K getLessKey(K key)
+    {
+        Leaf<K, V> leaf = findLessLeaf(encoder.encode(key));
+        return leaf != null ? leaf.key : null;
+    }
+
+    public V getCeilingValue(K key)
+    {
+        Leaf<K, V> leaf = findCeilingLeaf(encoder.encode(key));
+        return leaf != null ? leaf.value : null;
+    }
+
+    public V getFloorValue(K key)
+    {
+        Leaf<K, V> leaf = findFloorLeaf(encoder.encode(key));
+        return leaf != null ? leaf.value : null;
+    }
+
+    public V getGreaterValue(K key)
+    {
+        Leaf<K, V> leaf = findGreaterLeaf(encoder.encode(key));
+        return leaf != null ? leaf.value : null;
+    }
+
+    public V getLessValue(K key)
+    {
+        Leaf<K, V> leaf = findLessLeaf(encoder.encode(key));
+        return leaf != null ? leaf.value : null;
+    }
+
+    public void clear()
+    {
+        root = null;
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public QIterator<MapEntry<K, V>> iterator()
+    {
+        return new EntriesIterator<>(this, head, false);
+    }
+
+    public QIterator<MapEntry<K, V>> reverseIterator()
+    {
+        return new EntriesIterator<>(this, tail, true);
+    }
+
+    /**
+     * Returns an iterator that starts at the entry with the least key that is
+     * greater than or equal to the specified key
+     */
+    public QIterator<MapEntry<K, V>> ceilingIterator(K key)
+    {
+        return new EntriesIterator<>(this, findCeilingLeaf(encoder.encode(key)), false);
+    }
+
+    /**
+     * Returns a reverse iterator that starts at the entry with the greatest
+     * key that is less than or equal to the specified key
+     */
+    public QIterator<MapEntry<K, V>> floorReverseIterator(K key)
+    {
+        return new EntriesIterator<>(this, findFloorLeaf(encoder.encode(key)), true);
+    }
+
+    public QIterator<K> keys()
+    {
+        return new KeysIterator<>(this, head, false);
+    }
+
+    public QIterator<V> values()
+    {
+        return new ValuesIterator<>(this, head, false);
+    }
+
+    public QIterator<K> reverseKeys()
+    {
+        return new KeysIterator<>(this, tail, true);
+    }
+
+    public QIterator<V> reverseValues()
+    {
+        return new ValuesIterator<>(this, tail, true);
+    }
+}
@@ -0,0 +1,84 @@
+package dsaext.art;
+
+/**
+ * Built-in key encoders for ArtMap
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class KeyEncoders
+{
+    /**
+     * Encodes Long keys as 8 big-endian bytes with the sign bit flipped,
+     * so that the byte order matches the signed order of the keys
+     */
+    public static final KeyEncoder<Long> LONG = new LongEncoder();
+
+    /**
+     * Encodes String keys as 2 big-endian bytes per UTF-16 char, so that
+     * the byte order matches the order of String.compareTo()
+     */
+    public static final KeyEncoder<String> STRING = new StringEncoder();
+
+    private KeyEncoders()
+    {
+    }
+
+    private static final class LongEncoder implements KeyEncoder<Long>
+    {
+        @Override
+        public byte[] encode(Long key)
+        {
+            long value = key ^ Long.MIN_VALUE;
+            byte[] data = new byte[Long.BYTES];
+            for (int idx = Long.BYTES - 1; idx >= 0; --idx)
+            {
+                data[idx] = (byte) value;
+                value >>>= 8;
+            }
+            return data;
+        }
+    }
+
+    private static final class StringEncoder implements KeyEncoder<String>
+    {
+        @Override
+        public byte[] encode(String key)
+        {
+            int length = key.length();
+            byte[] data = new byte[length * 2];
+            for (int idx = 0; idx < length; ++idx)
+            {
+                char keyChar = key.charAt(idx);
+                data[idx * 2] = (byte) (keyChar >>> 8);
+                data[idx * 2 + 1] = (byte) keyChar;
+            }
+            return data;
+        }
+    }
+}
@@ -0,0 +1,1954 @@
+package dsaext.byteqtree;
+
+import dsaext.QIterator;
+import dsaext.ByteMapEntry;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Quick balanced binary search tree for byte array keys
+ *
+ * Keys are ordered by unsigned lexicographic comparison of their bytes.
+ * The tree stores references to the key arrays passed to insert(byte[], V),
+ * and those arrays must not be modified while they are keys in the tree.
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class ByteQTree<V>
+    implements Iterable<ByteMapEntry<V>>
+{
+    private Node<V> root;
+    private long size;
+
+    private static final int PREFIX_BYTES = 8;
+
+    private enum Direction
+    {
+        NONE,
+        LESS,
+        GREATER
+    };
+
+    public ByteQTree()
+    {
+        root = null;
+        size = 0;
+    }
+
+    private static final class Node<V>
+    {
+        /* key and value objects */
+        byte[] key;
+        V value;
+
+        /* leading key bytes */
+        long prefix;
+
+        /* references to parent and child nodes */
+        Node<V> parent;
+        Node<V> less;
+        Node<V> greater;
+
+        /* balance number */
+        int balance;
+
+        Node(byte[] keyRef, V valRef, long keyPrefix)
+        {
+            key    = keyRef;
+            value  = valRef;
+            prefix = keyPrefix;
+
+            balance  = 0;
+
+            parent   = null;
+            less     = null;
+            greater  = null;
+        }
+    }
+
+    private static class BaseIterator<V>
+    {
+        ByteQTree<V> container;
+        Node<V> next;
+        Node<V> current;
+        byte[] keyPrefix;
+
+        BaseIterator(ByteQTree<V> containerRef)
+        {
+            container = containerRef;
+            current = null;
+            next = container.root;
+            if (next != null)
+            {
+                while (next.less != null)
+                {
+                    next = next.less;
+                }
+            }
+        }
+
+        BaseIterator(ByteQTree<V> containerRef, Node<V> startNode)
+        {
+            container = containerRef;
+            next = startNode;
+        }
+
+        BaseIterator(ByteQTree<V> containerRef, Node<V> startNode, byte[] keyPrefixRef)
+        {
+            container = containerRef;
+            keyPrefix = keyPrefixRef;
+            next = startNode;
+            if (next != null && !hasPrefix(next.key, keyPrefix))
+            {
+                next = null;
+            }
+        }
+
+        public final long getSize()
+        {
+            return container.size;
+        }
+
+        public final boolean hasNext()
+        {
+            return next != null;
+        }
+
+        final Node<V> nextNode()
+        {
+            current = next;
+
+            if (current != null)
+            {
+                if (next.greater != null)
+                {
+                    next = next.greater;
+                    while (next.less != null)
+                    {
+                        next = next.less;
+                    }
+                }
+                else
+                {
+                    while (next.parent != null && next.parent.greater == next)
+                    {
+                        next = next.parent;
+                    }
+                    next = next.parent;
+                }
+
+                if (keyPrefix != null && next != null && !hasPrefix(next.key, keyPrefix))
+                {
+                    next = null;
+                }
+            }
+
+            return current;
+        }
+
+        public final void remove()
+        {
+            if (current != null)
+            {
+                container.remove(current.key);
+                current = null;
+            }
+            else
+            {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private static class BaseReverseIterator<V>
+    {
+        ByteQTree<V> container;
+        Node<V> next;
+        Node<V> current;
+
+        BaseReverseIterator(ByteQTree<V> containerRef)
+        {
+            container = containerRef;
+            current = null;
+            next = container.root;
+            if (next != null)
+            {
+                while (next.greater != null)
+                {
+                    next = next.greater;
+                }
+            }
+        }
+
+        BaseReverseIterator(ByteQTree<V> containerRef, Node<V> startNode)
+        {
+            container = containerRef;
+            next = startNode;
+        }
+
+        public final long getSize()
+        {
+            return container.size;
+        }
+
+        public final boolean hasNext()
+        {
+            return next != null;
+        }
+
+        final Node<V> nextNode()
+        {
+            current = next;
+
+            if (current != null)
+            {
+                if (next.less != null)
+                {
+                    next = next.less;
+                    while (next.greater != null)
+                    {
+                        next = next.greater;
+                    }
+                }
+                else
+                {
+                    while (next.parent != null && next.parent.less == next)
+                    {
+                        next = next.parent;
+                    }
+                    next = next.parent;
+                }
+            }
+
+            return current;
+        }
+
+        public final void remove()
+        {
+            if (current != null)
+            {
+                container.remove(current.key);
+                current = null;
+            }
+            else
+            {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private static final class ValuesIterator<V>
+        extends BaseIterator<V> implements QIterator<V>
+    {
+        ValuesIterator(ByteQTree<V> containerRef)
+        {
+            super(containerRef);
+        }
+
+        ValuesIterator(ByteQTree<V> containerRef, Node<V> startNode)
+        {
+            super(containerRef, startNode);
+        }
+
+        ValuesIterator(ByteQTree<V> containerRef, Node<V> startNode, byte[] keyPrefixRef)
+        {
+            super(containerRef, startNode, keyPrefixRef);
+        }
+
+        @Override
+        public final V next()
+        {
+            V value = null;
+            Node<V> node = nextNode();
+            if (node != null)
+            {
+                value = node.value;
+            }
+            return value;
+        }
+    }
+
+    private static final class ValuesReverseIterator<V>
+        extends BaseReverseIterator<V> implements QIterator<V>
+    {
+        ValuesReverseIterator(ByteQTree<V> containerRef)
+        {
+            super(containerRef);
+        }
+
+        ValuesReverseIterator(ByteQTree<V> containerRef, Node<V> startNode)
+        {
+            super(containerRef, startNode);
+        }
+
+        @Override
+        public final V next()
+        {
+            V value = null;
+            Node<V> node = nextNode();
+            if (node != null)
+            {
+                value = node.value;
+            }
+            return value;
+        }
+    }
+
+    private static final class KeysIterator<V>
+        extends BaseIterator<V> implements QIterator<byte[]>
+    {
+        KeysIterator(ByteQTree<V> containerRef)
+        {
+            super(containerRef);
+        }
+
+        KeysIterator(ByteQTree<V> containerRef, Node<V> startNode)
+        {
+            super(containerRef, startNode);
+        }
+
+        KeysIterator(ByteQTree<V> containerRef, Node<V> startNode, byte[] keyPrefixRef)
+        {
+            super(containerRef, startNode, keyPrefixRef);
+        }
+
+        @Override
+        public final byte[] next()
+        {
+            byte[] key = null;
+            Node<V> node = nextNode();
+            if (node != null)
+            {
+                key = node.key;
+            }
+            return key;
+        }
+    }
+
+    private static final class KeysReverseIterator<V>
+        extends BaseReverseIterator<V> implements QIterator<byte[]>
+    {
+        KeysReverseIterator(ByteQTree<V> containerRef)
+        {
+            super(containerRef);
+        }
+
+        KeysReverseIterator(ByteQTree<V> containerRef, Node<V> startNode)
+        {
+            super(containerRef, startNode);
+        }
+
+        @Override
+        public final byte[] next()
+        {
+            byte[] key = null;
+            Node<V> node = nextNode();
+            if (node != null)
+            {
+                key = node.key;
+            }
+            return key;
+        }
+    }
+
+    private static final class EntriesIterator<V>
+        extends BaseIterator<V> implements QIterator<ByteMapEntry<V>>
+    {
+        EntriesIterator(ByteQTree<V> containerRef)
+        {
+            super(containerRef);
+        }
+
+        EntriesIterator(ByteQTree<V> containerRef, Node<V> startNode)
+        {
+            super(containerRef, startNode);
+        }
+
+        EntriesIterator(ByteQTree<V> containerRef, Node<V> startNode, byte[] keyPrefixRef)
+        {
+            super(containerRef, startNode, keyPrefixRef);
+        }
+
+        @Override
+        public final ByteMapEntry<V> next()
+        {
+            ByteMapEntry<V> entry = null;
+            Node<V> node = nextNode();
+            if (node != null)
+            {
+                entry = new ByteMapEntry<>(node.key, node.value);
+            }
+            return entry;
+        }
+    }
+
+    private static final class EntriesReverseIterator<V>
+        extends BaseReverseIterator<V> implements QIterator<ByteMapEntry<V>>
+    {
+        EntriesReverseIterator(ByteQTree<V> containerRef)
+        {
+            super(containerRef);
+        }
+
+        EntriesReverseIterator(ByteQTree<V> containerRef, Node<V> startNode)
+        {
+            super(containerRef, startNode);
+        }
+
+        @Override
+        public final ByteMapEntry<V> next()
+        {
+            ByteMapEntry<V> entry = null;
+            Node<V> node = nextNode();
+            if (node != null)
+            {
+                entry = new ByteMapEntry<>(node.key, node.value);
+            }
+            return entry;
+        }
+    }
+
+    public void insert(byte[] buffer, int offset, int length, V val)
+    {
+        insert(Arrays.copyOfRange(buffer, offset, offset + length), val);
+    }
+
+    public void insert(ByteBuffer buffer, V val)
+    {
+        byte[] key = new byte[buffer.remaining()];
+        buffer.duplicate().get(key);
+        insert(key, val);
+    }
+
+    public void insert(byte[] key, V val)
+    {
+        Node<V> insNode = new Node<V>(key, val, keyPrefix(key, 0, key.length));
+
+        if (root == null)
+        {
+            root = insNode;
+            ++size;
+        }
+        else
+        {
+            Node<V> parentNode = root;
+            while (true)
+            {
+               int cmpRc = Long.compareUnsigned(insNode.prefix, parentNode.prefix);
+               if (cmpRc == 0)
+               {
+                   cmpRc = compareKeys(insNode.key, 0, insNode.key.length, parentNode.key);
+               }
+               if (cmpRc < 0)
+               {
+                   if (parentNode.less == null)
+                   {
+                       parentNode.less = insNode;
+                       insNode.parent  = parentNode;
+                       ++size;
+                       break;
+                   }
+                   else
+                   {
+                       parentNode = parentNode.less;
+                   }
+               }
+               else
+               if (cmpRc > 0)
+               {
+                   if (parentNode.greater == null)
+                   {
+                       parentNode.greater = insNode;
+                       insNode.parent     = parentNode;
+                       ++size;
+                       break;
+                   }
+                   else
+                   {
+                       parentNode = parentNode.greater;
+                   }
+               }
+               else
+               {
+                   parentNode.key   = insNode.key;
+                   parentNode.value = insNode.value;
+                   parentNode = null;
+                   break;
+               }
+            }
+
+            /* update balance and perform rotations */
+            while (parentNode != null)
+            {
+                if (parentNode.less == insNode)
+                {
+                    --parentNode.balance;
+                }
+                else
+                {
+                    ++parentNode.balance;
+                }
+
+                if (parentNode.balance == 0)
+                {
+                    break;
+                }
+                else
+                if (parentNode.balance == -2)
+                {
+                    if (insNode.balance == -1)
+                    {
+                        /* rotate R */
+                        parentNode.balance = 0;
+                        insNode.balance    = 0;
+
+                        insNode.parent = parentNode.parent;
+                        if (parentNode.parent != null)
+                        {
+                            if (parentNode.parent.less == parentNode)
+                            {
+                                parentNode.parent.less = insNode;
+                            }
+                            else
+                            {
+                                parentNode.parent.greater = insNode;
+                            }
+                        }
+                        else
+                        {
+                            root = insNode;
+                        }
+
+                        parentNode.less = insNode.greater;
+                        if (insNode.greater != null)
+                        {
+                            insNode.greater.parent = parentNode;
+                        }
+
+                        insNode.greater   = parentNode;
+                        parentNode.parent = insNode;
+                    }
+                    else
+                    {
+                        /* rotate LR */
+                        if (insNode.greater.balance == -1)
+                        {
+                            insNode.balance    = 0;
+                            parentNode.balance = 1;
+                        }
+                        else
+                        if (insNode.greater.balance == 1)
+                        {
+                            insNode.balance    = -1;
+                            parentNode.balance =  0;
+                        }
+                        else
+                        {
+                            insNode.balance    = 0;
+                            parentNode.balance = 0;
+                        }
+                        insNode.greater.balance = 0;
+
+                        insNode.parent        = insNode.greater;
+                        insNode.greater       = insNode.greater.less;
+                        insNode.parent.less   = insNode;
+                        parentNode.less       = insNode.parent.greater;
+                        insNode.parent.parent = parentNode.parent;
+                        if (insNode.greater != null)
+                        {
+                            insNode.greater.parent = insNode;
+                        }
+                        if (parentNode.less != null)
+                        {
+                            parentNode.less.parent = parentNode;
+                        }
+
+                        if (parentNode.parent != null)
+                        {
+                            if (parentNode.parent.less == parentNode)
+                            {
+                                parentNode.parent.less = insNode.parent;
+                            }
+                            else
+                            {
+                                parentNode.parent.greater = insNode.parent;
+                            }
+                        }
+                        else
+                        {
+                            root = insNode.parent;
+                        }
+
+                        parentNode.parent      = insNode.parent;
+                        insNode.parent.greater = parentNode;
+                    }
+                    break;
+                }
+                else
+                if (parentNode.balance == 2)
+                {
+                    if (insNode.balance == 1)
+                    {
+                        /* rotate L */
+                        parentNode.balance = 0;
+                        insNode.balance    = 0;
+
+                        insNode.parent = parentNode.parent;
+                        if (parentNode.parent != null)
+                        {
+                            if (parentNode.parent.less == parentNode)
+                            {
+                                parentNode.parent.less = insNode;
+                            }
+                            else
+                            {
+                                parentNode.parent.greater = insNode;
+                            }
+                        }
+                        else
+                        {
+                            root = insNode;
+                        }
+
+                        parentNode.greater = insNode.less;
+                        if (insNode.less != null)
+                        {
+                            insNode.less.parent = parentNode;
+                        }
+
+                        insNode.less      = parentNode;
+                        parentNode.parent = insNode;
+                    }
+                    else
+                    {
+                        /* rotate RL */
+                        if (insNode.less.balance == -1)
+                        {
+                            insNode.balance    = 1;
+                            parentNode.balance = 0;
+                        }
+                        else
+                        if (insNode.less.balance == 1)
+                        {
+                            insNode.balance    =  0;
+                            parentNode.balance = -1;
+                        }
+                        else
+                        {
+                            insNode.balance    = 0;
+                            parentNode.balance = 0;
+                        }
+                        insNode.less.balance = 0;
+
+                        insNode.parent         = insNode.less;
+                        insNode.less           = insNode.less.greater;
+                        insNode.parent.greater = insNode;
+                        parentNode.greater     = insNode.parent.less;
+                        insNode.parent.parent  = parentNode.parent;
+                        if (insNode.less != null)
+                        {
+                            insNode.less.parent = insNode;
+                        }
+                        if (parentNode.greater != null)
+                        {
+                            parentNode.greater.parent = parentNode;
+                        }
+
+                        if (parentNode.parent != null)
+                        {
+                            if (parentNode.parent.less == parentNode)
+                            {
+                                parentNode.parent.less = insNode.parent;
+                            }
+                            else
+                            {
+                                parentNode.parent.greater = insNode.parent;
+                            }
+                        }
+                        else
+                        {
+                            root = insNode.parent;
+                        }
+
+                        parentNode.parent   = insNode.parent;
+                        insNode.parent.less = parentNode;
+                    }
+                    break;
+                }
+
+                insNode    = parentNode;
+                parentNode = parentNode.parent;
+            }
+        }
+    }
+
+    public V get(byte[] key)
+    {
+        return get(key, 0, key.length);
+    }
+
+    public V get(ByteBuffer buffer)
+    {
+        V value = null;
+        if (buffer.hasArray())
+        {
+            value = get(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        else
+        {
+            byte[] key = new byte[buffer.remaining()];
+            buffer.duplicate().get(key);
+            value = get(key, 0, key.length);
+        }
+        return value;
+    }
+
+    public V get(byte[] key, int offset, int length)
+    {
+        V value = null;
+        long keyPrefix = keyPrefix(key, offset, length);
+
+        Node<V> node = root;
+        while (node != null)
+        {
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, offset, length, node.key);
+            }
+            if (cmpRc < 0)
+            {
+                node = node.less;
+            }
+            else
+            if (cmpRc > 0)
+            {
+                node = node.greater;
+            }
+            else
+            {
+                value = node.value;
+                break;
+            }
+        }
+
+        return value;
+    }
+
+    public byte[] getFirstKey()
+    {
+        byte[] firstKey = null;
+        Node<V> node = findFirstNode();
+        if (node != null)
+        {
+            firstKey = node.key;
+        }
+        return firstKey;
+    }
+
+    public byte[] getLastKey()
+    {
+        byte[] lastKey = null;
+        Node<V> node = findLastNode();
+        if (node != null)
+        {
+            lastKey = node.key;
+        }
+        return lastKey;
+    }
+
+    public V getFirstValue()
+    {
+        V firstValue = null;
+        Node<V> node = findFirstNode();
+        if (node != null)
+        {
+            firstValue = node.value;
+        }
+        return firstValue;
+    }
+
+    public V getLastValue()
+    {
+        V lastValue = null;
+        Node<V> node = findLastNode();
+        if (node != null)
+        {
+            lastValue = node.value;
+        }
+        return lastValue;
+    }
+
+    public byte[] getCeilingKey(byte[] key)
+    {
+        byte[] ceilingKey = null;
+        Node<V> node = findCeilingNode(key, 0, key.length);
+        if (node != null)
+        {
+            ceilingKey = node.key;
+        }
+        return ceilingKey;
+    }
+
+    public byte[] getFloorKey(byte[] key)
+    {
+        byte[] floorKey = null;
+        Node<V> node = findFloorNode(key, 0, key.length);
+        if (node != null)
+        {
+            floorKey = node.key;
+        }
+        return floorKey;
+    }
+
+    public byte[] getGreaterKey(byte[] key)
+    {
+        byte[] greaterKey = null;
+        Node<V> node = findGreaterNode(key, 0, key.length);
+        if (node != null)
+        {
+            greaterKey = node.key;
+        }
+        return greaterKey;
+    }
+
+    public byte[] getLessKey(byte[] key)
+    {
+        byte[] lessKey = null;
+        Node<V> node = findLessNode(key, 0, key.length);
+        if (node != null)
+        {
+            lessKey = node.key;
+        }
+        return lessKey;
+    }
+
+    public V getCeilingValue(byte[] key)
+    {
+        V ceilingValue = null;
+        Node<V> node = findCeilingNode(key, 0, key.length);
+        if (node != null)
+        {
+            ceilingValue = node.value;
+        }
+        return ceilingValue;
+    }
+
+    public V getFloorValue(byte[] key)
+    {
+        V floorValue = null;
+        Node<V> node = findFloorNode(key, 0, key.length);
+        if (node != null)
+        {
+            floorValue = node.value;
+        }
+        return floorValue;
+    }
+
+    public V getGreaterValue(byte[] key)
+    {
+        V greaterValue = null;
+        Node<V> node = findGreaterNode(key, 0, key.length);
+        if (node != null)
+        {
+            greaterValue = node.value;
+        }
+        return greaterValue;
+    }
+
+    public V getLessValue(byte[] key)
+    {
+        V lessValue = null;
+        Node<V> node = findLessNode(key, 0, key.length);
+        if (node != null)
+        {
+            lessValue = node.value;
+        }
+        return lessValue;
+    }
+
+    private Node<V> findCeilingNode(byte[] key, int offset, int length)
+    {
+        long keyPrefix = keyPrefix(key, offset, length);
+        Node<V> node = root;
+        while (node != null)
+        {
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, offset, length, node.key);
+            }
+            if (cmpRc < 0)
+            {
+                if (node.less != null)
+                {
+                    node = node.less;
+                }
+                else
+                {
+                    break;
+                }
+            }
+            else
+            if (cmpRc > 0)
+            {
+                if (node.greater != null)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    while (node.parent != null && node.parent.greater == node)
+                    {
+                        node = node.parent;
+                    }
+                    node = node.parent;
+                    break;
+                }
+            }
+            else
+            {
+                break;
+            }
+        }
+        return node;
+    }
+
+    private Node<V> findFloorNode(byte[] key, int offset, int length)
+    {
+        long keyPrefix = keyPrefix(key, offset, length);
+        Node<V> node = root;
+        while (node != null)
+        {
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, offset, length, node.key);
+            }
+            if (cmpRc < 0)
+            {
+                if (node.less != null)
+                {
+                    node = node.less;
+                }
+                else
+                {
+                    while (node.parent != null && node.parent.less == node)
+                    {
+                        node = node.parent;
+                    }
+                    node = node.parent;
+                    break;
+                }
+            }
+            else
+            if (cmpRc > 0)
+            {
+                if (node.greater != null)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    break;
+                }
+            }
+            else
+            {
+                break;
+            }
+        }
+        return node;
+    }
+
+    private Node<V> findGreaterNode(byte[] key, int offset, int length)
+    {
+        long keyPrefix = keyPrefix(key, offset, length);
+        Node<V> node = root;
+        while (node != null)
+        {
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, offset, length, node.key);
+            }
+            if (cmpRc < 0)
+            {
+                if (node.less != null)
+                {
+                    node = node.less;
+                }
+                else
+                {
+                    break;
+                }
+            }
+            else
+            {
+                if (node.greater != null)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    while (node.parent != null && node.parent.greater == node)
+                    {
+                        node = node.parent;
+                    }
+                    node = node.parent;
+                    break;
+                }
+            }
+        }
+        return node;
+    }
+
+    private Node<V> findLessNode(byte[] key, int offset, int length)
+    {
+        long keyPrefix = keyPrefix(key, offset, length);
+        Node<V> node = root;
+        while (node != null)
+        {
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, offset, length, node.key);
+            }
+            if (cmpRc > 0)
+            {
+                if (node.greater != null)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    break;
+                }
+            }
+            else
+            {
+                if (node.less != null)
+                {
+                    node = node.less;
+                }
+                else
+                {
+                    while (node.parent != null && node.parent.less == node)
+                    {
+                        node = node.parent;
+                    }
+                    node = node.parent;
+                    break;
+                }
+            }
+        }
+        return node;
+    }
+
+    private Node<V> findNode(byte[] key, int offset, int length)
+    {
+        long keyPrefix = keyPrefix(key, offset, length);
+        Node<V> node = root;
+        while (node != null)
+        {
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, offset, length, node.key);
+            }
+            if (cmpRc < 0)
+            {
+                node = node.less;
+            }
+            else
+            if (cmpRc > 0)
+            {
+                node = node.greater;
+            }
+            else
+            {
+                break;
+            }
+        }
+        return node;
+    }
+
+    private Node<V> findFirstNode()
+    {
+        Node<V> node = root;
+        if (node != null)
+        {
+            while (node.less != null)
+            {
+                node = node.less;
+            }
+        }
+        return node;
+    }
+
+    private Node<V> findLastNode()
+    {
+        Node<V> node = root;
+        if (node != null)
+        {
+            while (node.greater != null)
+            {
+                node = node.greater;
+            }
+        }
+        return node;
+    }
+
+    public boolean contains(byte[] key)
+    {
+        return contains(key, 0, key.length);
+    }
+
+    public boolean contains(ByteBuffer buffer)
+    {
+        boolean result = false;
+        if (buffer.hasArray())
+        {
+            result = contains(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        else
+        {
+            byte[] key = new byte[buffer.remaining()];
+            buffer.duplicate().get(key);
+            result = contains(key, 0, key.length);
+        }
+        return result;
+    }
+
+    public boolean contains(byte[] key, int offset, int length)
+    {
+        long keyPrefix = keyPrefix(key, offset, length);
+        Node<V> node = root;
+        while (node != null)
+        {
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, offset, length, node.key);
+            }
+            if (cmpRc < 0)
+            {
+                node = node.less;
+            }
+            else
+            if (cmpRc > 0)
+            {
+                node = node.greater;
+            }
+            else
+            {
+                break;
+            }
+        }
+        return node != null;
+    }
+
+    public void remove(byte[] key)
+    {
+        remove(key, 0, key.length);
+    }
+
+    public void remove(ByteBuffer buffer)
+    {
+        if (buffer.hasArray())
+        {
+            remove(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        else
+        {
+            byte[] key = new byte[buffer.remaining()];
+            buffer.duplicate().get(key);
+            remove(key, 0, key.length);
+        }
+    }
+
+    public void remove(byte[] key, int offset, int length)
+    {
+        long keyPrefix = keyPrefix(key, offset, length);
+        Node<V> rotNode = null;
+        Node<V> rmNode = root;
+        while (rmNode != null)
+        {
+            int cmpRc = Long.compareUnsigned(keyPrefix, rmNode.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, offset, length, rmNode.key);
+            }
+            if (cmpRc < 0)
+            {
+                rmNode = rmNode.less;
+            }
+            else
+            if (cmpRc > 0)
+            {
+                rmNode = rmNode.greater;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        Direction dir = Direction.NONE;
+        if (rmNode != null)
+        {
+            --size;
+
+            if (rmNode.less == null && rmNode.greater == null)
+            {
+                if (root == rmNode)
+                {
+                    // root node leaf
+                    root = null;
+                }
+                else
+                {
+                    // non-root node leaf
+                    rotNode = rmNode.parent;
+
+                    if (rotNode.less == rmNode)
+                    {
+                        // node to remove is in the left subtree
+                        // of its parent
+
+                        // save direction
+                        dir = Direction.LESS;
+                        rotNode.less = null;
+                    }
+                    else
+                    {
+                        dir = Direction.GREATER;
+                        rotNode.greater = null;
+                    }
+                }
+            }
+            else
+            {
+                Node<V> replaceNode = null;
+                // not a leaf node, removal by replacement
+                // at least one child, or a child and a subtree, or two subtrees
+                // find replacement node
+                if (rmNode.balance == -1)
+                {
+                    replaceNode = rmNode.less;
+                    while (replaceNode.greater != null)
+                    {
+                        replaceNode = replaceNode.greater;
+                    }
+                }
+                else
+                {
+                    replaceNode = rmNode.greater;
+                    while (replaceNode.less != null)
+                    {
+                        replaceNode = replaceNode.less;
+                    }
+                }
+                rotNode = replaceNode.parent;
+
+                if (rotNode.less == replaceNode)
+                {
+                    // node to remove is in the left subtree
+                    // of its parent
+
+                    // save direction
+                    dir = Direction.LESS;
+
+                    if (replaceNode.less != null)
+                    {
+                        // replace node by its left child
+                        rotNode.less = replaceNode.less;
+                        replaceNode.less.parent = rotNode;
+                    }
+                    else
+                    if (replaceNode.greater != null)
+                    {
+                        // replace node by its right child
+                        rotNode.less = replaceNode.greater;
+                        replaceNode.greater.parent = rotNode;
+                    }
+                    else
+                    {
+                        // non-root leaf node
+                        rotNode.less = null;
+                    }
+                }
+                else
+                {
+                    // node to remove is in the right subtree
+                    // of its parent
+
+                    // save direction
+                    dir = Direction.GREATER;
+
+                    if (replaceNode.less != null)
+                    {
+                        // replace node by its left child
+                        rotNode.greater = replaceNode.less;
+                        replaceNode.less.parent = rotNode;
+                    }
+                    else
+                    if (replaceNode.greater != null)
+                    {
+                        // replace node by its right child
+                        rotNode.greater = replaceNode.greater;
+                        replaceNode.greater.parent = rotNode;
+                    }
+                    else
+                    {
+                        // non-root leaf node
+                        rotNode.greater = null;
+                    }
+                }
+
+                // replace rmNode with replaceNode
+                if (rmNode.parent == null)
+                {
+                    // Node to be removed is the root node
+                    root = replaceNode;
+                }
+                else
+                {
+                    if (rmNode.parent.less == rmNode)
+                    {
+                        rmNode.parent.less = replaceNode;
+                    }
+                    else
+                    {
+                        rmNode.parent.greater = replaceNode;
+                    }
+                }
+                if (rmNode.less != null)
+                {
+                    rmNode.less.parent = replaceNode;
+                }
+                if (rmNode.greater != null)
+                {
+                    rmNode.greater.parent = replaceNode;
+                }
+                replaceNode.parent  = rmNode.parent;
+                replaceNode.less    = rmNode.less;
+                replaceNode.greater = rmNode.greater;
+                replaceNode.balance = rmNode.balance;
+
+                if (rotNode == rmNode)
+                {
+                    rotNode = replaceNode;
+                }
+            }
+
+            // update balance and perform rotations
+            while (rotNode != null)
+            {
+                if (dir == Direction.LESS)
+                {
+                    // node was removed from left subtree
+                    ++rotNode.balance;
+                    if (rotNode.balance == 1)
+                    {
+                        break;
+                    }
+                }
+                else
+                {
+                    /* node was removed from right subtree */
+                    --rotNode.balance;
+                    if (rotNode.balance == -1)
+                    {
+                        break;
+                    }
+                }
+
+                if (rotNode.parent != null)
+                {
+                    if (rotNode.parent.less == rotNode)
+                    {
+                        dir = Direction.LESS;
+                    }
+                    else
+                    {
+                        dir = Direction.GREATER;
+                    }
+                }
+
+                // update balance and perform rotations
+                if (rotNode.balance == -2)
+                {
+                    Node<V> subNode = rotNode.less;
+                    // 0 or -1
+                    if (subNode.balance <= 0)
+                    {
+                        // rotate R
+                        subNode.parent = rotNode.parent;
+                        if (rotNode.parent != null)
+                        {
+                            if (rotNode.parent.less == rotNode)
+                            {
+                                rotNode.parent.less = subNode;
+                            }
+                            else
+                            {
+                                rotNode.parent.greater = subNode;
+                            }
+                        }
+                        else
+                        {
+                            root = subNode;
+                        }
+
+                        rotNode.less = subNode.greater;
+                        if (subNode.greater != null)
+                        {
+                            subNode.greater.parent = rotNode;
+                        }
+
+                        subNode.greater = rotNode;
+                        rotNode.parent  = subNode;
+
+                        if (subNode.balance == 0)
+                        {
+                            rotNode.balance = -1;
+                            subNode.balance = 1;
+                            break;
+                        }
+                        else
+                        {
+                            rotNode.balance = 0;
+                            subNode.balance = 0;
+                        }
+                    }
+                    else
+                    {
+                        // rotate LR
+                        if (subNode.greater.balance == -1)
+                        {
+                            subNode.balance = 0;
+                            rotNode.balance = 1;
+                        }
+                        else
+                        if (subNode.greater.balance == 1)
+                        {
+                            subNode.balance = -1;
+                            rotNode.balance = 0;
+                        }
+                        else
+                        {
+                            subNode.balance = 0;
+                            rotNode.balance = 0;
+                        }
+                        subNode.greater.balance = 0;
+
+                        subNode.parent        = subNode.greater;
+                        subNode.greater       = subNode.greater.less;
+                        subNode.parent.less   = subNode;
+                        rotNode.less          = subNode.parent.greater;
+                        subNode.parent.parent = rotNode.parent;
+                        if (subNode.greater != null)
+                        {
+                            subNode.greater.parent = subNode;
+                        }
+                        if (rotNode.less != null)
+                        {
+                            rotNode.less.parent = rotNode;
+                        }
+
+                        if (rotNode.parent != null)
+                        {
+                            if (rotNode.parent.less == rotNode)
+                            {
+                                rotNode.parent.less = subNode.parent;
+                            }
+                            else
+                            {
+                                rotNode.parent.greater = subNode.parent;
+                            }
+                        }
+                        else
+                        {
+                            root = subNode.parent;
+                        }
+
+                        rotNode.parent         = subNode.parent;
+                        subNode.parent.greater = rotNode;
+                    }
+                    rotNode = rotNode.parent;
+                    // end of R / LR rotations
+                }
+                else
+                if (rotNode.balance == 2)
+                {
+                    Node<V> subNode = rotNode.greater;
+                    // 0 or 1
+                    if (subNode.balance >= 0)
+                    {
+                        // rotate L
+                        subNode.parent = rotNode.parent;
+                        if (rotNode.parent != null)
+                        {
+                            if (rotNode.parent.less == rotNode)
+                            {
+                                rotNode.parent.less = subNode;
+                            }
+                            else
+                            {
+                                rotNode.parent.greater = subNode;
+                            }
+                        }
+                        else
+                        {
+                            root = subNode;
+                        }
+
+                        rotNode.greater = subNode.less;
+                        if (subNode.less != null)
+                        {
+                            subNode.less.parent = rotNode;
+                        }
+
+                        subNode.less   = rotNode;
+                        rotNode.parent = subNode;
+                        if (subNode.balance == 0)
+                        {
+                            rotNode.balance = 1;
+                            subNode.balance = -1;
+                            break;
+                        }
+                        else
+                        {
+                            rotNode.balance = 0;
+                            subNode.balance = 0;
+                        }
+                    }
+                    else
+                    {
+                        // rotate RL
+                        if (subNode.less.balance == -1)
+                        {
+                            subNode.balance = 1;
+                            rotNode.balance = 0;
+                        }
+                        else
+                        if (subNode.less.balance == 1)
+                        {
+                            subNode.balance = 0;
+                            rotNode.balance = -1;
+                        }
+                        else
+                        {
+                            subNode.balance = 0;
+                            rotNode.balance = 0;
+                        }
+                        subNode.less.balance = 0;
+
+                        subNode.parent         = subNode.less;
+                        subNode.less           = subNode.less.greater;
+                        subNode.parent.greater = subNode;
+                        rotNode.greater        = subNode.parent.less;
+                        subNode.parent.parent  = rotNode.parent;
+                        if (subNode.less != null)
+                        {
+                            subNode.less.parent = subNode;
+                        }
+                        if (rotNode.greater != null)
+                        {
+                            rotNode.greater.parent = rotNode;
+                        }
+
+                        if (rotNode.parent != null)
+                        {
+                            if (rotNode.parent.less == rotNode)
+                            {
+                                rotNode.parent.less = subNode.parent;
+                            }
+                            else
+                            {
+                                rotNode.parent.greater = subNode.parent;
+                            }
+                        }
+                        else
+                        {
+                            root = subNode.parent;
+                        }
+
+                        rotNode.parent      = subNode.parent;
+                        subNode.parent.less = rotNode;
+                    }
+                    rotNode = rotNode.parent;
+                    // end of L / RL rotations
+                }
+                rotNode = rotNode.parent;
+            }
+        }
+    }
+
+    /**
+     * Packs the leading bytes of the key into a long, the first byte in the
+     * most significant bits. Shorter keys are padded with zero bits.
+     * Comparing the results as unsigned values preserves the unsigned
+     * lexicographic order of the keys.
+     */
+    private static long keyPrefix(byte[] key, int offset, int length)
+    {
+        long prefix = 0;
+        int prefixLength = Math.min(length, PREFIX_BYTES);
+        for (int index = 0; index < prefixLength; ++index)
+        {
+            prefix |= ((long) (key[offset + index] & 0xFF)) << ((PREFIX_BYTES - 1 - index) * Byte.SIZE);
+        }
+        return prefix;
+    }
+
+    private static int compareKeys(byte[] key, int offset, int length, byte[] nodeKey)
+    {
+        return Arrays.compareUnsigned(key, offset, offset + length, nodeKey, 0, nodeKey.length);
+    }
+
+    private static boolean hasPrefix(byte[] key, byte[] keyPrefix)
+    {
+        return key.length >= keyPrefix.length &&
+            Arrays.mismatch(key, 0, keyPrefix.length, keyPrefix, 0, keyPrefix.length) == -1;
+    }
+
+    public void clear()
+    {
+        root = null;
+        size = 0;
+    }
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    public QIterator<byte[]> keys()
+    {
+        return new KeysIterator<>(this);
+    }
+
+    public QIterator<V> values()
+    {
+        return new ValuesIterator<>(this);
+    }
+
+    public QIterator<byte[]> reverseKeys()
+    {
+        return new KeysReverseIterator<>(this);
+    }
+
+    public QIterator<V> reverseValues()
+    {
+        return new ValuesReverseIterator<>(this);
+    }
+
+    public QIterator<byte[]> keys(byte[] key)
+    {
+        Node<V> startNode = findNode(key, 0, key.length);
+        QIterator<byte[]> iter = null;
+        if (startNode != null)
+        {
+            iter = new KeysIterator<>(this, startNode);
+        }
+        return iter;
+    }
+
+    public QIterator<V> values(byte[] key)
+    {
+        Node<V> startNode = findNode(key, 0, key.length);
+        QIterator<V> iter = null;
+        if (startNode != null)
+        {
+            iter = new ValuesIterator<>(this, startNode);
+        }
+        return iter;
+    }
+
+    public QIterator<byte[]> reverseKeys(byte[] key)
+    {
+        Node<V> startNode = findNode(key, 0, key.length);
+        QIterator<byte[]> iter = null;
+        if (startNode != null)
+        {
+            iter = new KeysReverseIterator<>(this, startNode);
+        }
+        return iter;
+    }
+
+    public QIterator<V> reverseValues(byte[] key)
+    {
+        Node<V> startNode = findNode(key, 0, key.length);
+        QIterator<V> iter = null;
+        if (startNode != null)
+        {
+            iter = new ValuesReverseIterator<>(this, startNode);
+        }
+        return iter;
+    }
+
+    @Override
+    public QIterator<ByteMapEntry<V>> iterator()
+    {
+        return new EntriesIterator<>(this);
+    }
+
+    public QIterator<ByteMapEntry<V>> reverseIterator()
+    {
+        return new EntriesReverseIterator<>(this);
+    }
+
+    /**
+     * Returns an iterator over the keys that start with the specified prefix
+     *
+     * The iterator starts at the ceiling node of the prefix and ends at the
+     * first key that does not start with the prefix.
+     */
+    public QIterator<byte[]> prefixKeys(byte[] keyPrefix)
+    {
+        return new KeysIterator<>(this, findCeilingNode(keyPrefix, 0, keyPrefix.length), keyPrefix);
+    }
+
+    public QIterator<V> prefixValues(byte[] keyPrefix)
+    {
+        return new ValuesIterator<>(this, findCeilingNode(keyPrefix, 0, keyPrefix.length), keyPrefix);
+    }
+
+    public QIterator<ByteMapEntry<V>> prefixIterator(byte[] keyPrefix)
+    {
+        return new EntriesIterator<>(this, findCeilingNode(keyPrefix, 0, keyPrefix.length), keyPrefix);
+    }
+
+    @SuppressWarnings("unchecked")
+    public byte[][] keysArray(byte[][] dstArray)
+    {
+        byte[][] keys = null;
+        if (size <= Integer.MAX_VALUE)
+        {
+            if (size <= dstArray.length)
+            {
+                keys = dstArray;
+            }
+            else
+            {
+                keys = (byte[][]) Array.newInstance(dstArray.getClass().getComponentType(), (int) size);
+            }
+
+            if (root != null)
+            {
+                Node<V> node = root;
+                while (node.less != null)
+                {
+                    node = node.less;
+                }
+
+                int index = 0;
+                while (node != null)
+                {
+                    keys[index] = node.key;
+                    ++index;
+                    if (node.greater != null)
+                    {
+                        node = node.greater;
+                        while (node.less != null)
+                        {
+                            node = node.less;
+                        }
+                    }
+                    else
+                    {
+                        while (node.parent != null && node.parent.greater == node)
+                        {
+                            node = node.parent;
+                        }
+                        node = node.parent;
+                    }
+                }
+            }
+        }
+
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V[] valuesArray(V[] dstArray)
+    {
+        V[] values = null;
+        if (size <= Integer.MAX_VALUE)
+        {
+            if (size <= dstArray.length)
+            {
+                values = dstArray;
+            }
+            else
+            {
+                values = (V[]) Array.newInstance(dstArray.getClass().getComponentType(), (int) size);
+            }
+
+            if (root != null)
+            {
+                Node<V> node = root;
+                while (node.less != null)
+                {
+                    node = node.less;
+                }
+
+                int index = 0;
+                while (node != null)
+                {
+                    values[index] = node.value;
+                    ++index;
+                    if (node.greater != null)
+                    {
+                        node = node.greater;
+                        while (node.less != null)
+                        {
+                            node = node.less;
+                        }
+                    }
+                    else
+                    {
+                        while (node.parent != null && node.parent.greater == node)
+                        {
+                            node = node.parent;
+                        }
+                        node = node.parent;
+                    }
+                }
+            }
+        }
+
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    public byte[][] reverseKeysArray(byte[][] dstArray)
+    {
+        byte[][] keys = null;
+        if (size <= Integer.MAX_VALUE)
+        {
+            if (size <= dstArray.length)
+            {
+                keys = dstArray;
+            }
+            else
+            {
+                keys = (byte[][]) Array.newInstance(dstArray.getClass().getComponentType(), (int) size);
+            }
+
+            if (root != null)
+            {
+                Node<V> node = root;
+                while (node.greater != null)
+                {
+                    node = node.greater;
+                }
+
+                int index = 0;
+                while (node != null)
+                {
+                    keys[index] = node.key;
+                    ++index;
+                    if (node.less != null)
+                    {
+                        node = node.less;
+                        while (node.greater != null)
+                        {
+                            node = node.greater;
+                        }
+                    }
+                    else
+                    {
+                        while (node.parent != null && node.parent.less == node)
+                        {
+                            node = node.parent;
+                        }
+                        node = node.parent;
+                    }
+                }
+            }
+        }
+
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V[] reverseValuesArray(V[] dstArray)
+    {
+        V[] values = null;
+        if (size <= Integer.MAX_VALUE)
+        {
+            if (size <= dstArray.length)
+            {
+                values = dstArray;
+            }
+            else
+            {
+                values = (V[]) Array.newInstance(dstArray.getClass().getComponentType(), (int) size);
+            }
+
+            if (root != null)
+            {
+                Node<V> node = root;
+                while (node.greater != null)
+                {
+                    node = node.greater;
+                }
+
+                int index = 0;
+                while (node != null)
+                {
+                    values[index] = node.value;
+                    ++index;
+                    if (node.less != null)
+                    {
+                        node = node.less;
+                        while (node.greater != null)
+                        {
+                            node = node.greater;
+                        }
+                    }
+                    else
+                    {
+                        while (node.parent != null && node.parent.less == node)
+                        {
+                            node = node.parent;
+                        }
+                        node = node.parent;
+                    }
+                }
+            }
+        }
+
+        return values;
+    }
+}
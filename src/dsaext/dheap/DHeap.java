@@ -0,0 +1,291 @@
+package dsaext.dheap;
+
+/**
+ * Array based d-ary heap with decrease-key
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class DHeap<K extends Comparable<K>, V>
+{
+    private static final int DEFAULT_ARITY    = 4;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int arity;
+    private Entry<K, V>[] heap;
+    private int size;
+
+    public DHeap()
+    {
+        this(DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates a heap where each node has up to the specified number of children
+     *
+     * Higher arities make the heap shallower and keep the children of a node
+     * adjacent in the array, which makes inserts and decreaseKey() cheaper and
+     * poll() more expensive.
+     */
+    @SuppressWarnings("unchecked")
+    public DHeap(int arityValue)
+    {
+        if (arityValue < 2)
+        {
+            throw new IllegalArgumentException("DHeap(): invalid arity " + arityValue);
+        }
+        arity = arityValue;
+        heap  = (Entry<K, V>[]) new Entry<?, ?>[DEFAULT_CAPACITY];
+        size  = 0;
+    }
+
+    public static final class Entry<K extends Comparable<K>, V>
+    {
+        private K key;
+        private V value;
+
+        /* position in the heap array, -1 if the entry is not in a heap */
+        private int index;
+
+        Entry(K keyRef, V valueRef)
+        {
+            key   = keyRef;
+            value = valueRef;
+            index = -1;
+        }
+
+        public K getKey()
+        {
+            return key;
+        }
+
+        public V getValue()
+        {
+            return value;
+        }
+
+        public void setValue(V valueRef)
+        {
+            value = valueRef;
+        }
+    }
+
+    public Entry<K, V> insert(K key, V value)
+    {
+        if (size == heap.length)
+        {
+            heap = java.util.Arrays.copyOf(heap, heap.length * 2);
+        }
+        Entry<K, V> entry = new Entry<>(key, value);
+        siftUp(entry, size);
+        ++size;
+        return entry;
+    }
+
+    public Entry<K, V> peek()
+    {
+        return size > 0 ? heap[0] : null;
+    }
+
+    public K getFirstKey()
+    {
+        return size > 0 ? heap[0].key : null;
+    }
+
+    public V getFirstValue()
+    {
+        return size > 0 ? heap[0].value : null;
+    }
+
+    /**
+     * Removes the entry with the least key and returns it, or returns null
+     * if the heap is empty
+     */
+    public Entry<K, V> poll()
+    {
+        Entry<K, V> entry = null;
+        if (size > 0)
+        {
+            entry = heap[0];
+            removeAt(0);
+        }
+        return entry;
+    }
+
+    /**
+     * Replaces the key of an entry in this heap with a key that is
+     * less than or equal to its current key
+     */
+    public void decreaseKey(Entry<K, V> entry, K key)
+    {
+        checkEntry(entry);
+        if (key.compareTo(entry.key) > 0)
+        {
+            throw new IllegalArgumentException("DHeap.decreaseKey(): key is greater than the current key");
+        }
+        entry.key = key;
+        siftUp(entry, entry.index);
+    }
+
+    /**
+     * Replaces the key of an entry in this heap with any key
+     */
+    public void updateKey(Entry<K, V> entry, K key)
+    {
+        checkEntry(entry);
+        int cmpRc = key.compareTo(entry.key);
+        entry.key = key;
+        if (cmpRc < 0)
+        {
+            siftUp(entry, entry.index);
+        }
+        else
+        if (cmpRc > 0)
+        {
+            siftDown(entry, entry.index);
+        }
+    }
+
+    public void remove(Entry<K, V> entry)
+    {
+        checkEntry(entry);
+        removeAt(entry.index);
+    }
+
+    public boolean contains(Entry<K, V> entry)
+    {
+        return entry.index >= 0 && entry.index < size && heap[entry.index] == entry;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        for (int index = 0; index < size; ++index)
+        {
+            heap[index].index = -1;
+            heap[index] = null;
+        }
+        size = 0;
+    }
+
+    private void checkEntry(Entry<K, V> entry)
+    {
+        if (!contains(entry))
+        {
+            throw new IllegalArgumentException("DHeap: entry is not contained in this heap");
+        }
+    }
+
+    private void removeAt(int index)
+    {
+        Entry<K, V> entry = heap[index];
+        entry.index = -1;
+        --size;
+        if (index < size)
+        {
+            Entry<K, V> moved = heap[size];
+            heap[size] = null;
+            siftDown(moved, index);
+            if (heap[index] == moved)
+            {
+                siftUp(moved, index);
+            }
+        }
+        else
+        {
+            heap[size] = null;
+        }
+    }
+
+    /**
+     * Moves the entry from the specified position towards the root until its
+     * parent's key is not greater than its own key
+     */
+    private void siftUp(Entry<K, V> entry, int index)
+    {
+        while (index > 0)
+        {
+            int parentIndex = (index - 1) / arity;
+            Entry<K, V> parentEntry = heap[parentIndex];
+            if (entry.key.compareTo(parentEntry.key) >= 0)
+            {
+                break;
+            }
+            heap[index] = parentEntry;
+            parentEntry.index = index;
+            index = parentIndex;
+        }
+        heap[index] = entry;
+        entry.index = index;
+    }
+
+    /**
+     * Moves the entry from the specified position towards the leaves until
+     * none of its children has a lesser key
+     */
+    private void siftDown(Entry<K, V> entry, int index)
+    {
+        while (true)
+        {
+            int firstChild = index * arity + 1;
+            if (firstChild >= size || firstChild < 0)
+            {
+                break;
+            }
+            int endChild = Math.min(firstChild + arity, size);
+            int minIndex = firstChild;
+            Entry<K, V> minEntry = heap[firstChild];
+            for (int childIndex = firstChild + 1; childIndex < endChild; ++childIndex)
+            {
+                if (heap[childIndex].key.compareTo(minEntry.key) < 0)
+                {
+                    minIndex = childIndex;
+                    minEntry = heap[childIndex];
+                }
+            }
+            if (minEntry.key.compareTo(entry.key) >= 0)
+            {
+                break;
+            }
+            heap[index] = minEntry;
+            minEntry.index = index;
+            index = minIndex;
+        }
+        heap[index] = entry;
+        entry.index = index;
+    }
+}
@@ -0,0 +1,1198 @@
+package dsaext.intset;
+
+import dsaext.QIterator;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Compressed set of int values
+ *
+ * Values are partitioned by their upper 16 bits into chunks, and the lower
+ * 16 bits of the values within each chunk are stored in a container whose
+ * representation depends on the chunk's contents: a sorted array for sparse
+ * chunks, a 65536 bit bitmap for dense chunks, or a list of runs for chunks
+ * with long sequences of consecutive values. Sets of clustered values need
+ * only a few bytes per value, compared to a node per value in a tree.
+ *
+ * Values are ordered as signed ints. The bitmap operations of and(), or() and
+ * andNot() process 64 values per word in simple loops that the JIT compiler
+ * can vectorize.
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class CompressedIntSet implements Iterable<Integer>
+{
+    /* container keys in ascending order, the upper 16 bits of the values with the sign bit flipped */
+    private char[] keys;
+    private Container[] containers;
+    private int containerCount;
+
+    private long size;
+
+    /* maximum number of values in an array container */
+    private static final int ARRAY_MAX_SIZE = 4096;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    public CompressedIntSet()
+    {
+        keys = new char[INITIAL_CAPACITY];
+        containers = new Container[INITIAL_CAPACITY];
+        containerCount = 0;
+        size = 0;
+    }
+
+    public static CompressedIntSet of(int... values)
+    {
+        CompressedIntSet set = new CompressedIntSet();
+        for (int value : values)
+        {
+            set.add(value);
+        }
+        return set;
+    }
+
+    private static char highBits(int value)
+    {
+        return (char) ((value >>> 16) ^ 0x8000);
+    }
+
+    private static int lowBits(int value)
+    {
+        return value & 0xFFFF;
+    }
+
+    private static int combine(char key, int low)
+    {
+        return ((key ^ 0x8000) << 16) | low;
+    }
+
+    private abstract static class Container
+    {
+        abstract int getCardinality();
+
+        abstract boolean contains(int low);
+
+        /* returns the container that holds the values after the insertion */
+        abstract Container add(int low);
+
+        /* returns the container that holds the values after the removal */
+        abstract Container remove(int low);
+
+        /* returns the number of values that are less than or equal to low */
+        abstract int rank(int low);
+
+        abstract int first();
+
+        abstract int last();
+
+        abstract LowCursor cursor();
+
+        abstract BitmapContainer toBitmap();
+
+        abstract long getMemorySize();
+
+        /* returns the smallest representation of this container's values */
+        Container optimize()
+        {
+            RunContainer runs = RunContainer.fromCursor(cursor(), countRuns());
+            Container result = this;
+            if (runs.getMemorySize() < getMemorySize())
+            {
+                result = runs;
+            }
+            return result;
+        }
+
+        int countRuns()
+        {
+            int runCount = 0;
+            int prev = -2;
+            LowCursor lowCursor = cursor();
+            while (lowCursor.hasNext())
+            {
+                int low = lowCursor.next();
+                if (low != prev + 1)
+                {
+                    ++runCount;
+                }
+                prev = low;
+            }
+            return runCount;
+        }
+    }
+
+    private abstract static class LowCursor
+    {
+        abstract boolean hasNext();
+
+        abstract int next();
+    }
+
+    private static final class ArrayContainer extends Container
+    {
+        char[] values;
+        int count;
+
+        ArrayContainer()
+        {
+            values = new char[INITIAL_CAPACITY];
+            count = 0;
+        }
+
+        ArrayContainer(char[] valuesRef, int valueCount)
+        {
+            values = valuesRef;
+            count = valueCount;
+        }
+
+        @Override
+        int getCardinality()
+        {
+            return count;
+        }
+
+        @Override
+        boolean contains(int low)
+        {
+            return Arrays.binarySearch(values, 0, count, (char) low) >= 0;
+        }
+
+        @Override
+        Container add(int low)
+        {
+            Container result = this;
+            int idx = Arrays.binarySearch(values, 0, count, (char) low);
+            if (idx < 0)
+            {
+                if (count == ARRAY_MAX_SIZE)
+                {
+                    result = toBitmap().add(low);
+                }
+                else
+                {
+                    idx = -(idx + 1);
+                    if (count == values.length)
+                    {
+                        values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_MAX_SIZE));
+                    }
+                    System.arraycopy(values, idx, values, idx + 1, count - idx);
+                    values[idx] = (char) low;
+                    ++count;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Container remove(int low)
+        {
+            int idx = Arrays.binarySearch(values, 0, count, (char) low);
+            if (idx >= 0)
+            {
+                --count;
+                System.arraycopy(values, idx + 1, values, idx, count - idx);
+            }
+            return this;
+        }
+
+        @Override
+        int rank(int low)
+        {
+            int idx = Arrays.binarySearch(values, 0, count, (char) low);
+            return idx >= 0 ? idx + 1 : -(idx + 1);
+        }
+
+        @Override
+        int first()
+        {
+            return values[0];
+        }
+
+        @Override
+        int last()
+        {
+            return values[count - 1];
+        }
+
+        @Override
+        LowCursor cursor()
+        {
+            return new LowCursor()
+            {
+                private int idx = 0;
+
+                @Override
+                boolean hasNext()
+                {
+                    return idx < count;
+                }
+
+                @Override
+                int next()
+                {
+                    return values[idx++];
+                }
+            };
+        }
+
+        @Override
+        BitmapContainer toBitmap()
+        {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int idx = 0; idx < count; ++idx)
+            {
+                int low = values[idx];
+                bitmap.words[low >>> 6] |= 1L << low;
+            }
+            bitmap.cardinality = count;
+            return bitmap;
+        }
+
+        @Override
+        long getMemorySize()
+        {
+            return 2L * values.length;
+        }
+    }
+
+    private static final class BitmapContainer extends Container
+    {
+        final long[] words = new long[1024];
+        int cardinality;
+
+        @Override
+        int getCardinality()
+        {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int low)
+        {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(int low)
+        {
+            long word = words[low >>> 6];
+            long bit = 1L << low;
+            if ((word & bit) == 0)
+            {
+                words[low >>> 6] = word | bit;
+                ++cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int low)
+        {
+            Container result = this;
+            long word = words[low >>> 6];
+            long bit = 1L << low;
+            if ((word & bit) != 0)
+            {
+                words[low >>> 6] = word & ~bit;
+                --cardinality;
+                if (cardinality <= ARRAY_MAX_SIZE)
+                {
+                    result = toArray();
+                }
+            }
+            return result;
+        }
+
+        @Override
+        int rank(int low)
+        {
+            int wordIdx = low >>> 6;
+            int result = 0;
+            for (int idx = 0; idx < wordIdx; ++idx)
+            {
+                result += Long.bitCount(words[idx]);
+            }
+            /* mask the bits up to and including low */
+            long mask = -1L >>> (63 - (low & 63));
+            return result + Long.bitCount(words[wordIdx] & mask);
+        }
+
+        @Override
+        int first()
+        {
+            int wordIdx = 0;
+            while (words[wordIdx] == 0)
+            {
+                ++wordIdx;
+            }
+            return wordIdx * 64 + Long.numberOfTrailingZeros(words[wordIdx]);
+        }
+
+        @Override
+        int last()
+        {
+            int wordIdx = words.length - 1;
+            while (words[wordIdx] == 0)
+            {
+                --wordIdx;
+            }
+            return wordIdx * 64 + 63 - Long.numberOfLeadingZeros(words[wordIdx]);
+        }
+
+        @Override
+        LowCursor cursor()
+        {
+            return new LowCursor()
+            {
+                private int wordIdx = 0;
+                private long word = words[0];
+
+                @Override
+                boolean hasNext()
+                {
+                    while (word == 0 && wordIdx < words.length - 1)
+                    {
+                        ++wordIdx;
+                        word = words[wordIdx];
+                    }
+                    return word != 0;
+                }
+
+                @Override
+                int next()
+                {
+                    if (!hasNext())
+                    {
+                        throw new NoSuchElementException();
+                    }
+                    int low = wordIdx * 64 + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    return low;
+                }
+            };
+        }
+
+        @Override
+        BitmapContainer toBitmap()
+        {
+            return this;
+        }
+
+        ArrayContainer toArray()
+        {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int wordIdx = 0; wordIdx < words.length; ++wordIdx)
+            {
+                long word = words[wordIdx];
+                while (word != 0)
+                {
+                    values[count++] = (char) (wordIdx * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+
+        @Override
+        long getMemorySize()
+        {
+            return 8L * words.length;
+        }
+
+        /* recounts the cardinality and selects the representation of a computed bitmap */
+        Container normalize()
+        {
+            int count = 0;
+            for (long word : words)
+            {
+                count += Long.bitCount(word);
+            }
+            cardinality = count;
+            Container result = this;
+            if (count == 0)
+            {
+                result = null;
+            }
+            else
+            if (count <= ARRAY_MAX_SIZE)
+            {
+                result = toArray();
+            }
+            return result;
+        }
+    }
+
+    private static final class RunContainer extends Container
+    {
+        /* start and length - 1 of each run, interleaved */
+        char[] runs;
+        int runCount;
+        int cardinality;
+
+        RunContainer(int capacity)
+        {
+            runs = new char[Math.max(capacity, 1) * 2];
+            runCount = 0;
+            cardinality = 0;
+        }
+
+        static RunContainer fromCursor(LowCursor lowCursor, int runCount)
+        {
+            RunContainer container = new RunContainer(runCount);
+            while (lowCursor.hasNext())
+            {
+                container.appendValue(lowCursor.next());
+            }
+            return container;
+        }
+
+        private void appendValue(int low)
+        {
+            if (runCount > 0 && start(runCount - 1) + length(runCount - 1) == low)
+            {
+                ++runs[(runCount - 1) * 2 + 1];
+            }
+            else
+            {
+                ensureCapacity(runCount + 1);
+                runs[runCount * 2] = (char) low;
+                runs[runCount * 2 + 1] = 0;
+                ++runCount;
+            }
+            ++cardinality;
+        }
+
+        private int start(int runIdx)
+        {
+            return runs[runIdx * 2];
+        }
+
+        /* returns the number of values in the run */
+        private int length(int runIdx)
+        {
+            return runs[runIdx * 2 + 1] + 1;
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (capacity * 2 > runs.length)
+            {
+                runs = Arrays.copyOf(runs, Math.max(runs.length * 2, capacity * 2));
+            }
+        }
+
+        /* returns the index of the last run that starts at or before low, or -1 */
+        private int findRun(int low)
+        {
+            int lowIdx = 0;
+            int highIdx = runCount - 1;
+            while (lowIdx <= highIdx)
+            {
+                int mid = (lowIdx + highIdx) >>> 1;
+                if (start(mid) <= low)
+                {
+                    lowIdx = mid + 1;
+                }
+                else
+                {
+                    highIdx = mid - 1;
+                }
+            }
+            return highIdx;
+        }
+
+        @Override
+        int getCardinality()
+        {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int low)
+        {
+            int runIdx = findRun(low);
+            return runIdx >= 0 && low < start(runIdx) + length(runIdx);
+        }
+
+        @Override
+        Container add(int low)
+        {
+            int runIdx = findRun(low);
+            if (runIdx < 0 || low >= start(runIdx) + length(runIdx))
+            {
+                boolean extendsPrev = runIdx >= 0 && low == start(runIdx) + length(runIdx);
+                boolean extendsNext = runIdx + 1 < runCount && low + 1 == start(runIdx + 1);
+                if (extendsPrev && extendsNext)
+                {
+                    /* merge the two runs */
+                    runs[runIdx * 2 + 1] = (char) (length(runIdx) + length(runIdx + 1));
+                    removeRun(runIdx + 1);
+                }
+                else
+                if (extendsPrev)
+                {
+                    ++runs[runIdx * 2 + 1];
+                }
+                else
+                if (extendsNext)
+                {
+                    --runs[(runIdx + 1) * 2];
+                    ++runs[(runIdx + 1) * 2 + 1];
+                }
+                else
+                {
+                    insertRun(runIdx + 1, low, 1);
+                }
+                ++cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int low)
+        {
+            Container result = this;
+            int runIdx = findRun(low);
+            if (runIdx >= 0 && low < start(runIdx) + length(runIdx))
+            {
+                int runStart = start(runIdx);
+                int runEnd = runStart + length(runIdx) - 1;
+                if (runStart == runEnd)
+                {
+                    removeRun(runIdx);
+                }
+                else
+                if (low == runStart)
+                {
+                    ++runs[runIdx * 2];
+                    --runs[runIdx * 2 + 1];
+                }
+                else
+                if (low == runEnd)
+                {
+                    --runs[runIdx * 2 + 1];
+                }
+                else
+                {
+                    runs[runIdx * 2 + 1] = (char) (low - runStart - 1);
+                    insertRun(runIdx + 1, low + 1, runEnd - low);
+                }
+                --cardinality;
+            }
+            return result;
+        }
+
+        private void insertRun(int runIdx, int runStart, int runLength)
+        {
+            ensureCapacity(runCount + 1);
+            System.arraycopy(runs, runIdx * 2, runs, runIdx * 2 + 2, (runCount - runIdx) * 2);
+            runs[runIdx * 2] = (char) runStart;
+            runs[runIdx * 2 + 1] = (char) (runLength - 1);
+            ++runCount;
+        }
+
+        private void removeRun(int runIdx)
+        {
+            --runCount;
+            System.arraycopy(runs, runIdx * 2 + 2, runs, runIdx * 2, (runCount - runIdx) * 2);
+        }
+
+        @Override
+        int rank(int low)
+        {
+            int result = 0;
+            for (int runIdx = 0; runIdx < runCount; ++runIdx)
+            {
+                int runStart = start(runIdx);
+                if (runStart > low)
+                {
+                    break;
+                }
+                result += Math.min(length(runIdx), low - runStart + 1);
+            }
+            return result;
+        }
+
+        @Override
+        int first()
+        {
+            return start(0);
+        }
+
+        @Override
+        int last()
+        {
+            return start(runCount - 1) + length(runCount - 1) - 1;
+        }
+
+        @Override
+        LowCursor cursor()
+        {
+            return new LowCursor()
+            {
+                private int runIdx = 0;
+                private int offset = 0;
+
+                @Override
+                boolean hasNext()
+                {
+                    return runIdx < runCount;
+                }
+
+                @Override
+                int next()
+                {
+                    int low = start(runIdx) + offset;
+                    ++offset;
+                    if (offset == length(runIdx))
+                    {
+                        ++runIdx;
+                        offset = 0;
+                    }
+                    return low;
+                }
+            };
+        }
+
+        @Override
+        BitmapContainer toBitmap()
+        {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int runIdx = 0; runIdx < runCount; ++runIdx)
+            {
+                int low = start(runIdx);
+                int end = low + length(runIdx);
+                for (; low < end; ++low)
+                {
+                    bitmap.words[low >>> 6] |= 1L << low;
+                }
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+
+        @Override
+        long getMemorySize()
+        {
+            return 2L * runs.length;
+        }
+
+        @Override
+        Container optimize()
+        {
+            Container result = this;
+            if (cardinality <= ARRAY_MAX_SIZE)
+            {
+                if (2L * cardinality < getMemorySize())
+                {
+                    result = toBitmap().toArray();
+                }
+            }
+            else
+            if (8L * 1024 < getMemorySize())
+            {
+                result = toBitmap();
+            }
+            return result;
+        }
+    }
+
+    private static final class ValuesIterator implements QIterator<Integer>
+    {
+        private final CompressedIntSet container;
+        private int containerIdx;
+        private LowCursor lowCursor;
+
+        ValuesIterator(CompressedIntSet containerRef)
+        {
+            container = containerRef;
+            containerIdx = 0;
+            lowCursor = container.containerCount > 0 ? container.containers[0].cursor() : null;
+        }
+
+        @Override
+        public long getSize()
+        {
+            return container.size;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while (lowCursor != null && !lowCursor.hasNext())
+            {
+                ++containerIdx;
+                lowCursor = containerIdx < container.containerCount ?
+                    container.containers[containerIdx].cursor() : null;
+            }
+            return lowCursor != null;
+        }
+
+        @Override
+        public Integer next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return combine(container.keys[containerIdx], lowCursor.next());
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private int findContainer(char key)
+    {
+        return Arrays.binarySearch(keys, 0, containerCount, key);
+    }
+
+    private void insertContainer(int idx, char key, Container newContainer)
+    {
+        if (containerCount == keys.length)
+        {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            containers = Arrays.copyOf(containers, containers.length * 2);
+        }
+        System.arraycopy(keys, idx, keys, idx + 1, containerCount - idx);
+        System.arraycopy(containers, idx, containers, idx + 1, containerCount - idx);
+        keys[idx] = key;
+        containers[idx] = newContainer;
+        ++containerCount;
+    }
+
+    private void removeContainer(int idx)
+    {
+        --containerCount;
+        System.arraycopy(keys, idx + 1, keys, idx, containerCount - idx);
+        System.arraycopy(containers, idx + 1, containers, idx, containerCount - idx);
+        containers[containerCount] = null;
+    }
+
+    /* appends a container with a key greater than all keys in the set */
+    private void appendContainer(char key, Container newContainer)
+    {
+        if (newContainer != null)
+        {
+            insertContainer(containerCount, key, newContainer);
+            size += newContainer.getCardinality();
+        }
+    }
+
+    public boolean contains(int value)
+    {
+        int idx = findContainer(highBits(value));
+        return idx >= 0 && containers[idx].contains(lowBits(value));
+    }
+
+    public void add(int value)
+    {
+        char key = highBits(value);
+        int idx = findContainer(key);
+        if (idx < 0)
+        {
+            idx = -(idx + 1);
+            insertContainer(idx, key, new ArrayContainer());
+        }
+        Container target = containers[idx];
+        int prevCardinality = target.getCardinality();
+        target = target.add(lowBits(value));
+        containers[idx] = target;
+        size += target.getCardinality() - prevCardinality;
+    }
+
+    public void remove(int value)
+    {
+        int idx = findContainer(highBits(value));
+        if (idx >= 0)
+        {
+            Container target = containers[idx];
+            int prevCardinality = target.getCardinality();
+            target = target.remove(lowBits(value));
+            size -= prevCardinality - target.getCardinality();
+            if (target.getCardinality() == 0)
+            {
+                removeContainer(idx);
+            }
+            else
+            {
+                containers[idx] = target;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values in the set that are less than or equal to
+     * the specified value
+     */
+    public long rank(int value)
+    {
+        char key = highBits(value);
+        long result = 0;
+        for (int idx = 0; idx < containerCount && keys[idx] <= key; ++idx)
+        {
+            if (keys[idx] < key)
+            {
+                result += containers[idx].getCardinality();
+            }
+            else
+            {
+                result += containers[idx].rank(lowBits(value));
+            }
+        }
+        return result;
+    }
+
+    public int getFirst()
+    {
+        if (containerCount == 0)
+        {
+            throw new NoSuchElementException();
+        }
+        return combine(keys[0], containers[0].first());
+    }
+
+    public int getLast()
+    {
+        if (containerCount == 0)
+        {
+            throw new NoSuchElementException();
+        }
+        return combine(keys[containerCount - 1], containers[containerCount - 1].last());
+    }
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        keys = new char[INITIAL_CAPACITY];
+        containers = new Container[INITIAL_CAPACITY];
+        containerCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Converts each container to its smallest representation, which may
+     * be a run container
+     */
+    public void runOptimize()
+    {
+        for (int idx = 0; idx < containerCount; ++idx)
+        {
+            containers[idx] = containers[idx].optimize();
+        }
+    }
+
+    /**
+     * Returns the approximate number of bytes used by the set's containers
+     */
+    public long getMemorySize()
+    {
+        long result = 6L * keys.length;
+        for (int idx = 0; idx < containerCount; ++idx)
+        {
+            result += containers[idx].getMemorySize() + 16;
+        }
+        return result;
+    }
+
+    @Override
+    public QIterator<Integer> iterator()
+    {
+        return new ValuesIterator(this);
+    }
+
+    public int[] toArray()
+    {
+        int[] result = new int[(int) size];
+        int count = 0;
+        for (int idx = 0; idx < containerCount; ++idx)
+        {
+            char key = keys[idx];
+            LowCursor lowCursor = containers[idx].cursor();
+            while (lowCursor.hasNext())
+            {
+                result[count++] = combine(key, lowCursor.next());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set with the values that are contained in both sets
+     */
+    public static CompressedIntSet and(CompressedIntSet first, CompressedIntSet second)
+    {
+        CompressedIntSet result = new CompressedIntSet();
+        int firstIdx = 0;
+        int secondIdx = 0;
+        while (firstIdx < first.containerCount && secondIdx < second.containerCount)
+        {
+            char firstKey = first.keys[firstIdx];
+            char secondKey = second.keys[secondIdx];
+            if (firstKey < secondKey)
+            {
+                ++firstIdx;
+            }
+            else
+            if (firstKey > secondKey)
+            {
+                ++secondIdx;
+            }
+            else
+            {
+                result.appendContainer(
+                    firstKey, and(first.containers[firstIdx], second.containers[secondIdx])
+                );
+                ++firstIdx;
+                ++secondIdx;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set with the values that are contained in either set
+     */
+    public static CompressedIntSet or(CompressedIntSet first, CompressedIntSet second)
+    {
+        CompressedIntSet result = new CompressedIntSet();
+        int firstIdx = 0;
+        int secondIdx = 0;
+        while (firstIdx < first.containerCount || secondIdx < second.containerCount)
+        {
+            if (secondIdx == second.containerCount ||
+                (firstIdx < first.containerCount && first.keys[firstIdx] < second.keys[secondIdx]))
+            {
+                result.appendContainer(first.keys[firstIdx], copy(first.containers[firstIdx]));
+                ++firstIdx;
+            }
+            else
+            if (firstIdx == first.containerCount || first.keys[firstIdx] > second.keys[secondIdx])
+            {
+                result.appendContainer(second.keys[secondIdx], copy(second.containers[secondIdx]));
+                ++secondIdx;
+            }
+            else
+            {
+                result.appendContainer(
+                    first.keys[firstIdx], or(first.containers[firstIdx], second.containers[secondIdx])
+                );
+                ++firstIdx;
+                ++secondIdx;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new set with the values of the first set that are not
+     * contained in the second set
+     */
+    public static CompressedIntSet andNot(CompressedIntSet first, CompressedIntSet second)
+    {
+        CompressedIntSet result = new CompressedIntSet();
+        int secondIdx = 0;
+        for (int firstIdx = 0; firstIdx < first.containerCount; ++firstIdx)
+        {
+            char key = first.keys[firstIdx];
+            while (secondIdx < second.containerCount && second.keys[secondIdx] < key)
+            {
+                ++secondIdx;
+            }
+            if (secondIdx < second.containerCount && second.keys[secondIdx] == key)
+            {
+                result.appendContainer(key, andNot(first.containers[firstIdx], second.containers[secondIdx]));
+            }
+            else
+            {
+                result.appendContainer(key, copy(first.containers[firstIdx]));
+            }
+        }
+        return result;
+    }
+
+    private static Container copy(Container source)
+    {
+        Container result;
+        if (source instanceof ArrayContainer)
+        {
+            ArrayContainer array = (ArrayContainer) source;
+            result = new ArrayContainer(Arrays.copyOf(array.values, Math.max(array.count, 1)), array.count);
+        }
+        else
+        if (source instanceof BitmapContainer)
+        {
+            BitmapContainer bitmap = new BitmapContainer();
+            System.arraycopy(((BitmapContainer) source).words, 0, bitmap.words, 0, bitmap.words.length);
+            bitmap.cardinality = source.getCardinality();
+            result = bitmap;
+        }
+        else
+        {
+            RunContainer runs = (RunContainer) source;
+            RunContainer runsCopy = new RunContainer(runs.runCount);
+            System.arraycopy(runs.runs, 0, runsCopy.runs, 0, runs.runCount * 2);
+            runsCopy.runCount = runs.runCount;
+            runsCopy.cardinality = runs.cardinality;
+            result = runsCopy;
+        }
+        return result;
+    }
+
+    /* returns the intersection of two containers, or null if it is empty */
+    private static Container and(Container first, Container second)
+    {
+        Container result;
+        if (first instanceof ArrayContainer || second instanceof ArrayContainer)
+        {
+            /* filter the values of the array container */
+            ArrayContainer array = (ArrayContainer) (first instanceof ArrayContainer ? first : second);
+            Container other = array == first ? second : first;
+            char[] values = new char[Math.max(array.count, 1)];
+            int count = 0;
+            for (int idx = 0; idx < array.count; ++idx)
+            {
+                if (other.contains(array.values[idx]))
+                {
+                    values[count++] = array.values[idx];
+                }
+            }
+            result = count > 0 ? new ArrayContainer(values, count) : null;
+        }
+        else
+        {
+            long[] firstWords = first.toBitmap().words;
+            long[] secondWords = second.toBitmap().words;
+            BitmapContainer bitmap = new BitmapContainer();
+            long[] words = bitmap.words;
+            for (int idx = 0; idx < words.length; ++idx)
+            {
+                words[idx] = firstWords[idx] & secondWords[idx];
+            }
+            result = bitmap.normalize();
+        }
+        return result;
+    }
+
+    /* returns the union of two containers */
+    private static Container or(Container first, Container second)
+    {
+        Container result;
+        if (first instanceof ArrayContainer && second instanceof ArrayContainer &&
+            first.getCardinality() + second.getCardinality() <= ARRAY_MAX_SIZE)
+        {
+            /* merge the sorted values */
+            ArrayContainer firstArray = (ArrayContainer) first;
+            ArrayContainer secondArray = (ArrayContainer) second;
+            char[] values = new char[firstArray.count + secondArray.count];
+            int count = 0;
+            int firstIdx = 0;
+            int secondIdx = 0;
+            while (firstIdx < firstArray.count || secondIdx < secondArray.count)
+            {
+                if (secondIdx == secondArray.count ||
+                    (firstIdx < firstArray.count && firstArray.values[firstIdx] < secondArray.values[secondIdx]))
+                {
+                    values[count++] = firstArray.values[firstIdx++];
+                }
+                else
+                if (firstIdx == firstArray.count || firstArray.values[firstIdx] > secondArray.values[secondIdx])
+                {
+                    values[count++] = secondArray.values[secondIdx++];
+                }
+                else
+                {
+                    values[count++] = firstArray.values[firstIdx++];
+                    ++secondIdx;
+                }
+            }
+            result = new ArrayContainer(values, count);
+        }
+        else
+        {
+            long[] firstWords = first.toBitmap().words;
+            long[] secondWords = second.toBitmap().words;
+            BitmapContainer bitmap = new BitmapContainer();
+            long[] words = bitmap.words;
+            for (int idx = 0; idx < words.length; ++idx)
+            {
+                words[idx] = firstWords[idx] | secondWords[idx];
+            }
+            result = bitmap.normalize();
+        }
+        return result;
+    }
+
+    /* returns the values of the first container that are not in the second, or null */
+    private static Container andNot(Container first, Container second)
+    {
+        Container result;
+        if (first instanceof ArrayContainer)
+        {
+            ArrayContainer array = (ArrayContainer) first;
+            char[] values = new char[Math.max(array.count, 1)];
+            int count = 0;
+            for (int idx = 0; idx < array.count; ++idx)
+            {
+                if (!second.contains(array.values[idx]))
+                {
+                    values[count++] = array.values[idx];
+                }
+            }
+            result = count > 0 ? new ArrayContainer(values, count) : null;
+        }
+        else
+        {
+            long[] firstWords = first.toBitmap().words;
+            long[] secondWords = second.toBitmap().words;
+            BitmapContainer bitmap = new BitmapContainer();
+            long[] words = bitmap.words;
+            for (int idx = 0; idx < words.length; ++idx)
+            {
+                words[idx] = firstWords[idx] & ~secondWords[idx];
+            }
+            result = bitmap.normalize();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,1532 @@
+package dsaext.qset;
+
+import dsaext.QIterator;
+import java.lang.reflect.Array;
+
+/**
+ * Quick balanced binary search tree set
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class QSet<K extends Comparable<K>>
+    implements Iterable<K>
+{
+    private Node<K> root;
+    private long size;
+
+    private enum Direction
+    {
+        NONE,
+        LESS,
+        GREATER
+    };
+
+    public QSet()
+    {
+        root = null;
+        size = 0;
+    }
+
+    private static final class Node<K extends Comparable<K>>
+    {
+        /* key object */
+        K key;
+
+        /* references to parent and child nodes */
+        Node<K> parent;
+        Node<K> less;
+        Node<K> greater;
+
+        /* balance number */
+        int balance;
+
+        Node(K keyRef)
+        {
+            key = keyRef;
+
+            balance  = 0;
+
+            parent   = null;
+            less     = null;
+            greater  = null;
+        }
+    }
+
+    private static final class KeysIterator<K extends Comparable<K>>
+        implements QIterator<K>
+    {
+        QSet<K> container;
+        Node<K> next;
+        Node<K> current;
+
+        KeysIterator(QSet<K> containerRef)
+        {
+            container = containerRef;
+            current = null;
+            next = container.root;
+            if (next != null)
+            {
+                while (next.less != null)
+                {
+                    next = next.less;
+                }
+            }
+        }
+
+        KeysIterator(QSet<K> containerRef, Node<K> startNode)
+        {
+            container = containerRef;
+            next = startNode;
+        }
+
+        @Override
+        public final long getSize()
+        {
+            return container.size;
+        }
+
+        @Override
+        public final boolean hasNext()
+        {
+            return next != null;
+        }
+
+        @Override
+        public final K next()
+        {
+            K key = null;
+            current = next;
+
+            if (current != null)
+            {
+                key = current.key;
+                if (next.greater != null)
+                {
+                    next = next.greater;
+                    while (next.less != null)
+                    {
+                        next = next.less;
+                    }
+                }
+                else
+                {
+                    while (next.parent != null && next.parent.greater == next)
+                    {
+                        next = next.parent;
+                    }
+                    next = next.parent;
+                }
+            }
+
+            return key;
+        }
+
+        @Override
+        public final void remove()
+        {
+            if (current != null)
+            {
+                container.remove(current.key);
+                current = null;
+            }
+            else
+            {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private static final class KeysReverseIterator<K extends Comparable<K>>
+        implements QIterator<K>
+    {
+        QSet<K> container;
+        Node<K> next;
+        Node<K> current;
+
+        KeysReverseIterator(QSet<K> containerRef)
+        {
+            container = containerRef;
+            current = null;
+            next = container.root;
+            if (next != null)
+            {
+                while (next.greater != null)
+                {
+                    next = next.greater;
+                }
+            }
+        }
+
+        KeysReverseIterator(QSet<K> containerRef, Node<K> startNode)
+        {
+            container = containerRef;
+            next = startNode;
+        }
+
+        @Override
+        public final long getSize()
+        {
+            return container.size;
+        }
+
+        @Override
+        public final boolean hasNext()
+        {
+            return next != null;
+        }
+
+        @Override
+        public final K next()
+        {
+            K key = null;
+            current = next;
+
+            if (current != null)
+            {
+                key = current.key;
+                if (next.less != null)
+                {
+                    next = next.less;
+                    while (next.greater != null)
+                    {
+                        next = next.greater;
+                    }
+                }
+                else
+                {
+                    while (next.parent != null && next.parent.less == next)
+                    {
+                        next = next.parent;
+                    }
+                    next = next.parent;
+                }
+            }
+
+            return key;
+        }
+
+        @Override
+        public final void remove()
+        {
+            if (current != null)
+            {
+                container.remove(current.key);
+                current = null;
+            }
+            else
+            {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    public void insert(K key)
+    {
+        Node<K> insNode = new Node<K>(key);
+
+        if (root == null)
+        {
+            root = insNode;
+            ++size;
+        }
+        else
+        {
+            Node<K> parentNode = root;
+            while (true)
+            {
+               int cmpRc = insNode.key.compareTo(parentNode.key);
+               if (cmpRc < 0)
+               {
+                   if (parentNode.less == null)
+                   {
+                       parentNode.less = insNode;
+                       insNode.parent  = parentNode;
+                       ++size;
+                       break;
+                   }
+                   else
+                   {
+                       parentNode = parentNode.less;
+                   }
+               }
+               else
+               if (cmpRc > 0)
+               {
+                   if (parentNode.greater == null)
+                   {
+                       parentNode.greater = insNode;
+                       insNode.parent     = parentNode;
+                       ++size;
+                       break;
+                   }
+                   else
+                   {
+                       parentNode = parentNode.greater;
+                   }
+               }
+               else
+               {
+                   parentNode.key   = insNode.key;
+                   parentNode = null;
+                   break;
+               }
+            }
+
+            /* update balance and perform rotations */
+            while (parentNode != null)
+            {
+                if (parentNode.less == insNode)
+                {
+                    --parentNode.balance;
+                }
+                else
+                {
+                    ++parentNode.balance;
+                }
+
+                if (parentNode.balance == 0)
+                {
+                    break;
+                }
+                else
+                if (parentNode.balance == -2)
+                {
+                    if (insNode.balance == -1)
+                    {
+                        /* rotate R */
+                        parentNode.balance = 0;
+                        insNode.balance    = 0;
+
+                        insNode.parent = parentNode.parent;
+                        if (parentNode.parent != null)
+                        {
+                            if (parentNode.parent.less == parentNode)
+                            {
+                                parentNode.parent.less = insNode;
+                            }
+                            else
+                            {
+                                parentNode.parent.greater = insNode;
+                            }
+                        }
+                        else
+                        {
+                            root = insNode;
+                        }
+
+                        parentNode.less = insNode.greater;
+                        if (insNode.greater != null)
+                        {
+                            insNode.greater.parent = parentNode;
+                        }
+
+                        insNode.greater   = parentNode;
+                        parentNode.parent = insNode;
+                    }
+                    else
+                    {
+                        /* rotate LR */
+                        if (insNode.greater.balance == -1)
+                        {
+                            insNode.balance    = 0;
+                            parentNode.balance = 1;
+                        }
+                        else
+                        if (insNode.greater.balance == 1)
+                        {
+                            insNode.balance    = -1;
+                            parentNode.balance =  0;
+                        }
+                        else
+                        {
+                            insNode.balance    = 0;
+                            parentNode.balance = 0;
+                        }
+                        insNode.greater.balance = 0;
+
+                        insNode.parent        = insNode.greater;
+                        insNode.greater       = insNode.greater.less;
+                        insNode.parent.less   = insNode;
+                        parentNode.less       = insNode.parent.greater;
+                        insNode.parent.parent = parentNode.parent;
+                        if (insNode.greater != null)
+                        {
+                            insNode.greater.parent = insNode;
+                        }
+                        if (parentNode.less != null)
+                        {
+                            parentNode.less.parent = parentNode;
+                        }
+
+                        if (parentNode.parent != null)
+                        {
+                            if (parentNode.parent.less == parentNode)
+                            {
+                                parentNode.parent.less = insNode.parent;
+                            }
+                            else
+                            {
+                                parentNode.parent.greater = insNode.parent;
+                            }
+                        }
+                        else
+                        {
+                            root = insNode.parent;
+                        }
+
+                        parentNode.parent      = insNode.parent;
+                        insNode.parent.greater = parentNode;
+                    }
+                    break;
+                }
+                else
+                if (parentNode.balance == 2)
+                {
+                    if (insNode.balance == 1)
+                    {
+                        /* rotate L */
+                        parentNode.balance = 0;
+                        insNode.balance    = 0;
+
+                        insNode.parent = parentNode.parent;
+                        if (parentNode.parent != null)
+                        {
+                            if (parentNode.parent.less == parentNode)
+                            {
+                                parentNode.parent.less = insNode;
+                            }
+                            else
+                            {
+                                parentNode.parent.greater = insNode;
+                            }
+                        }
+                        else
+                        {
+                            root = insNode;
+                        }
+
+                        parentNode.greater = insNode.less;
+                        if (insNode.less != null)
+                        {
+                            insNode.less.parent = parentNode;
+                        }
+
+                        insNode.less      = parentNode;
+                        parentNode.parent = insNode;
+                    }
+                    else
+                    {
+                        /* rotate RL */
+                        if (insNode.less.balance == -1)
+                        {
+                            insNode.balance    = 1;
+                            parentNode.balance = 0;
+                        }
+                        else
+                        if (insNode.less.balance == 1)
+                        {
+                            insNode.balance    =  0;
+                            parentNode.balance = -1;
+                        }
+                        else
+                        {
+                            insNode.balance    = 0;
+                            parentNode.balance = 0;
+                        }
+                        insNode.less.balance = 0;
+
+                        insNode.parent         = insNode.less;
+                        insNode.less           = insNode.less.greater;
+                        insNode.parent.greater = insNode;
+                        parentNode.greater     = insNode.parent.less;
+                        insNode.parent.parent  = parentNode.parent;
+                        if (insNode.less != null)
+                        {
+                            insNode.less.parent = insNode;
+                        }
+                        if (parentNode.greater != null)
+                        {
+                            parentNode.greater.parent = parentNode;
+                        }
+
+                        if (parentNode.parent != null)
+                        {
+                            if (parentNode.parent.less == parentNode)
+                            {
+                                parentNode.parent.less = insNode.parent;
+                            }
+                            else
+                            {
+                                parentNode.parent.greater = insNode.parent;
+                            }
+                        }
+                        else
+                        {
+                            root = insNode.parent;
+                        }
+
+                        parentNode.parent   = insNode.parent;
+                        insNode.parent.less = parentNode;
+                    }
+                    break;
+                }
+
+                insNode    = parentNode;
+                parentNode = parentNode.parent;
+            }
+        }
+    }
+
+    public boolean contains(K key)
+    {
+        return findNode(key) != null;
+    }
+
+    public K getFirstKey()
+    {
+        K firstKey = null;
+        Node<K> node = findFirstNode();
+        if (node != null)
+        {
+            firstKey = node.key;
+        }
+        return firstKey;
+    }
+
+    public K getLastKey()
+    {
+        K lastKey = null;
+        Node<K> node = findLastNode();
+        if (node != null)
+        {
+            lastKey = node.key;
+        }
+        return lastKey;
+    }
+
+    public K getCeilingKey(K key)
+    {
+        K ceilingKey = null;
+        Node<K> node = findCeilingNode(key);
+        if (node != null)
+        {
+            ceilingKey = node.key;
+        }
+        return ceilingKey;
+    }
+
+    public K getFloorKey(K key)
+    {
+        K floorKey = null;
+        Node<K> node = findFloorNode(key);
+        if (node != null)
+        {
+            floorKey = node.key;
+        }
+        return floorKey;
+    }
+
+    public K getGreaterKey(K key)
+    {
+        K greaterKey = null;
+        Node<K> node = findGreaterNode(key);
+        if (node != null)
+        {
+            greaterKey = node.key;
+        }
+        return greaterKey;
+    }
+
+    public K getLessKey(K key)
+    {
+        K lessKey = null;
+        Node<K> node = findLessNode(key);
+        if (node != null)
+        {
+            lessKey = node.key;
+        }
+        return lessKey;
+    }
+
+    private Node<K> findCeilingNode(K key)
+    {
+        Node<K> node = root;
+        while (node != null)
+        {
+            int cmpRc = key.compareTo(node.key);
+            if (cmpRc < 0)
+            {
+                if (node.less != null)
+                {
+                    node = node.less;
+                }
+                else
+                {
+                    break;
+                }
+            }
+            else
+            if (cmpRc > 0)
+            {
+                if (node.greater != null)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    while (node.parent != null && node.parent.greater == node)
+                    {
+                        node = node.parent;
+                    }
+                    node = node.parent;
+                    break;
+                }
+            }
+            else
+            {
+                break;
+            }
+        }
+        return node;
+    }
+
+    private Node<K> findFloorNode(K key)
+    {
+        Node<K> node = root;
+        while (node != null)
+        {
+            int cmpRc = key.compareTo(node.key);
+            if (cmpRc < 0)
+            {
+                if (node.less != null)
+                {
+                    node = node.less;
+                }
+                else
+                {
+                    while (node.parent != null && node.parent.less == node)
+                    {
+                        node = node.parent;
+                    }
+                    node = node.parent;
+                    break;
+                }
+            }
+            else
+            if (cmpRc > 0)
+            {
+                if (node.greater != null)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    break;
+                }
+            }
+            else
+            {
+                break;
+            }
+        }
+        return node;
+    }
+
+    private Node<K> findGreaterNode(K key)
+    {
+        Node<K> node = root;
+        while (node != null)
+        {
+            int cmpRc = key.compareTo(node.key);
+            if (cmpRc < 0)
+            {
+                if (node.less != null)
+                {
+                    node = node.less;
+                }
+                else
+                {
+                    break;
+                }
+            }
+            else
+            {
+                if (node.greater != null)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    while (node.parent != null && node.parent.greater == node)
+                    {
+                        node = node.parent;
+                    }
+                    node = node.parent;
+                    break;
+                }
+            }
+        }
+        return node;
+    }
+
+    private Node<K> findLessNode(K key)
+    {
+        Node<K> node = root;
+        while (node != null)
+        {
+            int cmpRc = key.compareTo(node.key);
+            if (cmpRc > 0)
+            {
+                if (node.greater != null)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    break;
+                }
+            }
+            else
+            {
+                if (node.less != null)
+                {
+                    node = node.less;
+                }
+                else
+                {
+                    while (node.parent != null && node.parent.less == node)
+                    {
+                        node = node.parent;
+                    }
+                    node = node.parent;
+                    break;
+                }
+            }
+        }
+        return node;
+    }
+
+    private Node<K> findNode(K key)
+    {
+        Node<K> node = root;
+        while (node != null)
+        {
+            int cmpRc = key.compareTo(node.key);
+            if (cmpRc < 0)
+            {
+                node = node.less;
+            }
+            else
+            if (cmpRc > 0)
+            {
+                node = node.greater;
+            }
+            else
+            {
+                break;
+            }
+        }
+        return node;
+    }
+
+    private Node<K> findFirstNode()
+    {
+        Node<K> node = root;
+        if (node != null)
+        {
+            while (node.less != null)
+            {
+                node = node.less;
+            }
+        }
+        return node;
+    }
+
+    private Node<K> findLastNode()
+    {
+        Node<K> node = root;
+        if (node != null)
+        {
+            while (node.greater != null)
+            {
+                node = node.greater;
+            }
+        }
+        return node;
+    }
+
+    public void remove(K key)
+    {
+        Node<K> rotNode = null;
+        Node<K> rmNode = root;
+        while (rmNode != null)
+        {
+            int cmpRc = key.compareTo(rmNode.key);
+            if (cmpRc < 0)
+            {
+                rmNode = rmNode.less;
+            }
+            else
+            if (cmpRc > 0)
+            {
+                rmNode = rmNode.greater;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        Direction dir = Direction.NONE;
+        if (rmNode != null)
+        {
+            --size;
+
+            if (rmNode.less == null && rmNode.greater == null)
+            {
+                if (root == rmNode)
+                {
+                    // root node leaf
+                    root = null;
+                }
+                else
+                {
+                    // non-root node leaf
+                    rotNode = rmNode.parent;
+
+                    if (rotNode.less == rmNode)
+                    {
+                        // node to remove is in the left subtree
+                        // of its parent
+
+                        // save direction
+                        dir = Direction.LESS;
+                        rotNode.less = null;
+                    }
+                    else
+                    {
+                        dir = Direction.GREATER;
+                        rotNode.greater = null;
+                    }
+                }
+            }
+            else
+            {
+                Node<K> replaceNode = null;
+                // not a leaf node, removal by replacement
+                // at least one child, or a child and a subtree, or two subtrees
+                // find replacement node
+                if (rmNode.balance == -1)
+                {
+                    replaceNode = rmNode.less;
+                    while (replaceNode.greater != null)
+                    {
+                        replaceNode = replaceNode.greater;
+                    }
+                }
+                else
+                {
+                    replaceNode = rmNode.greater;
+                    while (replaceNode.less != null)
+                    {
+                        replaceNode = replaceNode.less;
+                    }
+                }
+                rotNode = replaceNode.parent;
+
+                if (rotNode.less == replaceNode)
+                {
+                    // node to remove is in the left subtree
+                    // of its parent
+
+                    // save direction
+                    dir = Direction.LESS;
+
+                    if (replaceNode.less != null)
+                    {
+                        // replace node by its left child
+                        rotNode.less = replaceNode.less;
+                        replaceNode.less.parent = rotNode;
+                    }
+                    else
+                    if (replaceNode.greater != null)
+                    {
+                        // replace node by its right child
+                        rotNode.less = replaceNode.greater;
+                        replaceNode.greater.parent = rotNode;
+                    }
+                    else
+                    {
+                        // non-root leaf node
+                        rotNode.less = null;
+                    }
+                }
+                else
+                {
+                    // node to remove is in the right subtree
+                    // of its parent
+
+                    // save direction
+                    dir = Direction.GREATER;
+
+                    if (replaceNode.less != null)
+                    {
+                        // replace node by its left child
+                        rotNode.greater = replaceNode.less;
+                        replaceNode.less.parent = rotNode;
+                    }
+                    else
+                    if (replaceNode.greater != null)
+                    {
+                        // replace node by its right child
+                        rotNode.greater = replaceNode.greater;
+                        replaceNode.greater.parent = rotNode;
+                    }
+                    else
+                    {
+                        // non-root leaf node
+                        rotNode.greater = null;
+                    }
+                }
+
+                // replace rmNode with replaceNode
+                if (rmNode.parent == null)
+                {
+                    // Node to be removed is the root node
+                    root = replaceNode;
+                }
+                else
+                {
+                    if (rmNode.parent.less == rmNode)
+                    {
+                        rmNode.parent.less = replaceNode;
+                    }
+                    else
+                    {
+                        rmNode.parent.greater = replaceNode;
+                    }
+                }
+                if (rmNode.less != null)
+                {
+                    rmNode.less.parent = replaceNode;
+                }
+                if (rmNode.greater != null)
+                {
+                    rmNode.greater.parent = replaceNode;
+                }
+                replaceNode.parent  = rmNode.parent;
+                replaceNode.less    = rmNode.less;
+                replaceNode.greater = rmNode.greater;
+                replaceNode.balance = rmNode.balance;
+
+                if (rotNode == rmNode)
+                {
+                    rotNode = replaceNode;
+                }
+            }
+
+            // update balance and perform rotations
+            while (rotNode != null)
+            {
+                if (dir == Direction.LESS)
+                {
+                    // node was removed from left subtree
+                    ++rotNode.balance;
+                    if (rotNode.balance == 1)
+                    {
+                        break;
+                    }
+                }
+                else
+                {
+                    /* node was removed from right subtree */
+                    --rotNode.balance;
+                    if (rotNode.balance == -1)
+                    {
+                        break;
+                    }
+                }
+
+                if (rotNode.parent != null)
+                {
+                    if (rotNode.parent.less == rotNode)
+                    {
+                        dir = Direction.LESS;
+                    }
+                    else
+                    {
+                        dir = Direction.GREATER;
+                    }
+                }
+
+                // update balance and perform rotations
+                if (rotNode.balance == -2)
+                {
+                    Node<K> subNode = rotNode.less;
+                    // 0 or -1
+                    if (subNode.balance <= 0)
+                    {
+                        // rotate R
+                        subNode.parent = rotNode.parent;
+                        if (rotNode.parent != null)
+                        {
+                            if (rotNode.parent.less == rotNode)
+                            {
+                                rotNode.parent.less = subNode;
+                            }
+                            else
+                            {
+                                rotNode.parent.greater = subNode;
+                            }
+                        }
+                        else
+                        {
+                            root = subNode;
+                        }
+
+                        rotNode.less = subNode.greater;
+                        if (subNode.greater != null)
+                        {
+                            subNode.greater.parent = rotNode;
+                        }
+
+                        subNode.greater = rotNode;
+                        rotNode.parent  = subNode;
+
+                        if (subNode.balance == 0)
+                        {
+                            rotNode.balance = -1;
+                            subNode.balance = 1;
+                            break;
+                        }
+                        else
+                        {
+                            rotNode.balance = 0;
+                            subNode.balance = 0;
+                        }
+                    }
+                    else
+                    {
+                        // rotate LR
+                        if (subNode.greater.balance == -1)
+                        {
+                            subNode.balance = 0;
+                            rotNode.balance = 1;
+                        }
+                        else
+                        if (subNode.greater.balance == 1)
+                        {
+                            subNode.balance = -1;
+                            rotNode.balance = 0;
+                        }
+                        else
+                        {
+                            subNode.balance = 0;
+                            rotNode.balance = 0;
+                        }
+                        subNode.greater.balance = 0;
+
+                        subNode.parent        = subNode.greater;
+                        subNode.greater       = subNode.greater.less;
+                        subNode.parent.less   = subNode;
+                        rotNode.less          = subNode.parent.greater;
+                        subNode.parent.parent = rotNode.parent;
+                        if (subNode.greater != null)
+                        {
+                            subNode.greater.parent = subNode;
+                        }
+                        if (rotNode.less != null)
+                        {
+                            rotNode.less.parent = rotNode;
+                        }
+
+                        if (rotNode.parent != null)
+                        {
+                            if (rotNode.parent.less == rotNode)
+                            {
+                                rotNode.parent.less = subNode.parent;
+                            }
+                            else
+                            {
+                                rotNode.parent.greater = subNode.parent;
+                            }
+                        }
+                        else
+                        {
+                            root = subNode.parent;
+                        }
+
+                        rotNode.parent         = subNode.parent;
+                        subNode.parent.greater = rotNode;
+                    }
+                    rotNode = rotNode.parent;
+                    // end of R / LR rotations
+                }
+                else
+                if (rotNode.balance == 2)
+                {
+                    Node<K> subNode = rotNode.greater;
+                    // 0 or 1
+                    if (subNode.balance >= 0)
+                    {
+                        // rotate L
+                        subNode.parent = rotNode.parent;
+                        if (rotNode.parent != null)
+                        {
+                            if (rotNode.parent.less == rotNode)
+                            {
+                                rotNode.parent.less = subNode;
+                            }
+                            else
+                            {
+                                rotNode.parent.greater = subNode;
+                            }
+                        }
+                        else
+                        {
+                            root = subNode;
+                        }
+
+                        rotNode.greater = subNode.less;
+                        if (subNode.less != null)
+                        {
+                            subNode.less.parent = rotNode;
+                        }
+
+                        subNode.less   = rotNode;
+                        rotNode.parent = subNode;
+                        if (subNode.balance == 0)
+                        {
+                            rotNode.balance = 1;
+                            subNode.balance = -1;
+                            break;
+                        }
+                        else
+                        {
+                            rotNode.balance = 0;
+                            subNode.balance = 0;
+                        }
+                    }
+                    else
+                    {
+                        // rotate RL
+                        if (subNode.less.balance == -1)
+                        {
+                            subNode.balance = 1;
+                            rotNode.balance = 0;
+                        }
+                        else
+                        if (subNode.less.balance == 1)
+                        {
+                            subNode.balance = 0;
+                            rotNode.balance = -1;
+                        }
+                        else
+                        {
+                            subNode.balance = 0;
+                            rotNode.balance = 0;
+                        }
+                        subNode.less.balance = 0;
+
+                        subNode.parent         = subNode.less;
+                        subNode.less           = subNode.less.greater;
+                        subNode.parent.greater = subNode;
+                        rotNode.greater        = subNode.parent.less;
+                        subNode.parent.parent  = rotNode.parent;
+                        if (subNode.less != null)
+                        {
+                            subNode.less.parent = subNode;
+                        }
+                        if (rotNode.greater != null)
+                        {
+                            rotNode.greater.parent = rotNode;
+                        }
+
+                        if (rotNode.parent != null)
+                        {
+                            if (rotNode.parent.less == rotNode)
+                            {
+                                rotNode.parent.less = subNode.parent;
+                            }
+                            else
+                            {
+                                rotNode.parent.greater = subNode.parent;
+                            }
+                        }
+                        else
+                        {
+                            root = subNode.parent;
+                        }
+
+                        rotNode.parent      = subNode.parent;
+                        subNode.parent.less = rotNode;
+                    }
+                    rotNode = rotNode.parent;
+                    // end of L / RL rotations
+                }
+                rotNode = rotNode.parent;
+            }
+        }
+    }
+
+    public void clear()
+    {
+        root = null;
+        size = 0;
+    }
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns a new set that contains all keys that are contained in this set,
+     * in the other set, or in both sets
+     *
+     * Both sets are merged in a single ordered pass and the result is built
+     * as a balanced tree without any rotations, O(n + m)
+     */
+    public QSet<K> union(QSet<K> other)
+    {
+        Object[] keys = new Object[checkedArraySize(size + other.size)];
+        int count = 0;
+
+        Node<K> node = findFirstNode();
+        Node<K> otherNode = other.findFirstNode();
+        while (node != null && otherNode != null)
+        {
+            int cmpRc = node.key.compareTo(otherNode.key);
+            if (cmpRc < 0)
+            {
+                keys[count] = node.key;
+                node = successor(node);
+            }
+            else
+            if (cmpRc > 0)
+            {
+                keys[count] = otherNode.key;
+                otherNode = successor(otherNode);
+            }
+            else
+            {
+                keys[count] = node.key;
+                node = successor(node);
+                otherNode = successor(otherNode);
+            }
+            ++count;
+        }
+        for (; node != null; node = successor(node))
+        {
+            keys[count] = node.key;
+            ++count;
+        }
+        for (; otherNode != null; otherNode = successor(otherNode))
+        {
+            keys[count] = otherNode.key;
+            ++count;
+        }
+
+        return buildSet(keys, count);
+    }
+
+    /**
+     * Returns a new set that contains the keys that are contained in both sets
+     *
+     * O(n + m)
+     */
+    public QSet<K> intersection(QSet<K> other)
+    {
+        Object[] keys = new Object[checkedArraySize(Math.min(size, other.size))];
+        int count = 0;
+
+        Node<K> node = findFirstNode();
+        Node<K> otherNode = other.findFirstNode();
+        while (node != null && otherNode != null)
+        {
+            int cmpRc = node.key.compareTo(otherNode.key);
+            if (cmpRc < 0)
+            {
+                node = successor(node);
+            }
+            else
+            if (cmpRc > 0)
+            {
+                otherNode = successor(otherNode);
+            }
+            else
+            {
+                keys[count] = node.key;
+                ++count;
+                node = successor(node);
+                otherNode = successor(otherNode);
+            }
+        }
+
+        return buildSet(keys, count);
+    }
+
+    /**
+     * Returns a new set that contains the keys of this set that are not
+     * contained in the other set
+     *
+     * O(n + m)
+     */
+    public QSet<K> difference(QSet<K> other)
+    {
+        Object[] keys = new Object[checkedArraySize(size)];
+        int count = 0;
+
+        Node<K> node = findFirstNode();
+        Node<K> otherNode = other.findFirstNode();
+        while (node != null)
+        {
+            int cmpRc = otherNode == null ? -1 : node.key.compareTo(otherNode.key);
+            if (cmpRc < 0)
+            {
+                keys[count] = node.key;
+                ++count;
+                node = successor(node);
+            }
+            else
+            if (cmpRc > 0)
+            {
+                otherNode = successor(otherNode);
+            }
+            else
+            {
+                node = successor(node);
+                otherNode = successor(otherNode);
+            }
+        }
+
+        return buildSet(keys, count);
+    }
+
+    private static int checkedArraySize(long count)
+    {
+        if (count > Integer.MAX_VALUE)
+        {
+            throw new IllegalStateException("QSet: result set exceeds maximum array size");
+        }
+        return (int) count;
+    }
+
+    private static <K extends Comparable<K>> Node<K> successor(Node<K> node)
+    {
+        Node<K> next = node;
+        if (next.greater != null)
+        {
+            next = next.greater;
+            while (next.less != null)
+            {
+                next = next.less;
+            }
+        }
+        else
+        {
+            while (next.parent != null && next.parent.greater == next)
+            {
+                next = next.parent;
+            }
+            next = next.parent;
+        }
+        return next;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K extends Comparable<K>> QSet<K> buildSet(Object[] keys, int count)
+    {
+        QSet<K> result = new QSet<>();
+        Node<K>[] nodes = (Node<K>[]) new Node<?>[count];
+        for (int index = 0; index < count; ++index)
+        {
+            nodes[index] = new Node<>((K) keys[index]);
+        }
+        result.root = linkBalanced(nodes, 0, count, null);
+        result.size = count;
+        return result;
+    }
+
+    /**
+     * Links the nodes in the specified range of the sorted array into a
+     * perfectly balanced subtree and returns the root node of that subtree
+     *
+     * Each subtree splits at its middle element, so the height of a subtree
+     * of n nodes is floor(log2(n)) + 1, and the left subtree is never
+     * lower than the right subtree
+     */
+    private static <K extends Comparable<K>> Node<K> linkBalanced(
+        Node<K>[] nodes,
+        int start,
+        int end,
+        Node<K> parentNode
+    )
+    {
+        Node<K> node = null;
+        if (start < end)
+        {
+            int midIndex = start + ((end - start) >>> 1);
+            node = nodes[midIndex];
+            node.parent  = parentNode;
+            node.less    = linkBalanced(nodes, start, midIndex, node);
+            node.greater = linkBalanced(nodes, midIndex + 1, end, node);
+            node.balance = treeHeight(end - midIndex - 1) - treeHeight(midIndex - start);
+        }
+        return node;
+    }
+
+    private static int treeHeight(int count)
+    {
+        return 32 - Integer.numberOfLeadingZeros(count);
+    }
+
+    @Override
+    public QIterator<K> iterator()
+    {
+        return new KeysIterator<>(this);
+    }
+
+    public QIterator<K> reverseIterator()
+    {
+        return new KeysReverseIterator<>(this);
+    }
+
+    public QIterator<K> iterator(K key)
+    {
+        Node<K> startNode = findNode(key);
+        QIterator<K> iter = null;
+        if (startNode != null)
+        {
+            iter = new KeysIterator<>(this, startNode);
+        }
+        return iter;
+    }
+
+    public QIterator<K> reverseIterator(K key)
+    {
+        Node<K> startNode = findNode(key);
+        QIterator<K> iter = null;
+        if (startNode != null)
+        {
+            iter = new KeysReverseIterator<>(this, startNode);
+        }
+        return iter;
+    }
+
+    /**
+     * Returns an iterator that starts at the least key that is greater than
+     * or equal to the specified key
+     */
+    public QIterator<K> ceilingIterator(K key)
+    {
+        return new KeysIterator<>(this, findCeilingNode(key));
+    }
+
+    /**
+     * Returns a reverse iterator that starts at the greatest key that is
+     * less than or equal to the specified key
+     */
+    public QIterator<K> floorReverseIterator(K key)
+    {
+        return new KeysReverseIterator<>(this, findFloorNode(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    public K[] keysArray(K[] dstArray)
+    {
+        K[] keys = null;
+        if (size <= Integer.MAX_VALUE)
+        {
+            if (size <= dstArray.length)
+            {
+                keys = dstArray;
+            }
+            else
+            {
+                keys = (K[]) Array.newInstance(dstArray.getClass().getComponentType(), (int) size);
+            }
+
+            int index = 0;
+            for (Node<K> node = findFirstNode(); node != null; node = successor(node))
+            {
+                keys[index] = node.key;
+                ++index;
+            }
+        }
+
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    public K[] reverseKeysArray(K[] dstArray)
+    {
+        K[] keys = null;
+        if (size <= Integer.MAX_VALUE)
+        {
+            if (size <= dstArray.length)
+            {
+                keys = dstArray;
+            }
+            else
+            {
+                keys = (K[]) Array.newInstance(dstArray.getClass().getComponentType(), (int) size);
+            }
+
+            if (root != null)
+            {
+                Node<K> node = findLastNode();
+                int index = 0;
+                while (node != null)
+                {
+                    keys[index] = node.key;
+                    ++index;
+                    if (node.less != null)
+                    {
+                        node = node.less;
+                        while (node.greater != null)
+                        {
+                            node = node.greater;
+                        }
+                    }
+                    else
+                    {
+                        while (node.parent != null && node.parent.less == node)
+                        {
+                            node = node.parent;
+                        }
+                        node = node.parent;
+                    }
+                }
+            }
+        }
+
+        return keys;
+    }
+}
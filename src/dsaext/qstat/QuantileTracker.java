@@ -0,0 +1,662 @@
+package dsaext.qstat;
+
+/**
+ * Streaming quantile tracker for a sliding window of samples
+ *
+ * Samples are kept in a balanced order statistic tree, where each node holds
+ * a distinct sample value, the number of samples with that value and the total
+ * number of samples in its subtree. Adding a sample, evicting a sample and
+ * selecting a quantile each cost O(log n).
+ *
+ * The window can be limited to a maximum number of samples, to a maximum
+ * sample age, or both. Samples that leave the window are evicted in the order
+ * in which they were added.
+ *
+ * In compressed mode, each sample is rounded to the representative value of
+ * a logarithmic bucket before it is stored, so that quantiles are returned
+ * with a bounded relative error. Since all samples within a bucket share a
+ * single tree node, the tree size depends only on the range of the sample
+ * values, and the window keeps the rounded values in primitive arrays.
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class QuantileTracker
+{
+    private Node root;
+
+    /* number of samples, including duplicates */
+    private long count;
+
+    /* maximum number of samples in the window, 0 if unlimited */
+    private final int maxSamples;
+
+    /* maximum age of samples in the window, 0 if unlimited */
+    private final long maxAge;
+
+    /* compressed mode parameters, logGamma is 0 in exact mode */
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    /* window ring buffer, null if the window is unlimited */
+    private double[] windowValues;
+    private long[] windowTimes;
+    private int windowHead;
+    private int windowCount;
+
+    private static final int INITIAL_WINDOW_CAPACITY = 16;
+
+    /**
+     * Creates a tracker with an unlimited window that stores exact values
+     */
+    public QuantileTracker()
+    {
+        this(0, 0, 0.0);
+    }
+
+    /**
+     * Creates a tracker that keeps the most recent maxSampleCount samples
+     */
+    public QuantileTracker(int maxSampleCount)
+    {
+        this(maxSampleCount, 0, 0.0);
+    }
+
+    /**
+     * Creates a tracker
+     *
+     * @param maxSampleCount maximum number of samples in the window, or 0
+     * @param maxSampleAge maximum age of samples in the window, in the unit of
+     *     the timestamps passed to add(), or 0
+     * @param accuracy relative accuracy of the compressed mode, for example
+     *     0.01 for quantiles that are accurate within 1 percent, or 0 to
+     *     store exact values
+     */
+    public QuantileTracker(int maxSampleCount, long maxSampleAge, double accuracy)
+    {
+        if (maxSampleCount < 0)
+        {
+            throw new IllegalArgumentException("Negative maxSampleCount");
+        }
+        if (maxSampleAge < 0)
+        {
+            throw new IllegalArgumentException("Negative maxSampleAge");
+        }
+        if (!(accuracy >= 0.0 && accuracy < 1.0))
+        {
+            throw new IllegalArgumentException("Relative accuracy out of range [0, 1)");
+        }
+        maxSamples = maxSampleCount;
+        maxAge = maxSampleAge;
+        relativeAccuracy = accuracy;
+        if (accuracy > 0.0)
+        {
+            gamma = (1.0 + accuracy) / (1.0 - accuracy);
+            logGamma = Math.log(gamma);
+        }
+        else
+        {
+            gamma = 1.0;
+            logGamma = 0.0;
+        }
+
+        root = null;
+        count = 0;
+        if (maxSamples > 0 || maxAge > 0)
+        {
+            int capacity = maxSamples > 0 ?
+                Math.min(maxSamples, INITIAL_WINDOW_CAPACITY) : INITIAL_WINDOW_CAPACITY;
+            windowValues = new double[capacity];
+            if (maxAge > 0)
+            {
+                windowTimes = new long[capacity];
+            }
+        }
+    }
+
+    private static final class Node
+    {
+        final double value;
+
+        /* number of samples with this value */
+        long valueCount;
+
+        /* number of samples in this subtree */
+        long weight;
+
+        int height;
+
+        Node less;
+        Node greater;
+
+        Node(double sampleValue)
+        {
+            value = sampleValue;
+            valueCount = 1;
+            weight = 1;
+            height = 1;
+        }
+    }
+
+    /**
+     * Adds a sample that is timestamped with System.nanoTime()
+     */
+    public void add(double value)
+    {
+        add(value, System.nanoTime());
+    }
+
+    /**
+     * Adds a sample with the specified timestamp
+     *
+     * Timestamps must not decrease from one sample to the next. Samples that
+     * fall out of the window are evicted.
+     */
+    public void add(double value, long timestamp)
+    {
+        if (Double.isNaN(value))
+        {
+            throw new IllegalArgumentException("NaN sample value");
+        }
+        double storedValue = quantize(value);
+        root = insertSample(root, storedValue);
+        ++count;
+
+        if (windowValues != null)
+        {
+            if (maxSamples > 0 && windowCount == maxSamples)
+            {
+                evictOldest();
+            }
+            appendToWindow(storedValue, timestamp);
+            if (maxAge > 0)
+            {
+                expire(timestamp);
+            }
+        }
+    }
+
+    /**
+     * Evicts the samples that are older than the maximum sample age
+     *
+     * @param now current time, in the unit of the timestamps passed to add()
+     * @return number of evicted samples
+     */
+    public int expire(long now)
+    {
+        int evicted = 0;
+        if (maxAge > 0)
+        {
+            long limit = now - maxAge;
+            while (windowCount > 0 && windowTimes[windowHead] < limit)
+            {
+                evictOldest();
+                ++evicted;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Evicts the oldest sample in the window
+     *
+     * @return true if a sample was evicted, false if the window was empty or
+     *     the tracker has an unlimited window
+     */
+    public boolean evictOldest()
+    {
+        boolean evicted = false;
+        if (windowCount > 0)
+        {
+            double value = windowValues[windowHead];
+            windowHead = (windowHead + 1) % windowValues.length;
+            --windowCount;
+            root = removeSample(root, value);
+            --count;
+            evicted = true;
+        }
+        return evicted;
+    }
+
+    /**
+     * Removes one sample with the specified value
+     *
+     * Only available for trackers with an unlimited window, because the
+     * samples of a limited window are evicted in the order they were added.
+     *
+     * @return true if a sample was removed
+     */
+    public boolean remove(double value)
+    {
+        if (windowValues != null)
+        {
+            throw new IllegalStateException("Samples of a limited window can only be evicted");
+        }
+        boolean removed = false;
+        double storedValue = quantize(value);
+        if (countOf(storedValue) > 0)
+        {
+            root = removeSample(root, storedValue);
+            --count;
+            removed = true;
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the sample at the specified quantile, using the nearest rank
+     * method, or NaN if the tracker contains no samples
+     *
+     * @param quantile quantile in the range [0, 1], for example 0.99 for
+     *     the 99th percentile
+     */
+    public double quantile(double quantile)
+    {
+        if (!(quantile >= 0.0 && quantile <= 1.0))
+        {
+            throw new IllegalArgumentException("Quantile out of range [0, 1]");
+        }
+        double result = Double.NaN;
+        if (count > 0)
+        {
+            long rank = (long) Math.ceil(quantile * count) - 1;
+            if (rank < 0)
+            {
+                rank = 0;
+            }
+            else
+            if (rank >= count)
+            {
+                rank = count - 1;
+            }
+            result = select(rank);
+        }
+        return result;
+    }
+
+    public double median()
+    {
+        return quantile(0.5);
+    }
+
+    /**
+     * Returns the sample with the specified zero-based rank in ascending order
+     */
+    public double select(long rank)
+    {
+        if (rank < 0 || rank >= count)
+        {
+            throw new IndexOutOfBoundsException("Rank " + rank + ", count " + count);
+        }
+        Node node = root;
+        long remaining = rank;
+        while (true)
+        {
+            long lessWeight = weight(node.less);
+            if (remaining < lessWeight)
+            {
+                node = node.less;
+            }
+            else
+            {
+                remaining -= lessWeight;
+                if (remaining < node.valueCount)
+                {
+                    break;
+                }
+                remaining -= node.valueCount;
+                node = node.greater;
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * Returns the number of samples that are less than or equal to the
+     * specified value
+     */
+    public long rank(double value)
+    {
+        double storedValue = quantize(value);
+        long result = 0;
+        Node node = root;
+        while (node != null)
+        {
+            int cmpRc = Double.compare(storedValue, node.value);
+            if (cmpRc < 0)
+            {
+                node = node.less;
+            }
+            else
+            {
+                result += weight(node.less) + node.valueCount;
+                if (cmpRc == 0)
+                {
+                    break;
+                }
+                node = node.greater;
+            }
+        }
+        return result;
+    }
+
+    public double getMin()
+    {
+        double result = Double.NaN;
+        Node node = root;
+        if (node != null)
+        {
+            while (node.less != null)
+            {
+                node = node.less;
+            }
+            result = node.value;
+        }
+        return result;
+    }
+
+    public double getMax()
+    {
+        double result = Double.NaN;
+        Node node = root;
+        if (node != null)
+        {
+            while (node.greater != null)
+            {
+                node = node.greater;
+            }
+            result = node.value;
+        }
+        return result;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Returns the relative accuracy of the compressed mode, or 0 if the
+     * tracker stores exact values
+     */
+    public double getRelativeAccuracy()
+    {
+        return relativeAccuracy;
+    }
+
+    public void clear()
+    {
+        root = null;
+        count = 0;
+        windowHead = 0;
+        windowCount = 0;
+    }
+
+    /**
+     * Rounds a value to the representative value of its bucket in
+     * compressed mode
+     *
+     * Bucket i covers the magnitudes (gamma^(i-1), gamma^i], and its
+     * representative value 2 * gamma^i / (gamma + 1) is within the relative
+     * accuracy of every magnitude in the bucket.
+     */
+    private double quantize(double value)
+    {
+        double result = value;
+        if (logGamma != 0.0 && value != 0.0 && !Double.isInfinite(value))
+        {
+            double magnitude = Math.abs(value);
+            double index = Math.ceil(Math.log(magnitude) / logGamma);
+            double representative = 2.0 * Math.exp(index * logGamma) / (gamma + 1.0);
+            result = value < 0.0 ? -representative : representative;
+        }
+        return result;
+    }
+
+    private long countOf(double value)
+    {
+        long result = 0;
+        Node node = root;
+        while (node != null)
+        {
+            int cmpRc = Double.compare(value, node.value);
+            if (cmpRc < 0)
+            {
+                node = node.less;
+            }
+            else
+            if (cmpRc > 0)
+            {
+                node = node.greater;
+            }
+            else
+            {
+                result = node.valueCount;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void appendToWindow(double value, long timestamp)
+    {
+        if (windowCount == windowValues.length)
+        {
+            int capacity = windowValues.length * 2;
+            if (maxSamples > 0 && capacity > maxSamples)
+            {
+                capacity = maxSamples;
+            }
+            double[] newValues = new double[capacity];
+            long[] newTimes = windowTimes != null ? new long[capacity] : null;
+            for (int idx = 0; idx < windowCount; ++idx)
+            {
+                int srcIdx = (windowHead + idx) % windowValues.length;
+                newValues[idx] = windowValues[srcIdx];
+                if (newTimes != null)
+                {
+                    newTimes[idx] = windowTimes[srcIdx];
+                }
+            }
+            windowValues = newValues;
+            windowTimes = newTimes;
+            windowHead = 0;
+        }
+        int tailIdx = (windowHead + windowCount) % windowValues.length;
+        windowValues[tailIdx] = value;
+        if (windowTimes != null)
+        {
+            windowTimes[tailIdx] = timestamp;
+        }
+        ++windowCount;
+    }
+
+    private static long weight(Node node)
+    {
+        return node != null ? node.weight : 0;
+    }
+
+    private static int height(Node node)
+    {
+        return node != null ? node.height : 0;
+    }
+
+    private static void update(Node node)
+    {
+        node.height = Math.max(height(node.less), height(node.greater)) + 1;
+        node.weight = weight(node.less) + weight(node.greater) + node.valueCount;
+    }
+
+    private static Node insertSample(Node node, double value)
+    {
+        Node result;
+        if (node == null)
+        {
+            result = new Node(value);
+        }
+        else
+        {
+            int cmpRc = Double.compare(value, node.value);
+            if (cmpRc < 0)
+            {
+                node.less = insertSample(node.less, value);
+            }
+            else
+            if (cmpRc > 0)
+            {
+                node.greater = insertSample(node.greater, value);
+            }
+            else
+            {
+                ++node.valueCount;
+            }
+            result = rebalance(node);
+        }
+        return result;
+    }
+
+    /**
+     * Removes one sample with the specified value, which must be contained
+     * in the subtree
+     */
+    private static Node removeSample(Node node, double value)
+    {
+        Node result;
+        int cmpRc = Double.compare(value, node.value);
+        if (cmpRc < 0)
+        {
+            node.less = removeSample(node.less, value);
+            result = rebalance(node);
+        }
+        else
+        if (cmpRc > 0)
+        {
+            node.greater = removeSample(node.greater, value);
+            result = rebalance(node);
+        }
+        else
+        if (node.valueCount > 1)
+        {
+            --node.valueCount;
+            --node.weight;
+            result = node;
+        }
+        else
+        if (node.less == null)
+        {
+            result = node.greater;
+        }
+        else
+        if (node.greater == null)
+        {
+            result = node.less;
+        }
+        else
+        {
+            Node successor = node.greater;
+            while (successor.less != null)
+            {
+                successor = successor.less;
+            }
+            Node replacement = new Node(successor.value);
+            replacement.valueCount = successor.valueCount;
+            replacement.greater = removeMinNode(node.greater);
+            replacement.less = node.less;
+            result = rebalance(replacement);
+        }
+        return result;
+    }
+
+    private static Node removeMinNode(Node node)
+    {
+        Node result;
+        if (node.less == null)
+        {
+            result = node.greater;
+        }
+        else
+        {
+            node.less = removeMinNode(node.less);
+            result = rebalance(node);
+        }
+        return result;
+    }
+
+    private static Node rebalance(Node node)
+    {
+        update(node);
+        Node result = node;
+        int balance = height(node.less) - height(node.greater);
+        if (balance > 1)
+        {
+            if (height(node.less.less) < height(node.less.greater))
+            {
+                node.less = rotateLess(node.less);
+            }
+            result = rotateGreater(node);
+        }
+        else
+        if (balance < -1)
+        {
+            if (height(node.greater.greater) < height(node.greater.less))
+            {
+                node.greater = rotateGreater(node.greater);
+            }
+            result = rotateLess(node);
+        }
+        return result;
+    }
+
+    /* rotates the greater child of node into its position */
+    private static Node rotateLess(Node node)
+    {
+        Node pivot = node.greater;
+        node.greater = pivot.less;
+        pivot.less = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /* rotates the less child of node into its position */
+    private static Node rotateGreater(Node node)
+    {
+        Node pivot = node.less;
+        node.less = pivot.greater;
+        pivot.greater = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
@@ -0,0 +1,252 @@
+package dsaext.qtree;
+
+/**
+ * Counting bloom filter for negative QTree lookups
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class CountingBloomFilter
+{
+    private static final int COUNTER_BITS      = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long COUNTER_MASK     = (1L << COUNTER_BITS) - 1;
+    private static final int MAX_HASH_COUNT    = 16;
+
+    private final long[] counters;
+    private final int    counterCount;
+    private final int    hashCount;
+    private final long   capacity;
+    private final double targetFalsePositiveRate;
+
+    private long entryCount;
+    private long queryCount;
+    private long rejectCount;
+    private long falsePositiveCount;
+
+    CountingBloomFilter(long expectedEntries, double falsePositiveRate)
+    {
+        if (expectedEntries < 1)
+        {
+            expectedEntries = 1;
+        }
+        if (!(falsePositiveRate > 0.0 && falsePositiveRate < 1.0))
+        {
+            throw new IllegalArgumentException(
+                "CountingBloomFilter: invalid false positive rate " + falsePositiveRate
+            );
+        }
+
+        double ln2 = Math.log(2.0);
+        long optimalCount = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        if (optimalCount > Integer.MAX_VALUE - COUNTERS_PER_WORD)
+        {
+            optimalCount = Integer.MAX_VALUE - COUNTERS_PER_WORD;
+        }
+        counterCount = Math.max((int) optimalCount, COUNTERS_PER_WORD);
+        hashCount = (int) Math.max(1, Math.min(MAX_HASH_COUNT, Math.round(((double) counterCount / expectedEntries) * ln2)));
+        capacity = expectedEntries;
+        targetFalsePositiveRate = falsePositiveRate;
+        counters = new long[(counterCount + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD];
+    }
+
+    void add(Object key)
+    {
+        long hash = mix(key.hashCode());
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        for (int index = 0; index < hashCount; ++index)
+        {
+            int counterIndex = counterIndex(hash1 + index * hash2);
+            int wordIndex = counterIndex / COUNTERS_PER_WORD;
+            int shift = (counterIndex % COUNTERS_PER_WORD) * COUNTER_BITS;
+            // Saturated counters are never incremented or decremented again
+            if (((counters[wordIndex] >>> shift) & COUNTER_MASK) != COUNTER_MASK)
+            {
+                counters[wordIndex] += 1L << shift;
+            }
+        }
+        ++entryCount;
+    }
+
+    void remove(Object key)
+    {
+        long hash = mix(key.hashCode());
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        for (int index = 0; index < hashCount; ++index)
+        {
+            int counterIndex = counterIndex(hash1 + index * hash2);
+            int wordIndex = counterIndex / COUNTERS_PER_WORD;
+            int shift = (counterIndex % COUNTERS_PER_WORD) * COUNTER_BITS;
+            long count = (counters[wordIndex] >>> shift) & COUNTER_MASK;
+            if (count != COUNTER_MASK && count != 0)
+            {
+                counters[wordIndex] -= 1L << shift;
+            }
+        }
+        --entryCount;
+    }
+
+    boolean mightContain(Object key)
+    {
+        ++queryCount;
+        boolean result = true;
+        long hash = mix(key.hashCode());
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32) | 1;
+        for (int index = 0; index < hashCount; ++index)
+        {
+            int counterIndex = counterIndex(hash1 + index * hash2);
+            int shift = (counterIndex % COUNTERS_PER_WORD) * COUNTER_BITS;
+            if (((counters[counterIndex / COUNTERS_PER_WORD] >>> shift) & COUNTER_MASK) == 0)
+            {
+                ++rejectCount;
+                result = false;
+                break;
+            }
+        }
+        return result;
+    }
+
+    void falsePositive()
+    {
+        ++falsePositiveCount;
+    }
+
+    void clear()
+    {
+        java.util.Arrays.fill(counters, 0);
+        entryCount = 0;
+    }
+
+    void copyStatistics(CountingBloomFilter other)
+    {
+        queryCount         = other.queryCount;
+        rejectCount        = other.rejectCount;
+        falsePositiveCount = other.falsePositiveCount;
+    }
+
+    private int counterIndex(int hash)
+    {
+        return (int) (((hash & 0xFFFFFFFFL) * counterCount) >>> 32);
+    }
+
+    private static long mix(int hashCode)
+    {
+        long hash = hashCode * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        hash *= 0xD6E8FEB86659FD93L;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    /**
+     * Returns the number of entries that the filter was sized for
+     */
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Returns the false positive rate that the filter was sized for
+     */
+    public double getTargetFalsePositiveRate()
+    {
+        return targetFalsePositiveRate;
+    }
+
+    public long getEntryCount()
+    {
+        return entryCount;
+    }
+
+    public int getCounterCount()
+    {
+        return counterCount;
+    }
+
+    public int getHashCount()
+    {
+        return hashCount;
+    }
+
+    /**
+     * Returns the size of the counters array in bytes
+     */
+    public long getMemorySize()
+    {
+        return (long) counters.length * Long.BYTES;
+    }
+
+    /**
+     * Returns the false positive rate that is expected for the
+     * current number of entries, (1 - e^(-k * n / m))^k
+     */
+    public double getExpectedFalsePositiveRate()
+    {
+        return Math.pow(1.0 - Math.exp(-((double) hashCount * entryCount) / counterCount), hashCount);
+    }
+
+    /**
+     * Returns the number of lookups that were checked against the filter
+     */
+    public long getQueryCount()
+    {
+        return queryCount;
+    }
+
+    /**
+     * Returns the number of lookups that the filter answered without
+     * searching the tree
+     */
+    public long getRejectCount()
+    {
+        return rejectCount;
+    }
+
+    /**
+     * Returns the number of lookups that passed the filter, but did not find
+     * the key in the tree
+     */
+    public long getFalsePositiveCount()
+    {
+        return falsePositiveCount;
+    }
+
+    /**
+     * Returns the observed false positive rate, the number of false positives
+     * relative to the number of lookups for keys that are not in the tree
+     */
+    public double getObservedFalsePositiveRate()
+    {
+        long negativeCount = rejectCount + falsePositiveCount;
+        return negativeCount > 0 ? (double) falsePositiveCount / negativeCount : 0.0;
+    }
+}
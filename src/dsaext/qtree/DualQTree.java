@@ -0,0 +1,397 @@
+package dsaext.qtree;
+
+import dsaext.QIterator;
+import dsaext.MapEntry;
+import dsaext.qset.QSet;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map that is ordered by key and, through a secondary index, by value
+ *
+ * The primary tree maps each key to an index entry that is also stored in a
+ * set ordered by value, with ties ordered by key. Both orderings are updated
+ * by insert() and remove(), so that value ordered queries, such as the
+ * n entries with the greatest values or all entries within a range of
+ * values, cost O(log n + k) for k returned entries.
+ *
+ * The value order is defined by a comparator, which may also order values
+ * by a score that is derived from each value. Values must not be null and
+ * must not be modified in a way that changes their order while they are
+ * stored in the map.
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class DualQTree<K extends Comparable<K>, V>
+{
+    private final QTree<K, IndexKey> keyTree;
+    private final QSet<IndexKey> valueIndex;
+    private final Comparator<? super V> valueOrder;
+
+    /* bound markers of index keys that are used to search value ranges */
+    private static final int BOUND_LOWEST   = -1;
+    private static final int BOUND_NONE     = 0;
+    private static final int BOUND_HIGHEST  = 1;
+
+    public DualQTree(Comparator<? super V> valueComparator)
+    {
+        this(null, valueComparator);
+    }
+
+    public DualQTree(Comparator<? super K> keyComparator, Comparator<? super V> valueComparator)
+    {
+        if (valueComparator == null)
+        {
+            throw new NullPointerException("valueComparator");
+        }
+        keyTree = new QTree<K, IndexKey>(keyComparator, null, Balancing.AVL);
+        valueIndex = new QSet<>();
+        valueOrder = valueComparator;
+    }
+
+    private final class IndexKey implements Comparable<IndexKey>
+    {
+        final K key;
+        final V value;
+        final int bound;
+
+        IndexKey(K keyRef, V valueRef, int boundMarker)
+        {
+            key = keyRef;
+            value = valueRef;
+            bound = boundMarker;
+        }
+
+        @Override
+        public int compareTo(IndexKey other)
+        {
+            int cmpRc = valueOrder.compare(value, other.value);
+            if (cmpRc == 0)
+            {
+                if (bound != BOUND_NONE || other.bound != BOUND_NONE)
+                {
+                    cmpRc = Integer.compare(bound, other.bound);
+                }
+                else
+                {
+                    cmpRc = compareKeys(key, other.key);
+                }
+            }
+            return cmpRc;
+        }
+    }
+
+    private int compareKeys(K first, K second)
+    {
+        Comparator<? super K> keyOrder = keyTree.getComparator();
+        return keyOrder != null ? keyOrder.compare(first, second) : first.compareTo(second);
+    }
+
+    private static final class ValueOrderIterator<K extends Comparable<K>, V>
+        implements QIterator<MapEntry<K, V>>
+    {
+        private final DualQTree<K, V> container;
+        private final QIterator<DualQTree<K, V>.IndexKey> indexIter;
+        private final DualQTree<K, V>.IndexKey endKey;
+        private final boolean reverse;
+        private DualQTree<K, V>.IndexKey next;
+
+        ValueOrderIterator(
+            DualQTree<K, V> containerRef,
+            QIterator<DualQTree<K, V>.IndexKey> indexIterRef,
+            DualQTree<K, V>.IndexKey endKeyRef,
+            boolean reverseFlag
+        )
+        {
+            container = containerRef;
+            indexIter = indexIterRef;
+            endKey = endKeyRef;
+            reverse = reverseFlag;
+            advance();
+        }
+
+        private void advance()
+        {
+            next = null;
+            if (indexIter.hasNext())
+            {
+                DualQTree<K, V>.IndexKey candidate = indexIter.next();
+                if (endKey == null)
+                {
+                    next = candidate;
+                }
+                else
+                {
+                    int cmpRc = candidate.compareTo(endKey);
+                    if (reverse ? cmpRc > 0 : cmpRc < 0)
+                    {
+                        next = candidate;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public final long getSize()
+        {
+            return container.getSize();
+        }
+
+        @Override
+        public final boolean hasNext()
+        {
+            return next != null;
+        }
+
+        @Override
+        public final MapEntry<K, V> next()
+        {
+            if (next == null)
+            {
+                throw new NoSuchElementException();
+            }
+            MapEntry<K, V> entry = new MapEntry<>(next.key, next.value);
+            advance();
+            return entry;
+        }
+
+        @Override
+        public final void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Inserts or replaces the entry for the specified key
+     */
+    public void insert(K key, V val)
+    {
+        if (val == null)
+        {
+            throw new NullPointerException("val");
+        }
+        IndexKey newEntry = new IndexKey(key, val, BOUND_NONE);
+        IndexKey oldEntry = keyTree.get(key);
+        if (oldEntry != null)
+        {
+            valueIndex.remove(oldEntry);
+        }
+        valueIndex.insert(newEntry);
+        keyTree.insert(key, newEntry);
+    }
+
+    public void remove(K key)
+    {
+        IndexKey oldEntry = keyTree.get(key);
+        if (oldEntry != null)
+        {
+            valueIndex.remove(oldEntry);
+            keyTree.remove(key);
+        }
+    }
+
+    public V get(K key)
+    {
+        IndexKey entry = keyTree.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public boolean contains(K key)
+    {
+        return keyTree.get(key) != null;
+    }
+
+    public K getFirstKey()
+    {
+        return keyTree.getFirstKey();
+    }
+
+    public K getLastKey()
+    {
+        return keyTree.getLastKey();
+    }
+
+    /**
+     * Returns the entry with the least value, or null if the map is empty
+     */
+    public MapEntry<K, V> getLeastValueEntry()
+    {
+        MapEntry<K, V> result = null;
+        IndexKey entry = valueIndex.getFirstKey();
+        if (entry != null)
+        {
+            result = new MapEntry<>(entry.key, entry.value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the entry with the greatest value, or null if the map is empty
+     */
+    public MapEntry<K, V> getGreatestValueEntry()
+    {
+        MapEntry<K, V> result = null;
+        IndexKey entry = valueIndex.getLastKey();
+        if (entry != null)
+        {
+            result = new MapEntry<>(entry.key, entry.value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to count entries with the greatest values, in descending
+     * order of their values
+     */
+    public MapEntry<K, V>[] topEntries(int count)
+    {
+        return collect(valueIndex.reverseIterator(), count);
+    }
+
+    /**
+     * Returns up to count entries with the least values, in ascending
+     * order of their values
+     */
+    public MapEntry<K, V>[] bottomEntries(int count)
+    {
+        return collect(valueIndex.iterator(), count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MapEntry<K, V>[] collect(QIterator<IndexKey> indexIter, int count)
+    {
+        int resultCount = (int) Math.min(Math.max(count, 0), valueIndex.getSize());
+        MapEntry<K, V>[] result = (MapEntry<K, V>[]) new MapEntry<?, ?>[resultCount];
+        for (int idx = 0; idx < resultCount; ++idx)
+        {
+            IndexKey entry = indexIter.next();
+            result[idx] = new MapEntry<>(entry.key, entry.value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns an iterator over the entries in ascending order of their values
+     */
+    public QIterator<MapEntry<K, V>> valueOrderIterator()
+    {
+        return new ValueOrderIterator<>(this, valueIndex.iterator(), null, false);
+    }
+
+    /**
+     * Returns an iterator over the entries in descending order of their values
+     */
+    public QIterator<MapEntry<K, V>> reverseValueOrderIterator()
+    {
+        return new ValueOrderIterator<>(this, valueIndex.reverseIterator(), null, true);
+    }
+
+    /**
+     * Returns an iterator over the entries with values from fromValue to
+     * toValue inclusive, in ascending order of their values
+     */
+    public QIterator<MapEntry<K, V>> valueRange(V fromValue, V toValue)
+    {
+        IndexKey fromKey = new IndexKey(null, fromValue, BOUND_LOWEST);
+        IndexKey toKey = new IndexKey(null, toValue, BOUND_HIGHEST);
+        return new ValueOrderIterator<>(this, valueIndex.ceilingIterator(fromKey), toKey, false);
+    }
+
+    /**
+     * Returns an iterator over the entries with values from toValue down to
+     * fromValue inclusive, in descending order of their values
+     */
+    public QIterator<MapEntry<K, V>> reverseValueRange(V fromValue, V toValue)
+    {
+        IndexKey fromKey = new IndexKey(null, fromValue, BOUND_LOWEST);
+        IndexKey toKey = new IndexKey(null, toValue, BOUND_HIGHEST);
+        return new ValueOrderIterator<>(this, valueIndex.floorReverseIterator(toKey), fromKey, true);
+    }
+
+    /**
+     * Returns an iterator over the entries in ascending order of their keys
+     */
+    public QIterator<MapEntry<K, V>> iterator()
+    {
+        return new KeyOrderIterator<>(this, keyTree.iterator());
+    }
+
+    private static final class KeyOrderIterator<K extends Comparable<K>, V>
+        implements QIterator<MapEntry<K, V>>
+    {
+        private final DualQTree<K, V> container;
+        private final QIterator<MapEntry<K, DualQTree<K, V>.IndexKey>> treeIter;
+
+        KeyOrderIterator(
+            DualQTree<K, V> containerRef,
+            QIterator<MapEntry<K, DualQTree<K, V>.IndexKey>> treeIterRef
+        )
+        {
+            container = containerRef;
+            treeIter = treeIterRef;
+        }
+
+        @Override
+        public final long getSize()
+        {
+            return container.getSize();
+        }
+
+        @Override
+        public final boolean hasNext()
+        {
+            return treeIter.hasNext();
+        }
+
+        @Override
+        public final MapEntry<K, V> next()
+        {
+            MapEntry<K, DualQTree<K, V>.IndexKey> treeEntry = treeIter.next();
+            return new MapEntry<>(treeEntry.key, treeEntry.value.value);
+        }
+
+        @Override
+        public final void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public void clear()
+    {
+        keyTree.clear();
+        valueIndex.clear();
+    }
+
+    public long getSize()
+    {
+        return keyTree.getSize();
+    }
+}
@@ -0,0 +1,80 @@
+package dsaext.qtree;
+
+import java.util.Comparator;
+
+/**
+ * Built-in key comparators that are recognized by QTree
+ *
+ * A tree that is created with one of these comparators does not call the
+ * comparator, but compares the keys directly in a type-specific branch of
+ * its comparison method. This keeps the comparison inlineable even if the
+ * program uses trees with many different key types, which would otherwise
+ * turn the compareTo() call site megamorphic.
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class KeyComparators
+{
+    public static final Comparator<Long> LONG = new LongComparator();
+
+    public static final Comparator<Integer> INTEGER = new IntegerComparator();
+
+    public static final Comparator<String> STRING = new StringComparator();
+
+    private KeyComparators()
+    {
+    }
+
+    private static final class LongComparator implements Comparator<Long>
+    {
+        @Override
+        public int compare(Long first, Long second)
+        {
+            return Long.compare(first, second);
+        }
+    }
+
+    private static final class IntegerComparator implements Comparator<Integer>
+    {
+        @Override
+        public int compare(Integer first, Integer second)
+        {
+            return Integer.compare(first, second);
+        }
+    }
+
+    private static final class StringComparator implements Comparator<String>
+    {
+        @Override
+        public int compare(String first, String second)
+        {
+            return first.compareTo(second);
+        }
+    }
+}
@@ -3,14 +3,15 @@ package dsaext.qtree;
 import dsaext.QIterator;
 import dsaext.MapEntry;
 import java.lang.reflect.Array;
+import java.util.Comparator;
 
 /**
  * Quick balanced binary search tree
  *
- * @version 2018-07-25_001
+ * @version 2026-10-18_001
  * @author  Robert Altnoeder (r.altnoeder@gmx.net)
  *
- * Copyright (C) 2011 - 2018 Robert ALTNOEDER
+ * Copyright (C) 2011 - 2026 Robert ALTNOEDER
  *
  * Redistribution and use in source and binary forms,
  * with or without modification, are permitted provided that
@@ -41,6 +42,41 @@ public final class QTree<K extends Comparable<K>, V>
     private Node<K, V> root;
     private long size;
 
+    /* cached least and greatest nodes */
+    private Node<K, V> firstNode;
+    private Node<K, V> lastNode;
+
+    private final KeyAbbreviator<K> abbreviator;
+
+    private final Balancing balancing;
+
+    /* key order, null for the natural order of the keys */
+    private final Comparator<? super K> comparator;
+
+    /* selects the comparison branch in compareKeys() */
+    private final int keyOrder;
+
+    private static final int ORDER_NATURAL      = 0;
+    private static final int ORDER_COMPARATOR   = 1;
+    private static final int ORDER_LONG         = 2;
+    private static final int ORDER_INTEGER      = 3;
+    private static final int ORDER_STRING       = 4;
+
+    /* node colors of red-black trees, stored in the balance field */
+    private static final int BLACK = 0;
+    private static final int RED   = 1;
+
+    private CountingBloomFilter filter;
+
+    /* changes whenever nodes are detached from the tree */
+    private long detachVersion;
+
+    /* number of rotations performed by insertions and removals */
+    private long rotationCount;
+
+    /* incremental rebuild in progress, discarded by any modification */
+    private RebuildState<K, V> rebuildState;
+
     private enum Direction
     {
         NONE,
@@ -49,9 +85,86 @@ public final class QTree<K extends Comparable<K>, V>
     };
 
     public QTree()
+    {
+        this(null, Balancing.AVL);
+    }
+
+    public QTree(Balancing balancingStrategy)
+    {
+        this(null, balancingStrategy);
+    }
+
+    /**
+     * Creates a tree that stores an abbreviation of each key in the tree's nodes
+     *
+     * Lookups compare the abbreviations first and only compare the full keys
+     * if the abbreviations are equal, which avoids dereferencing the key
+     * objects on most levels of the tree if the abbreviations are selective.
+     */
+    public QTree(KeyAbbreviator<K> abbreviatorRef)
+    {
+        this(abbreviatorRef, Balancing.AVL);
+    }
+
+    public QTree(KeyAbbreviator<K> abbreviatorRef, Balancing balancingStrategy)
+    {
+        this(null, abbreviatorRef, balancingStrategy);
+    }
+
+    /**
+     * Creates a tree that orders its keys by the specified comparator
+     *
+     * If the comparator is one of the comparators provided by KeyComparators,
+     * the tree compares the keys directly instead of calling the comparator.
+     */
+    public QTree(Comparator<? super K> keyComparator)
+    {
+        this(keyComparator, null, Balancing.AVL);
+    }
+
+    /**
+     * Creates a tree that orders its keys by the specified comparator
+     *
+     * A null comparator selects the natural order of the keys.
+     * If an abbreviator is specified, the order of the abbreviations must
+     * be consistent with the order defined by the comparator.
+     */
+    public QTree(
+        Comparator<? super K> keyComparator,
+        KeyAbbreviator<K> abbreviatorRef,
+        Balancing balancingStrategy
+    )
     {
         root = null;
         size = 0;
+        comparator = keyComparator;
+        abbreviator = abbreviatorRef;
+        balancing = balancingStrategy;
+        filter = null;
+
+        if (keyComparator == null)
+        {
+            keyOrder = ORDER_NATURAL;
+        }
+        else
+        if (keyComparator == KeyComparators.LONG)
+        {
+            keyOrder = ORDER_LONG;
+        }
+        else
+        if (keyComparator == KeyComparators.INTEGER)
+        {
+            keyOrder = ORDER_INTEGER;
+        }
+        else
+        if (keyComparator == KeyComparators.STRING)
+        {
+            keyOrder = ORDER_STRING;
+        }
+        else
+        {
+            keyOrder = ORDER_COMPARATOR;
+        }
     }
 
     private static final class Node<K extends Comparable<K>, V>
@@ -60,18 +173,22 @@ public final class QTree<K extends Comparable<K>, V>
         K key;
         V value;
 
+        /* key abbreviation */
+        long prefix;
+
         /* references to parent and child nodes */
         Node<K, V> parent;
         Node<K, V> less;
         Node<K, V> greater;
 
-        /* balance number */
+        /* balance number, or color of red-black trees */
         int balance;
 
-        Node(K keyRef, V valRef)
+        Node(K keyRef, V valRef, long keyPrefix)
         {
-            key   = keyRef;
-            value = valRef;
+            key    = keyRef;
+            value  = valRef;
+            prefix = keyPrefix;
 
             balance  = 0;
 
@@ -81,6 +198,215 @@ public final class QTree<K extends Comparable<K>, V>
         }
     }
 
+    private static final class RebuildState<K extends Comparable<K>, V>
+    {
+        /* maximum number of pending ranges on the link stack */
+        private static final int LINK_STACK_SIZE = 2 * Integer.SIZE + 2;
+
+        /* copies of the tree's nodes, in order */
+        final Node<K, V>[] nodes;
+        int count;
+
+        /* next node of the old tree to copy and its depth */
+        Node<K, V> source;
+        int sourceDepth;
+
+        long depthSumBefore;
+        int  heightBefore;
+
+        /* pending ranges of the nodes array that still have to be linked */
+        final int[] rangeStart;
+        final int[] rangeEnd;
+        final int[] rangeParent;
+        final int[] rangeDepth;
+        int stackSize;
+        boolean linking;
+
+        long depthSumAfter;
+        Node<K, V> newRoot;
+
+        /* red-black trees are colored instead of setting balance numbers */
+        final boolean redBlack;
+
+        @SuppressWarnings("unchecked")
+        RebuildState(Node<K, V> root, int size, boolean redBlackTree)
+        {
+            redBlack = redBlackTree;
+            nodes = (Node<K, V>[]) new Node<?, ?>[size];
+            count = 0;
+
+            source = root;
+            sourceDepth = 0;
+            if (source != null)
+            {
+                sourceDepth = 1;
+                while (source.less != null)
+                {
+                    source = source.less;
+                    ++sourceDepth;
+                }
+            }
+
+            rangeStart  = new int[LINK_STACK_SIZE];
+            rangeEnd    = new int[LINK_STACK_SIZE];
+            rangeParent = new int[LINK_STACK_SIZE];
+            rangeDepth  = new int[LINK_STACK_SIZE];
+            stackSize   = 0;
+            linking     = false;
+            newRoot     = null;
+        }
+
+        /**
+         * Prepares linking existing nodes, which must be sorted in the
+         * specified array, into a perfectly balanced tree
+         */
+        RebuildState(Node<K, V>[] sortedNodes, int nodeCount, boolean redBlackTree)
+        {
+            redBlack = redBlackTree;
+            nodes  = sortedNodes;
+            count  = nodeCount;
+            source = null;
+
+            rangeStart  = new int[LINK_STACK_SIZE];
+            rangeEnd    = new int[LINK_STACK_SIZE];
+            rangeParent = new int[LINK_STACK_SIZE];
+            rangeDepth  = new int[LINK_STACK_SIZE];
+            stackSize   = 0;
+            linking     = false;
+            newRoot     = null;
+        }
+
+        /**
+         * Performs up to maxNodes steps of the rebuild and returns true if the
+         * rebuild is complete
+         */
+        boolean step(long maxNodes)
+        {
+            long work = 0;
+
+            // copy the old tree's nodes in order, so that the copies are
+            // allocated in the order of an in-order traversal
+            while (work < maxNodes && source != null)
+            {
+                nodes[count] = new Node<>(source.key, source.value, source.prefix);
+                ++count;
+                depthSumBefore += sourceDepth;
+                if (sourceDepth > heightBefore)
+                {
+                    heightBefore = sourceDepth;
+                }
+
+                if (source.greater != null)
+                {
+                    source = source.greater;
+                    ++sourceDepth;
+                    while (source.less != null)
+                    {
+                        source = source.less;
+                        ++sourceDepth;
+                    }
+                }
+                else
+                {
+                    while (source.parent != null && source.parent.greater == source)
+                    {
+                        source = source.parent;
+                        --sourceDepth;
+                    }
+                    source = source.parent;
+                    --sourceDepth;
+                }
+                ++work;
+            }
+
+            if (source == null && !linking)
+            {
+                linking = true;
+                pushRange(0, count, -1, 1);
+            }
+
+            // link the copies into a perfectly balanced tree
+            while (work < maxNodes && stackSize > 0)
+            {
+                --stackSize;
+                int start       = rangeStart[stackSize];
+                int end         = rangeEnd[stackSize];
+                int parentIndex = rangeParent[stackSize];
+                int depth       = rangeDepth[stackSize];
+
+                int midIndex = start + ((end - start) >>> 1);
+                Node<K, V> node = nodes[midIndex];
+                node.less    = null;
+                node.greater = null;
+                if (parentIndex < 0)
+                {
+                    node.parent = null;
+                    newRoot = node;
+                }
+                else
+                {
+                    Node<K, V> parentNode = nodes[parentIndex];
+                    node.parent = parentNode;
+                    if (midIndex < parentIndex)
+                    {
+                        parentNode.less = node;
+                    }
+                    else
+                    {
+                        parentNode.greater = node;
+                    }
+                }
+                if (redBlack)
+                {
+                    // All levels except for the deepest one are complete.
+                    // Coloring the nodes on an incomplete deepest level red
+                    // yields the same number of black nodes on all paths.
+                    int height = treeHeight(count);
+                    node.balance = depth == height && count != (1 << height) - 1 ? RED : BLACK;
+                }
+                else
+                {
+                    node.balance = treeHeight(end - midIndex - 1) - treeHeight(midIndex - start);
+                }
+                depthSumAfter += depth;
+
+                pushRange(midIndex + 1, end, midIndex, depth + 1);
+                pushRange(start, midIndex, midIndex, depth + 1);
+                ++work;
+            }
+
+            return linking && stackSize == 0;
+        }
+
+        private void pushRange(int start, int end, int parentIndex, int depth)
+        {
+            if (start < end)
+            {
+                rangeStart[stackSize]  = start;
+                rangeEnd[stackSize]    = end;
+                rangeParent[stackSize] = parentIndex;
+                rangeDepth[stackSize]  = depth;
+                ++stackSize;
+            }
+        }
+
+        RebuildStats getStats()
+        {
+            return new RebuildStats(
+                count,
+                heightBefore,
+                treeHeight(count),
+                count > 0 ? (double) depthSumBefore / count : 0.0,
+                count > 0 ? (double) depthSumAfter / count : 0.0
+            );
+        }
+
+        private static int treeHeight(int count)
+        {
+            return 32 - Integer.numberOfLeadingZeros(count);
+        }
+    }
+
     private static final class ItemEnumerationNode<T>
     {
         T value;
@@ -129,18 +455,14 @@ public final class QTree<K extends Comparable<K>, V>
         Node<K, V> next;
         Node<K, V> current;
 
+        /* first node that is not iterated, null to iterate to the last node */
+        Node<K, V> end;
+
         BaseIterator(QTree<K, V> containerRef)
         {
             container = containerRef;
             current = null;
-            next = container.root;
-            if (next != null)
-            {
-                while (next.less != null)
-                {
-                    next = next.less;
-                }
-            }
+            next = container.firstNode;
         }
 
         BaseIterator(QTree<K, V> containerRef, Node<K, V> startNode)
@@ -149,6 +471,13 @@ public final class QTree<K extends Comparable<K>, V>
             next = startNode;
         }
 
+        BaseIterator(QTree<K, V> containerRef, Node<K, V> startNode, Node<K, V> endNode)
+        {
+            container = containerRef;
+            next = startNode;
+            end = endNode;
+        }
+
         public final long getSize()
         {
             return container.size;
@@ -156,12 +485,12 @@ public final class QTree<K extends Comparable<K>, V>
 
         public final boolean hasNext()
         {
-            return next != null;
+            return next != end;
         }
 
         final Node<K, V> nextNode()
         {
-            current = next;
+            current = next != end ? next : null;
 
             if (current != null)
             {
@@ -210,14 +539,7 @@ public final class QTree<K extends Comparable<K>, V>
         {
             container = containerRef;
             current = null;
-            next = container.root;
-            if (next != null)
-            {
-                while (next.greater != null)
-                {
-                    next = next.greater;
-                }
-            }
+            next = container.lastNode;
         }
 
         BaseReverseIterator(QTree<K, V> containerRef, Node<K, V> startNode)
@@ -394,6 +716,11 @@ public final class QTree<K extends Comparable<K>, V>
             super(containerRef, startNode);
         }
 
+        EntriesIterator(QTree<K, V> containerRef, Node<K, V> startNode, Node<K, V> endNode)
+        {
+            super(containerRef, startNode, endNode);
+        }
+
         @Override
         public final MapEntry<K, V> next()
         {
@@ -435,26 +762,39 @@ public final class QTree<K extends Comparable<K>, V>
 
     public void insert(K key, V val)
     {
-        Node<K, V> insNode = new Node<K, V>(key, val);
+        Node<K, V> insNode = new Node<K, V>(key, val, abbreviate(key));
+        rebuildState = null;
 
         if (root == null)
         {
-            root = insNode;
+            root      = insNode;
+            firstNode = insNode;
+            lastNode  = insNode;
             ++size;
+            addToFilter(key);
         }
         else
         {
             Node<K, V> parentNode = root;
             while (true)
             {
-               int cmpRc = insNode.key.compareTo(parentNode.key);
+               int cmpRc = Long.compareUnsigned(insNode.prefix, parentNode.prefix);
+               if (cmpRc == 0)
+               {
+                   cmpRc = compareKeys(insNode.key, parentNode.key);
+               }
                if (cmpRc < 0)
                {
                    if (parentNode.less == null)
                    {
                        parentNode.less = insNode;
                        insNode.parent  = parentNode;
+                       if (parentNode == firstNode)
+                       {
+                           firstNode = insNode;
+                       }
                        ++size;
+                       addToFilter(key);
                        break;
                    }
                    else
@@ -469,7 +809,12 @@ public final class QTree<K extends Comparable<K>, V>
                    {
                        parentNode.greater = insNode;
                        insNode.parent     = parentNode;
+                       if (parentNode == lastNode)
+                       {
+                           lastNode = insNode;
+                       }
                        ++size;
+                       addToFilter(key);
                        break;
                    }
                    else
@@ -486,232 +831,331 @@ public final class QTree<K extends Comparable<K>, V>
                }
             }
 
-            /* update balance and perform rotations */
-            while (parentNode != null)
+            if (balancing == Balancing.AVL)
             {
-                if (parentNode.less == insNode)
-                {
-                    --parentNode.balance;
-                }
-                else
-                {
-                    ++parentNode.balance;
-                }
+                avlInsertFixup(insNode, parentNode);
+            }
+            else
+            if (parentNode != null)
+            {
+                rbInsertFixup(insNode);
+            }
+        }
+    }
 
-                if (parentNode.balance == 0)
-                {
-                    break;
-                }
-                else
-                if (parentNode.balance == -2)
+    /**
+     * Updates the AVL balance numbers on the path from a newly inserted node
+     * to the root and performs rotations where necessary
+     */
+    private void avlInsertFixup(Node<K, V> insNode, Node<K, V> parentNode)
+    {
+        while (parentNode != null)
+        {
+            if (parentNode.less == insNode)
+            {
+                --parentNode.balance;
+            }
+            else
+            {
+                ++parentNode.balance;
+            }
+
+            if (parentNode.balance == 0)
+            {
+                break;
+            }
+            else
+            if (parentNode.balance == -2)
+            {
+                if (insNode.balance == -1)
                 {
-                    if (insNode.balance == -1)
-                    {
-                        /* rotate R */
-                        parentNode.balance = 0;
-                        insNode.balance    = 0;
+                    /* rotate R */
+                    ++rotationCount;
+                    parentNode.balance = 0;
+                    insNode.balance    = 0;
 
-                        insNode.parent = parentNode.parent;
-                        if (parentNode.parent != null)
+                    insNode.parent = parentNode.parent;
+                    if (parentNode.parent != null)
+                    {
+                        if (parentNode.parent.less == parentNode)
                         {
-                            if (parentNode.parent.less == parentNode)
-                            {
-                                parentNode.parent.less = insNode;
-                            }
-                            else
-                            {
-                                parentNode.parent.greater = insNode;
-                            }
+                            parentNode.parent.less = insNode;
                         }
                         else
                         {
-                            root = insNode;
+                            parentNode.parent.greater = insNode;
                         }
+                    }
+                    else
+                    {
+                        root = insNode;
+                    }
 
-                        parentNode.less = insNode.greater;
-                        if (insNode.greater != null)
-                        {
-                            insNode.greater.parent = parentNode;
-                        }
+                    parentNode.less = insNode.greater;
+                    if (insNode.greater != null)
+                    {
+                        insNode.greater.parent = parentNode;
+                    }
 
-                        insNode.greater   = parentNode;
-                        parentNode.parent = insNode;
+                    insNode.greater   = parentNode;
+                    parentNode.parent = insNode;
+                }
+                else
+                {
+                    /* rotate LR */
+                    rotationCount += 2;
+                    if (insNode.greater.balance == -1)
+                    {
+                        insNode.balance    = 0;
+                        parentNode.balance = 1;
                     }
                     else
+                    if (insNode.greater.balance == 1)
                     {
-                        /* rotate LR */
-                        if (insNode.greater.balance == -1)
-                        {
-                            insNode.balance    = 0;
-                            parentNode.balance = 1;
-                        }
-                        else
-                        if (insNode.greater.balance == 1)
+                        insNode.balance    = -1;
+                        parentNode.balance =  0;
+                    }
+                    else
+                    {
+                        insNode.balance    = 0;
+                        parentNode.balance = 0;
+                    }
+                    insNode.greater.balance = 0;
+
+                    insNode.parent        = insNode.greater;
+                    insNode.greater       = insNode.greater.less;
+                    insNode.parent.less   = insNode;
+                    parentNode.less       = insNode.parent.greater;
+                    insNode.parent.parent = parentNode.parent;
+                    if (insNode.greater != null)
+                    {
+                        insNode.greater.parent = insNode;
+                    }
+                    if (parentNode.less != null)
+                    {
+                        parentNode.less.parent = parentNode;
+                    }
+
+                    if (parentNode.parent != null)
+                    {
+                        if (parentNode.parent.less == parentNode)
                         {
-                            insNode.balance    = -1;
-                            parentNode.balance =  0;
+                            parentNode.parent.less = insNode.parent;
                         }
                         else
                         {
-                            insNode.balance    = 0;
-                            parentNode.balance = 0;
-                        }
-                        insNode.greater.balance = 0;
-
-                        insNode.parent        = insNode.greater;
-                        insNode.greater       = insNode.greater.less;
-                        insNode.parent.less   = insNode;
-                        parentNode.less       = insNode.parent.greater;
-                        insNode.parent.parent = parentNode.parent;
-                        if (insNode.greater != null)
-                        {
-                            insNode.greater.parent = insNode;
-                        }
-                        if (parentNode.less != null)
-                        {
-                            parentNode.less.parent = parentNode;
+                            parentNode.parent.greater = insNode.parent;
                         }
+                    }
+                    else
+                    {
+                        root = insNode.parent;
+                    }
+
+                    parentNode.parent      = insNode.parent;
+                    insNode.parent.greater = parentNode;
+                }
+                break;
+            }
+            else
+            if (parentNode.balance == 2)
+            {
+                if (insNode.balance == 1)
+                {
+                    /* rotate L */
+                    ++rotationCount;
+                    parentNode.balance = 0;
+                    insNode.balance    = 0;
 
-                        if (parentNode.parent != null)
+                    insNode.parent = parentNode.parent;
+                    if (parentNode.parent != null)
+                    {
+                        if (parentNode.parent.less == parentNode)
                         {
-                            if (parentNode.parent.less == parentNode)
-                            {
-                                parentNode.parent.less = insNode.parent;
-                            }
-                            else
-                            {
-                                parentNode.parent.greater = insNode.parent;
-                            }
+                            parentNode.parent.less = insNode;
                         }
                         else
                         {
-                            root = insNode.parent;
+                            parentNode.parent.greater = insNode;
                         }
+                    }
+                    else
+                    {
+                        root = insNode;
+                    }
 
-                        parentNode.parent      = insNode.parent;
-                        insNode.parent.greater = parentNode;
+                    parentNode.greater = insNode.less;
+                    if (insNode.less != null)
+                    {
+                        insNode.less.parent = parentNode;
                     }
-                    break;
+
+                    insNode.less      = parentNode;
+                    parentNode.parent = insNode;
                 }
                 else
-                if (parentNode.balance == 2)
                 {
-                    if (insNode.balance == 1)
+                    /* rotate RL */
+                    rotationCount += 2;
+                    if (insNode.less.balance == -1)
                     {
-                        /* rotate L */
+                        insNode.balance    = 1;
                         parentNode.balance = 0;
+                    }
+                    else
+                    if (insNode.less.balance == 1)
+                    {
+                        insNode.balance    =  0;
+                        parentNode.balance = -1;
+                    }
+                    else
+                    {
                         insNode.balance    = 0;
+                        parentNode.balance = 0;
+                    }
+                    insNode.less.balance = 0;
+
+                    insNode.parent         = insNode.less;
+                    insNode.less           = insNode.less.greater;
+                    insNode.parent.greater = insNode;
+                    parentNode.greater     = insNode.parent.less;
+                    insNode.parent.parent  = parentNode.parent;
+                    if (insNode.less != null)
+                    {
+                        insNode.less.parent = insNode;
+                    }
+                    if (parentNode.greater != null)
+                    {
+                        parentNode.greater.parent = parentNode;
+                    }
 
-                        insNode.parent = parentNode.parent;
-                        if (parentNode.parent != null)
+                    if (parentNode.parent != null)
+                    {
+                        if (parentNode.parent.less == parentNode)
                         {
-                            if (parentNode.parent.less == parentNode)
-                            {
-                                parentNode.parent.less = insNode;
-                            }
-                            else
-                            {
-                                parentNode.parent.greater = insNode;
-                            }
+                            parentNode.parent.less = insNode.parent;
                         }
                         else
                         {
-                            root = insNode;
+                            parentNode.parent.greater = insNode.parent;
                         }
-
-                        parentNode.greater = insNode.less;
-                        if (insNode.less != null)
-                        {
-                            insNode.less.parent = parentNode;
-                        }
-
-                        insNode.less      = parentNode;
-                        parentNode.parent = insNode;
                     }
                     else
                     {
-                        /* rotate RL */
-                        if (insNode.less.balance == -1)
-                        {
-                            insNode.balance    = 1;
-                            parentNode.balance = 0;
-                        }
-                        else
-                        if (insNode.less.balance == 1)
-                        {
-                            insNode.balance    =  0;
-                            parentNode.balance = -1;
-                        }
-                        else
-                        {
-                            insNode.balance    = 0;
-                            parentNode.balance = 0;
-                        }
-                        insNode.less.balance = 0;
-
-                        insNode.parent         = insNode.less;
-                        insNode.less           = insNode.less.greater;
-                        insNode.parent.greater = insNode;
-                        parentNode.greater     = insNode.parent.less;
-                        insNode.parent.parent  = parentNode.parent;
-                        if (insNode.less != null)
-                        {
-                            insNode.less.parent = insNode;
-                        }
-                        if (parentNode.greater != null)
-                        {
-                            parentNode.greater.parent = parentNode;
-                        }
-
-                        if (parentNode.parent != null)
-                        {
-                            if (parentNode.parent.less == parentNode)
-                            {
-                                parentNode.parent.less = insNode.parent;
-                            }
-                            else
-                            {
-                                parentNode.parent.greater = insNode.parent;
-                            }
-                        }
-                        else
-                        {
-                            root = insNode.parent;
-                        }
-
-                        parentNode.parent   = insNode.parent;
-                        insNode.parent.less = parentNode;
+                        root = insNode.parent;
                     }
-                    break;
-                }
 
-                insNode    = parentNode;
-                parentNode = parentNode.parent;
+                    parentNode.parent   = insNode.parent;
+                    insNode.parent.less = parentNode;
+                }
+                break;
             }
+
+            insNode    = parentNode;
+            parentNode = parentNode.parent;
         }
     }
 
-    public V get(K key)
+    /**
+     * Restores the red-black properties after a red node has been inserted,
+     * performing at most two rotations
+     */
+    private void rbInsertFixup(Node<K, V> insNode)
     {
-        V value = null;
+        Node<K, V> node = insNode;
+        node.balance = RED;
 
-        Node<K, V> node = root;
-        while (node != null)
+        Node<K, V> parentNode = node.parent;
+        while (parentNode != null && parentNode.balance == RED)
         {
-            int cmpRc = key.compareTo(node.key);
-            if (cmpRc < 0)
+            // a red node is never the root node, so the grandparent exists
+            Node<K, V> grandNode = parentNode.parent;
+            if (grandNode.less == parentNode)
             {
-                node = node.less;
+                Node<K, V> uncleNode = grandNode.greater;
+                if (uncleNode != null && uncleNode.balance == RED)
+                {
+                    parentNode.balance = BLACK;
+                    uncleNode.balance  = BLACK;
+                    grandNode.balance  = RED;
+                    node       = grandNode;
+                    parentNode = node.parent;
+                }
+                else
+                {
+                    if (parentNode.greater == node)
+                    {
+                        rotateLess(parentNode);
+                        node       = parentNode;
+                        parentNode = node.parent;
+                    }
+                    parentNode.balance = BLACK;
+                    grandNode.balance  = RED;
+                    rotateGreater(grandNode);
+                }
             }
             else
-            if (cmpRc > 0)
             {
-                node = node.greater;
+                Node<K, V> uncleNode = grandNode.less;
+                if (uncleNode != null && uncleNode.balance == RED)
+                {
+                    parentNode.balance = BLACK;
+                    uncleNode.balance  = BLACK;
+                    grandNode.balance  = RED;
+                    node       = grandNode;
+                    parentNode = node.parent;
+                }
+                else
+                {
+                    if (parentNode.less == node)
+                    {
+                        rotateGreater(parentNode);
+                        node       = parentNode;
+                        parentNode = node.parent;
+                    }
+                    parentNode.balance = BLACK;
+                    grandNode.balance  = RED;
+                    rotateLess(grandNode);
+                }
             }
-            else
+        }
+        root.balance = BLACK;
+    }
+
+    public V get(K key)
+    {
+        V value = null;
+        if (filter == null || filter.mightContain(key))
+        {
+            long keyPrefix = abbreviate(key);
+
+            Node<K, V> node = root;
+            while (node != null)
             {
-                value = node.value;
-                break;
+                int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+                if (cmpRc == 0)
+                {
+                    cmpRc = compareKeys(key, node.key);
+                }
+                if (cmpRc < 0)
+                {
+                    node = node.less;
+                }
+                else
+                if (cmpRc > 0)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    value = node.value;
+                    break;
+                }
+            }
+
+            if (node == null && filter != null)
+            {
+                filter.falsePositive();
             }
         }
 
@@ -765,7 +1209,7 @@ public final class QTree<K extends Comparable<K>, V>
     public K getCeilingKey(K key)
     {
         K ceilingKey = null;
-        Node<K, V> node = findCeilingNode(key);
+        Node<K, V> node = findCeilingNode(key, root);
         if (node != null)
         {
             ceilingKey = node.key;
@@ -776,7 +1220,7 @@ public final class QTree<K extends Comparable<K>, V>
     public K getFloorKey(K key)
     {
         K floorKey = null;
-        Node<K, V> node = findFloorNode(key);
+        Node<K, V> node = findFloorNode(key, root);
         if (node != null)
         {
             floorKey = node.key;
@@ -809,7 +1253,7 @@ public final class QTree<K extends Comparable<K>, V>
     public V getCeilingValue(K key)
     {
         V ceilingValue = null;
-        Node<K, V> node = findCeilingNode(key);
+        Node<K, V> node = findCeilingNode(key, root);
         if (node != null)
         {
             ceilingValue = node.value;
@@ -820,7 +1264,7 @@ public final class QTree<K extends Comparable<K>, V>
     public V getFloorValue(K key)
     {
         V floorValue = null;
-        Node<K, V> node = findFloorNode(key);
+        Node<K, V> node = findFloorNode(key, root);
         if (node != null)
         {
             floorValue = node.value;
@@ -850,12 +1294,17 @@ public final class QTree<K extends Comparable<K>, V>
         return lessValue;
     }
 
-    private Node<K, V> findCeilingNode(K key)
+    private Node<K, V> findCeilingNode(K key, Node<K, V> startNode)
     {
-        Node<K, V> node = root;
+        long keyPrefix = abbreviate(key);
+        Node<K, V> node = startNode;
         while (node != null)
         {
-            int cmpRc = key.compareTo(node.key);
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, node.key);
+            }
             if (cmpRc < 0)
             {
                 if (node.less != null)
@@ -892,12 +1341,17 @@ public final class QTree<K extends Comparable<K>, V>
         return node;
     }
 
-    private Node<K, V> findFloorNode(K key)
+    private Node<K, V> findFloorNode(K key, Node<K, V> startNode)
     {
-        Node<K, V> node = root;
+        long keyPrefix = abbreviate(key);
+        Node<K, V> node = startNode;
         while (node != null)
         {
-            int cmpRc = key.compareTo(node.key);
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, node.key);
+            }
             if (cmpRc < 0)
             {
                 if (node.less != null)
@@ -936,10 +1390,15 @@ public final class QTree<K extends Comparable<K>, V>
 
     private Node<K, V> findGreaterNode(K key)
     {
+        long keyPrefix = abbreviate(key);
         Node<K, V> node = root;
         while (node != null)
         {
-            int cmpRc = key.compareTo(node.key);
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, node.key);
+            }
             if (cmpRc < 0)
             {
                 if (node.less != null)
@@ -973,10 +1432,15 @@ public final class QTree<K extends Comparable<K>, V>
 
     private Node<K, V> findLessNode(K key)
     {
+        long keyPrefix = abbreviate(key);
         Node<K, V> node = root;
         while (node != null)
         {
-            int cmpRc = key.compareTo(node.key);
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, node.key);
+            }
             if (cmpRc > 0)
             {
                 if (node.greater != null)
@@ -1008,12 +1472,17 @@ public final class QTree<K extends Comparable<K>, V>
         return node;
     }
 
-    private Node<K, V> findNode(K key)
+    private Node<K, V> findNode(K key, Node<K, V> startNode)
     {
-        Node<K, V> node = null;
+        long keyPrefix = abbreviate(key);
+        Node<K, V> node = startNode;
         while (node != null)
         {
-            int cmpRc = key.compareTo(node.key);
+            int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, node.key);
+            }
             if (cmpRc < 0)
             {
                 node = node.less;
@@ -1033,60 +1502,63 @@ public final class QTree<K extends Comparable<K>, V>
 
     private Node<K, V> findFirstNode()
     {
-        Node<K, V> node = root;
-        if (node != null)
-        {
-            while (node.less != null)
-            {
-                node = node.less;
-            }
-        }
-        return node;
+        return firstNode;
     }
 
     private Node<K, V> findLastNode()
     {
-        Node<K, V> node = root;
-        if (node != null)
-        {
-            while (node.greater != null)
-            {
-                node = node.greater;
-            }
-        }
-        return node;
+        return lastNode;
     }
 
     public boolean contains(K key)
     {
-        Node<K, V> node = root;
-        while (node != null)
+        boolean result = false;
+        if (filter == null || filter.mightContain(key))
         {
-            int cmpRc = key.compareTo(node.key);
-            if (cmpRc < 0)
-            {
-                node = node.less;
-            }
-            else
-            if (cmpRc > 0)
+            long keyPrefix = abbreviate(key);
+            Node<K, V> node = root;
+            while (node != null)
             {
-                node = node.greater;
+                int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+                if (cmpRc == 0)
+                {
+                    cmpRc = compareKeys(key, node.key);
+                }
+                if (cmpRc < 0)
+                {
+                    node = node.less;
+                }
+                else
+                if (cmpRc > 0)
+                {
+                    node = node.greater;
+                }
+                else
+                {
+                    break;
+                }
             }
-            else
+            result = node != null;
+
+            if (!result && filter != null)
             {
-                break;
+                filter.falsePositive();
             }
         }
-        return node != null;
+        return result;
     }
 
     public void remove(K key)
     {
-        Node<K, V> rotNode = null;
+        long keyPrefix = abbreviate(key);
         Node<K, V> rmNode = root;
         while (rmNode != null)
         {
-            int cmpRc = key.compareTo(rmNode.key);
+            int cmpRc = Long.compareUnsigned(keyPrefix, rmNode.prefix);
+            if (cmpRc == 0)
+            {
+                cmpRc = compareKeys(key, rmNode.key);
+            }
             if (cmpRc < 0)
             {
                 rmNode = rmNode.less;
@@ -1102,394 +1574,1268 @@ public final class QTree<K extends Comparable<K>, V>
             }
         }
 
-        Direction dir = Direction.NONE;
         if (rmNode != null)
         {
-            --size;
+            removeNode(rmNode);
+        }
+    }
 
-            if (rmNode.less == null && rmNode.greater == null)
-            {
-                if (root == rmNode)
-                {
-                    // root node leaf
-                    root = null;
-                }
-                else
-                {
-                    // non-root node leaf
-                    rotNode = rmNode.parent;
+    private void removeNode(Node<K, V> rmNode)
+    {
+        if (rmNode == firstNode)
+        {
+            firstNode = successor(rmNode);
+        }
+        if (rmNode == lastNode)
+        {
+            lastNode = predecessor(rmNode);
+        }
 
-                    if (rotNode.less == rmNode)
-                    {
-                        // node to remove is in the left subtree
-                        // of its parent
+        --size;
+        ++detachVersion;
+        rebuildState = null;
+        if (filter != null)
+        {
+            filter.remove(rmNode.key);
+        }
 
-                        // save direction
-                        dir = Direction.LESS;
-                        rotNode.less = null;
-                    }
-                    else
-                    {
-                        dir = Direction.GREATER;
-                        rotNode.greater = null;
-                    }
-                }
+        if (balancing == Balancing.AVL)
+        {
+            avlRemoveNode(rmNode);
+        }
+        else
+        {
+            rbRemoveNode(rmNode);
+        }
+    }
+
+    private void avlRemoveNode(Node<K, V> rmNode)
+    {
+        Node<K, V> rotNode = null;
+        Direction dir = Direction.NONE;
+
+        if (rmNode.less == null && rmNode.greater == null)
+        {
+            if (root == rmNode)
+            {
+                // root node leaf
+                root = null;
             }
             else
             {
-                Node<K, V> replaceNode = null;
-                // not a leaf node, removal by replacement
-                // at least one child, or a child and a subtree, or two subtrees
-                // find replacement node
-                if (rmNode.balance == -1)
-                {
-                    replaceNode = rmNode.less;
-                    while (replaceNode.greater != null)
-                    {
-                        replaceNode = replaceNode.greater;
-                    }
-                }
-                else
-                {
-                    replaceNode = rmNode.greater;
-                    while (replaceNode.less != null)
-                    {
-                        replaceNode = replaceNode.less;
-                    }
-                }
-                rotNode = replaceNode.parent;
+                // non-root node leaf
+                rotNode = rmNode.parent;
 
-                if (rotNode.less == replaceNode)
+                if (rotNode.less == rmNode)
                 {
                     // node to remove is in the left subtree
                     // of its parent
 
                     // save direction
                     dir = Direction.LESS;
-
-                    if (replaceNode.less != null)
-                    {
-                        // replace node by its left child
-                        rotNode.less = replaceNode.less;
-                        replaceNode.less.parent = rotNode;
-                    }
-                    else
-                    if (replaceNode.greater != null)
-                    {
-                        // replace node by its right child
-                        rotNode.less = replaceNode.greater;
-                        replaceNode.greater.parent = rotNode;
-                    }
-                    else
-                    {
-                        // non-root leaf node
-                        rotNode.less = null;
-                    }
+                    rotNode.less = null;
                 }
                 else
                 {
-                    // node to remove is in the right subtree
-                    // of its parent
-
-                    // save direction
                     dir = Direction.GREATER;
-
-                    if (replaceNode.less != null)
-                    {
-                        // replace node by its left child
-                        rotNode.greater = replaceNode.less;
-                        replaceNode.less.parent = rotNode;
-                    }
-                    else
-                    if (replaceNode.greater != null)
-                    {
-                        // replace node by its right child
-                        rotNode.greater = replaceNode.greater;
-                        replaceNode.greater.parent = rotNode;
-                    }
-                    else
-                    {
-                        // non-root leaf node
-                        rotNode.greater = null;
-                    }
+                    rotNode.greater = null;
+                }
+            }
+        }
+        else
+        {
+            Node<K, V> replaceNode = null;
+            // not a leaf node, removal by replacement
+            // at least one child, or a child and a subtree, or two subtrees
+            // find replacement node
+            if (rmNode.balance == -1)
+            {
+                replaceNode = rmNode.less;
+                while (replaceNode.greater != null)
+                {
+                    replaceNode = replaceNode.greater;
+                }
+            }
+            else
+            {
+                replaceNode = rmNode.greater;
+                while (replaceNode.less != null)
+                {
+                    replaceNode = replaceNode.less;
                 }
+            }
+            rotNode = replaceNode.parent;
 
-                // replace rmNode with replaceNode
-                if (rmNode.parent == null)
+            if (rotNode.less == replaceNode)
+            {
+                // node to remove is in the left subtree
+                // of its parent
+
+                // save direction
+                dir = Direction.LESS;
+
+                if (replaceNode.less != null)
                 {
-                    // Node to be removed is the root node
-                    root = replaceNode;
+                    // replace node by its left child
+                    rotNode.less = replaceNode.less;
+                    replaceNode.less.parent = rotNode;
                 }
                 else
+                if (replaceNode.greater != null)
                 {
-                    if (rmNode.parent.less == rmNode)
-                    {
-                        rmNode.parent.less = replaceNode;
-                    }
-                    else
-                    {
-                        rmNode.parent.greater = replaceNode;
-                    }
+                    // replace node by its right child
+                    rotNode.less = replaceNode.greater;
+                    replaceNode.greater.parent = rotNode;
                 }
-                if (rmNode.less != null)
+                else
                 {
-                    rmNode.less.parent = replaceNode;
+                    // non-root leaf node
+                    rotNode.less = null;
                 }
-                if (rmNode.greater != null)
+            }
+            else
+            {
+                // node to remove is in the right subtree
+                // of its parent
+
+                // save direction
+                dir = Direction.GREATER;
+
+                if (replaceNode.less != null)
                 {
-                    rmNode.greater.parent = replaceNode;
+                    // replace node by its left child
+                    rotNode.greater = replaceNode.less;
+                    replaceNode.less.parent = rotNode;
                 }
-                replaceNode.parent  = rmNode.parent;
-                replaceNode.less    = rmNode.less;
-                replaceNode.greater = rmNode.greater;
-                replaceNode.balance = rmNode.balance;
-
-                if (rotNode == rmNode)
+                else
+                if (replaceNode.greater != null)
+                {
+                    // replace node by its right child
+                    rotNode.greater = replaceNode.greater;
+                    replaceNode.greater.parent = rotNode;
+                }
+                else
                 {
-                    rotNode = replaceNode;
+                    // non-root leaf node
+                    rotNode.greater = null;
                 }
             }
 
-            // update balance and perform rotations
-            while (rotNode != null)
+            // replace rmNode with replaceNode
+            if (rmNode.parent == null)
+            {
+                // Node to be removed is the root node
+                root = replaceNode;
+            }
+            else
             {
-                if (dir == Direction.LESS)
+                if (rmNode.parent.less == rmNode)
                 {
-                    // node was removed from left subtree
-                    ++rotNode.balance;
-                    if (rotNode.balance == 1)
-                    {
-                        break;
-                    }
+                    rmNode.parent.less = replaceNode;
                 }
                 else
                 {
-                    /* node was removed from right subtree */
-                    --rotNode.balance;
-                    if (rotNode.balance == -1)
-                    {
-                        break;
-                    }
+                    rmNode.parent.greater = replaceNode;
                 }
+            }
+            if (rmNode.less != null)
+            {
+                rmNode.less.parent = replaceNode;
+            }
+            if (rmNode.greater != null)
+            {
+                rmNode.greater.parent = replaceNode;
+            }
+            replaceNode.parent  = rmNode.parent;
+            replaceNode.less    = rmNode.less;
+            replaceNode.greater = rmNode.greater;
+            replaceNode.balance = rmNode.balance;
 
-                if (rotNode.parent != null)
-                {
-                    if (rotNode.parent.less == rotNode)
-                    {
-                        dir = Direction.LESS;
-                    }
-                    else
-                    {
-                        dir = Direction.GREATER;
-                    }
-                }
+            if (rotNode == rmNode)
+            {
+                rotNode = replaceNode;
+            }
+        }
 
-                // update balance and perform rotations
-                if (rotNode.balance == -2)
+        // update balance and perform rotations
+        while (rotNode != null)
+        {
+            if (dir == Direction.LESS)
+            {
+                // node was removed from left subtree
+                ++rotNode.balance;
+                if (rotNode.balance == 1)
                 {
-                    Node<K, V> subNode = rotNode.less;
-                    // 0 or -1
-                    if (subNode.balance <= 0)
-                    {
-                        // rotate R
-                        subNode.parent = rotNode.parent;
-                        if (rotNode.parent != null)
+                    break;
+                }
+            }
+            else
+            {
+                /* node was removed from right subtree */
+                --rotNode.balance;
+                if (rotNode.balance == -1)
+                {
+                    break;
+                }
+            }
+
+            if (rotNode.parent != null)
+            {
+                if (rotNode.parent.less == rotNode)
+                {
+                    dir = Direction.LESS;
+                }
+                else
+                {
+                    dir = Direction.GREATER;
+                }
+            }
+
+            // update balance and perform rotations
+            if (rotNode.balance == -2)
+            {
+                Node<K, V> subNode = rotNode.less;
+                // 0 or -1
+                if (subNode.balance <= 0)
+                {
+                    // rotate R
+                    ++rotationCount;
+                    subNode.parent = rotNode.parent;
+                    if (rotNode.parent != null)
+                    {
+                        if (rotNode.parent.less == rotNode)
                         {
-                            if (rotNode.parent.less == rotNode)
-                            {
-                                rotNode.parent.less = subNode;
-                            }
-                            else
-                            {
-                                rotNode.parent.greater = subNode;
-                            }
+                            rotNode.parent.less = subNode;
+                        }
+                        else
+                        {
+                            rotNode.parent.greater = subNode;
+                        }
+                    }
+                    else
+                    {
+                        root = subNode;
+                    }
+
+                    rotNode.less = subNode.greater;
+                    if (subNode.greater != null)
+                    {
+                        subNode.greater.parent = rotNode;
+                    }
+
+                    subNode.greater = rotNode;
+                    rotNode.parent  = subNode;
+
+                    if (subNode.balance == 0)
+                    {
+                        rotNode.balance = -1;
+                        subNode.balance = 1;
+                        break;
+                    }
+                    else
+                    {
+                        rotNode.balance = 0;
+                        subNode.balance = 0;
+                    }
+                }
+                else
+                {
+                    // rotate LR
+                    rotationCount += 2;
+                    if (subNode.greater.balance == -1)
+                    {
+                        subNode.balance = 0;
+                        rotNode.balance = 1;
+                    }
+                    else
+                    if (subNode.greater.balance == 1)
+                    {
+                        subNode.balance = -1;
+                        rotNode.balance = 0;
+                    }
+                    else
+                    {
+                        subNode.balance = 0;
+                        rotNode.balance = 0;
+                    }
+                    subNode.greater.balance = 0;
+
+                    subNode.parent        = subNode.greater;
+                    subNode.greater       = subNode.greater.less;
+                    subNode.parent.less   = subNode;
+                    rotNode.less          = subNode.parent.greater;
+                    subNode.parent.parent = rotNode.parent;
+                    if (subNode.greater != null)
+                    {
+                        subNode.greater.parent = subNode;
+                    }
+                    if (rotNode.less != null)
+                    {
+                        rotNode.less.parent = rotNode;
+                    }
+
+                    if (rotNode.parent != null)
+                    {
+                        if (rotNode.parent.less == rotNode)
+                        {
+                            rotNode.parent.less = subNode.parent;
                         }
                         else
                         {
-                            root = subNode;
+                            rotNode.parent.greater = subNode.parent;
                         }
+                    }
+                    else
+                    {
+                        root = subNode.parent;
+                    }
+
+                    rotNode.parent         = subNode.parent;
+                    subNode.parent.greater = rotNode;
+                }
+                rotNode = rotNode.parent;
+                // end of R / LR rotations
+            }
+            else
+            if (rotNode.balance == 2)
+            {
+                Node<K, V> subNode = rotNode.greater;
+                // 0 or 1
+                if (subNode.balance >= 0)
+                {
+                    // rotate L
+                    ++rotationCount;
+                    subNode.parent = rotNode.parent;
+                    if (rotNode.parent != null)
+                    {
+                        if (rotNode.parent.less == rotNode)
+                        {
+                            rotNode.parent.less = subNode;
+                        }
+                        else
+                        {
+                            rotNode.parent.greater = subNode;
+                        }
+                    }
+                    else
+                    {
+                        root = subNode;
+                    }
+
+                    rotNode.greater = subNode.less;
+                    if (subNode.less != null)
+                    {
+                        subNode.less.parent = rotNode;
+                    }
+
+                    subNode.less   = rotNode;
+                    rotNode.parent = subNode;
+                    if (subNode.balance == 0)
+                    {
+                        rotNode.balance = 1;
+                        subNode.balance = -1;
+                        break;
+                    }
+                    else
+                    {
+                        rotNode.balance = 0;
+                        subNode.balance = 0;
+                    }
+                }
+                else
+                {
+                    // rotate RL
+                    rotationCount += 2;
+                    if (subNode.less.balance == -1)
+                    {
+                        subNode.balance = 1;
+                        rotNode.balance = 0;
+                    }
+                    else
+                    if (subNode.less.balance == 1)
+                    {
+                        subNode.balance = 0;
+                        rotNode.balance = -1;
+                    }
+                    else
+                    {
+                        subNode.balance = 0;
+                        rotNode.balance = 0;
+                    }
+                    subNode.less.balance = 0;
+
+                    subNode.parent         = subNode.less;
+                    subNode.less           = subNode.less.greater;
+                    subNode.parent.greater = subNode;
+                    rotNode.greater        = subNode.parent.less;
+                    subNode.parent.parent  = rotNode.parent;
+                    if (subNode.less != null)
+                    {
+                        subNode.less.parent = subNode;
+                    }
+                    if (rotNode.greater != null)
+                    {
+                        rotNode.greater.parent = rotNode;
+                    }
+
+                    if (rotNode.parent != null)
+                    {
+                        if (rotNode.parent.less == rotNode)
+                        {
+                            rotNode.parent.less = subNode.parent;
+                        }
+                        else
+                        {
+                            rotNode.parent.greater = subNode.parent;
+                        }
+                    }
+                    else
+                    {
+                        root = subNode.parent;
+                    }
+
+                    rotNode.parent      = subNode.parent;
+                    subNode.parent.less = rotNode;
+                }
+                rotNode = rotNode.parent;
+                // end of L / RL rotations
+            }
+            rotNode = rotNode.parent;
+        }
+    }
+
+    /**
+     * Unlinks a node and restores the red-black properties, performing at most
+     * three rotations
+     *
+     * A node with two children is replaced by its successor node rather than
+     * by a copy of the successor's key and value, so that references to nodes,
+     * like the cached first and last nodes, remain valid.
+     */
+    private void rbRemoveNode(Node<K, V> rmNode)
+    {
+        Node<K, V> childNode = null;
+        Node<K, V> childParent = null;
+        int removedColor = rmNode.balance;
+
+        if (rmNode.less == null)
+        {
+            childNode   = rmNode.greater;
+            childParent = rmNode.parent;
+            replaceSubtree(rmNode, rmNode.greater);
+        }
+        else
+        if (rmNode.greater == null)
+        {
+            childNode   = rmNode.less;
+            childParent = rmNode.parent;
+            replaceSubtree(rmNode, rmNode.less);
+        }
+        else
+        {
+            Node<K, V> replaceNode = rmNode.greater;
+            while (replaceNode.less != null)
+            {
+                replaceNode = replaceNode.less;
+            }
+            removedColor = replaceNode.balance;
+            childNode    = replaceNode.greater;
+            if (replaceNode.parent == rmNode)
+            {
+                childParent = replaceNode;
+            }
+            else
+            {
+                childParent = replaceNode.parent;
+                replaceSubtree(replaceNode, replaceNode.greater);
+                replaceNode.greater = rmNode.greater;
+                replaceNode.greater.parent = replaceNode;
+            }
+            replaceSubtree(rmNode, replaceNode);
+            replaceNode.less = rmNode.less;
+            replaceNode.less.parent = replaceNode;
+            replaceNode.balance = rmNode.balance;
+        }
+
+        if (removedColor == BLACK)
+        {
+            rbRemoveFixup(childNode, childParent);
+        }
+    }
+
+    /**
+     * Restores the red-black properties after a black node has been removed
+     * from the subtree that node, which may be null, is now the root of
+     */
+    private void rbRemoveFixup(Node<K, V> node, Node<K, V> parentNode)
+    {
+        while (node != root && (node == null || node.balance == BLACK))
+        {
+            // the sibling subtree contains at least one black node,
+            // therefore the sibling node exists
+            if (parentNode.less == node)
+            {
+                Node<K, V> siblingNode = parentNode.greater;
+                if (siblingNode.balance == RED)
+                {
+                    siblingNode.balance = BLACK;
+                    parentNode.balance  = RED;
+                    rotateLess(parentNode);
+                    siblingNode = parentNode.greater;
+                }
+                if (isBlack(siblingNode.less) && isBlack(siblingNode.greater))
+                {
+                    siblingNode.balance = RED;
+                    node       = parentNode;
+                    parentNode = node.parent;
+                }
+                else
+                {
+                    if (isBlack(siblingNode.greater))
+                    {
+                        siblingNode.less.balance = BLACK;
+                        siblingNode.balance      = RED;
+                        rotateGreater(siblingNode);
+                        siblingNode = parentNode.greater;
+                    }
+                    siblingNode.balance = parentNode.balance;
+                    parentNode.balance  = BLACK;
+                    siblingNode.greater.balance = BLACK;
+                    rotateLess(parentNode);
+                    node = root;
+                }
+            }
+            else
+            {
+                Node<K, V> siblingNode = parentNode.less;
+                if (siblingNode.balance == RED)
+                {
+                    siblingNode.balance = BLACK;
+                    parentNode.balance  = RED;
+                    rotateGreater(parentNode);
+                    siblingNode = parentNode.less;
+                }
+                if (isBlack(siblingNode.less) && isBlack(siblingNode.greater))
+                {
+                    siblingNode.balance = RED;
+                    node       = parentNode;
+                    parentNode = node.parent;
+                }
+                else
+                {
+                    if (isBlack(siblingNode.less))
+                    {
+                        siblingNode.greater.balance = BLACK;
+                        siblingNode.balance         = RED;
+                        rotateLess(siblingNode);
+                        siblingNode = parentNode.less;
+                    }
+                    siblingNode.balance = parentNode.balance;
+                    parentNode.balance  = BLACK;
+                    siblingNode.less.balance = BLACK;
+                    rotateGreater(parentNode);
+                    node = root;
+                }
+            }
+        }
+        if (node != null)
+        {
+            node.balance = BLACK;
+        }
+    }
+
+    private static boolean isBlack(Node<?, ?> node)
+    {
+        return node == null || node.balance == BLACK;
+    }
+
+    /**
+     * Replaces the subtree rooted at oldNode with the subtree rooted at newNode
+     */
+    private void replaceSubtree(Node<K, V> oldNode, Node<K, V> newNode)
+    {
+        if (oldNode.parent == null)
+        {
+            root = newNode;
+        }
+        else
+        if (oldNode.parent.less == oldNode)
+        {
+            oldNode.parent.less = newNode;
+        }
+        else
+        {
+            oldNode.parent.greater = newNode;
+        }
+        if (newNode != null)
+        {
+            newNode.parent = oldNode.parent;
+        }
+    }
+
+    /**
+     * Rotates the greater child of the specified node into its position,
+     * moving the node into the less subtree
+     */
+    private void rotateLess(Node<K, V> node)
+    {
+        ++rotationCount;
+        Node<K, V> subNode = node.greater;
+        node.greater = subNode.less;
+        if (subNode.less != null)
+        {
+            subNode.less.parent = node;
+        }
+        replaceSubtree(node, subNode);
+        subNode.less = node;
+        node.parent  = subNode;
+    }
+
+    /**
+     * Rotates the less child of the specified node into its position,
+     * moving the node into the greater subtree
+     */
+    private void rotateGreater(Node<K, V> node)
+    {
+        ++rotationCount;
+        Node<K, V> subNode = node.less;
+        node.less = subNode.greater;
+        if (subNode.greater != null)
+        {
+            subNode.greater.parent = node;
+        }
+        replaceSubtree(node, subNode);
+        subNode.greater = node;
+        node.parent     = subNode;
+    }
+
+    /**
+     * Removes the entry with the least key and returns it, or returns null
+     * if the tree is empty
+     *
+     * The least node is cached, so the entry is unlinked without searching
+     * the tree.
+     */
+    public MapEntry<K, V> pollFirstEntry()
+    {
+        MapEntry<K, V> entry = null;
+        Node<K, V> node = firstNode;
+        if (node != null)
+        {
+            entry = new MapEntry<>(node.key, node.value);
+            removeNode(node);
+        }
+        return entry;
+    }
+
+    /**
+     * Removes the entry with the greatest key and returns it, or returns null
+     * if the tree is empty
+     */
+    public MapEntry<K, V> pollLastEntry()
+    {
+        MapEntry<K, V> entry = null;
+        Node<K, V> node = lastNode;
+        if (node != null)
+        {
+            entry = new MapEntry<>(node.key, node.value);
+            removeNode(node);
+        }
+        return entry;
+    }
+
+    private static <K extends Comparable<K>, V> Node<K, V> successor(Node<K, V> node)
+    {
+        Node<K, V> next = node;
+        if (next.greater != null)
+        {
+            next = next.greater;
+            while (next.less != null)
+            {
+                next = next.less;
+            }
+        }
+        else
+        {
+            while (next.parent != null && next.parent.greater == next)
+            {
+                next = next.parent;
+            }
+            next = next.parent;
+        }
+        return next;
+    }
+
+    private static <K extends Comparable<K>, V> Node<K, V> predecessor(Node<K, V> node)
+    {
+        Node<K, V> next = node;
+        if (next.less != null)
+        {
+            next = next.less;
+            while (next.greater != null)
+            {
+                next = next.greater;
+            }
+        }
+        else
+        {
+            while (next.parent != null && next.parent.less == next)
+            {
+                next = next.parent;
+            }
+            next = next.parent;
+        }
+        return next;
+    }
+
+    /**
+     * Rebuilds the tree as a perfectly balanced tree
+     *
+     * The nodes are replaced by copies that are allocated in the order of an
+     * in-order traversal, which restores the memory locality of iterations
+     * over a tree that has been modified a lot.
+     * Returns null if the tree is too large to be rebuilt.
+     */
+    public RebuildStats rebuild()
+    {
+        RebuildStats stats = null;
+        if (size <= Integer.MAX_VALUE)
+        {
+            rebuildState = new RebuildState<>(root, (int) size, balancing == Balancing.RED_BLACK);
+            rebuildState.step(Long.MAX_VALUE);
+            stats = installRebuild();
+        }
+        return stats;
+    }
+
+    /**
+     * Performs up to maxNodes steps of an incremental rebuild
+     *
+     * Each node takes one step to copy and one step to link into the new tree.
+     * The old tree remains in use until the last step installs the new tree.
+     * Any modification of the tree discards the incremental rebuild, and the
+     * next call of this method starts over.
+     * Returns the statistics of the rebuild if it completed with this call,
+     * otherwise null.
+     */
+    public RebuildStats rebuildStep(long maxNodes)
+    {
+        RebuildStats stats = null;
+        if (size <= Integer.MAX_VALUE)
+        {
+            if (rebuildState == null)
+            {
+                rebuildState = new RebuildState<>(root, (int) size, balancing == Balancing.RED_BLACK);
+            }
+            if (rebuildState.step(maxNodes))
+            {
+                stats = installRebuild();
+            }
+        }
+        return stats;
+    }
+
+    public boolean isRebuildPending()
+    {
+        return rebuildState != null;
+    }
+
+    private RebuildStats installRebuild()
+    {
+        root = rebuildState.newRoot;
+        firstNode = rebuildState.count > 0 ? rebuildState.nodes[0] : null;
+        lastNode  = rebuildState.count > 0 ? rebuildState.nodes[rebuildState.count - 1] : null;
+        ++detachVersion;
+        RebuildStats stats = rebuildState.getStats();
+        rebuildState = null;
+        return stats;
+    }
+
+    /**
+     * Returns a new finger for lookups with temporal locality
+     *
+     * A finger remembers the node that its last lookup ended on and starts
+     * the next lookup from there, climbing towards the root only as far as
+     * necessary for the subtree to contain the key.
+     * Each finger is meant to be used by a single thread.
+     */
+    public Finger finger()
+    {
+        return new Finger();
+    }
+
+    public final class Finger
+    {
+        private Node<K, V> position;
+        private long version;
+
+        private long hitCount;
+        private long missCount;
+
+        private Finger()
+        {
+            position = null;
+            version  = 0;
+        }
+
+        public V get(K key)
+        {
+            V value = null;
+            if (filter == null || filter.mightContain(key))
+            {
+                Node<K, V> node = findNode(key, startNode(key));
+                if (node != null)
+                {
+                    value = node.value;
+                    position = node;
+                }
+                else
+                if (filter != null)
+                {
+                    filter.falsePositive();
+                }
+            }
+            return value;
+        }
+
+        public boolean contains(K key)
+        {
+            boolean result = false;
+            if (filter == null || filter.mightContain(key))
+            {
+                Node<K, V> node = findNode(key, startNode(key));
+                if (node != null)
+                {
+                    result = true;
+                    position = node;
+                }
+                else
+                if (filter != null)
+                {
+                    filter.falsePositive();
+                }
+            }
+            return result;
+        }
+
+        public K getCeilingKey(K key)
+        {
+            K ceilingKey = null;
+            Node<K, V> node = findCeilingNode(key, startNode(key));
+            if (node != null)
+            {
+                ceilingKey = node.key;
+                position = node;
+            }
+            return ceilingKey;
+        }
 
-                        rotNode.less = subNode.greater;
-                        if (subNode.greater != null)
-                        {
-                            subNode.greater.parent = rotNode;
-                        }
+        public V getCeilingValue(K key)
+        {
+            V ceilingValue = null;
+            Node<K, V> node = findCeilingNode(key, startNode(key));
+            if (node != null)
+            {
+                ceilingValue = node.value;
+                position = node;
+            }
+            return ceilingValue;
+        }
 
-                        subNode.greater = rotNode;
-                        rotNode.parent  = subNode;
+        public K getFloorKey(K key)
+        {
+            K floorKey = null;
+            Node<K, V> node = findFloorNode(key, startNode(key));
+            if (node != null)
+            {
+                floorKey = node.key;
+                position = node;
+            }
+            return floorKey;
+        }
 
-                        if (subNode.balance == 0)
-                        {
-                            rotNode.balance = -1;
-                            subNode.balance = 1;
-                            break;
-                        }
-                        else
-                        {
-                            rotNode.balance = 0;
-                            subNode.balance = 0;
-                        }
-                    }
-                    else
-                    {
-                        // rotate LR
-                        if (subNode.greater.balance == -1)
-                        {
-                            subNode.balance = 0;
-                            rotNode.balance = 1;
-                        }
-                        else
-                        if (subNode.greater.balance == 1)
-                        {
-                            subNode.balance = -1;
-                            rotNode.balance = 0;
-                        }
-                        else
-                        {
-                            subNode.balance = 0;
-                            rotNode.balance = 0;
-                        }
-                        subNode.greater.balance = 0;
-
-                        subNode.parent        = subNode.greater;
-                        subNode.greater       = subNode.greater.less;
-                        subNode.parent.less   = subNode;
-                        rotNode.less          = subNode.parent.greater;
-                        subNode.parent.parent = rotNode.parent;
-                        if (subNode.greater != null)
-                        {
-                            subNode.greater.parent = subNode;
-                        }
-                        if (rotNode.less != null)
-                        {
-                            rotNode.less.parent = rotNode;
-                        }
+        public V getFloorValue(K key)
+        {
+            V floorValue = null;
+            Node<K, V> node = findFloorNode(key, startNode(key));
+            if (node != null)
+            {
+                floorValue = node.value;
+                position = node;
+            }
+            return floorValue;
+        }
 
-                        if (rotNode.parent != null)
-                        {
-                            if (rotNode.parent.less == rotNode)
-                            {
-                                rotNode.parent.less = subNode.parent;
-                            }
-                            else
-                            {
-                                rotNode.parent.greater = subNode.parent;
-                            }
-                        }
-                        else
-                        {
-                            root = subNode.parent;
-                        }
+        /**
+         * Returns the number of lookups that started below the root node
+         */
+        public long getHitCount()
+        {
+            return hitCount;
+        }
 
-                        rotNode.parent         = subNode.parent;
-                        subNode.parent.greater = rotNode;
-                    }
-                    rotNode = rotNode.parent;
-                    // end of R / LR rotations
-                }
-                else
-                if (rotNode.balance == 2)
+        /**
+         * Returns the number of lookups that started at the root node
+         */
+        public long getMissCount()
+        {
+            return missCount;
+        }
+
+        public void resetCounters()
+        {
+            hitCount  = 0;
+            missCount = 0;
+        }
+
+        /**
+         * Returns the lowest node on the path from the finger's position to the
+         * root whose subtree contains the position of the key
+         *
+         * The subtree of a node is bounded by the nearest ancestor that has the
+         * node in its less subtree and by the nearest ancestor that has the node
+         * in its greater subtree. Climbing stops as soon as the key is known to
+         * be within both bounds.
+         */
+        private Node<K, V> startNode(K key)
+        {
+            Node<K, V> startNode = root;
+            if (position != null && version == detachVersion)
+            {
+                long keyPrefix = abbreviate(key);
+                startNode = position;
+
+                int cmpRc = compareToNode(key, keyPrefix, startNode);
+                boolean lowerChecked = cmpRc > 0;
+                boolean upperChecked = cmpRc < 0;
+                Node<K, V> node = startNode;
+                while (cmpRc != 0 && node.parent != null && !(lowerChecked && upperChecked))
                 {
-                    Node<K, V> subNode = rotNode.greater;
-                    // 0 or 1
-                    if (subNode.balance >= 0)
+                    Node<K, V> parentNode = node.parent;
+                    if (parentNode.less == node)
                     {
-                        // rotate L
-                        subNode.parent = rotNode.parent;
-                        if (rotNode.parent != null)
+                        // parentNode is the upper bound of the subtree
+                        if (!upperChecked)
                         {
-                            if (rotNode.parent.less == rotNode)
+                            cmpRc = compareToNode(key, keyPrefix, parentNode);
+                            if (cmpRc < 0)
                             {
-                                rotNode.parent.less = subNode;
+                                upperChecked = true;
                             }
                             else
                             {
-                                rotNode.parent.greater = subNode;
+                                startNode = parentNode;
+                                lowerChecked = true;
                             }
                         }
-                        else
-                        {
-                            root = subNode;
-                        }
-
-                        rotNode.greater = subNode.less;
-                        if (subNode.less != null)
-                        {
-                            subNode.less.parent = rotNode;
-                        }
-
-                        subNode.less   = rotNode;
-                        rotNode.parent = subNode;
-                        if (subNode.balance == 0)
-                        {
-                            rotNode.balance = 1;
-                            subNode.balance = -1;
-                            break;
-                        }
-                        else
-                        {
-                            rotNode.balance = 0;
-                            subNode.balance = 0;
-                        }
                     }
                     else
                     {
-                        // rotate RL
-                        if (subNode.less.balance == -1)
-                        {
-                            subNode.balance = 1;
-                            rotNode.balance = 0;
-                        }
-                        else
-                        if (subNode.less.balance == 1)
-                        {
-                            subNode.balance = 0;
-                            rotNode.balance = -1;
-                        }
-                        else
-                        {
-                            subNode.balance = 0;
-                            rotNode.balance = 0;
-                        }
-                        subNode.less.balance = 0;
-
-                        subNode.parent         = subNode.less;
-                        subNode.less           = subNode.less.greater;
-                        subNode.parent.greater = subNode;
-                        rotNode.greater        = subNode.parent.less;
-                        subNode.parent.parent  = rotNode.parent;
-                        if (subNode.less != null)
-                        {
-                            subNode.less.parent = subNode;
-                        }
-                        if (rotNode.greater != null)
-                        {
-                            rotNode.greater.parent = rotNode;
-                        }
-
-                        if (rotNode.parent != null)
+                        // parentNode is the lower bound of the subtree
+                        if (!lowerChecked)
                         {
-                            if (rotNode.parent.less == rotNode)
+                            cmpRc = compareToNode(key, keyPrefix, parentNode);
+                            if (cmpRc > 0)
                             {
-                                rotNode.parent.less = subNode.parent;
+                                lowerChecked = true;
                             }
                             else
                             {
-                                rotNode.parent.greater = subNode.parent;
+                                startNode = parentNode;
+                                upperChecked = true;
                             }
                         }
-                        else
-                        {
-                            root = subNode.parent;
-                        }
+                    }
+                    node = parentNode;
+                }
+            }
+            else
+            {
+                position = null;
+                version  = detachVersion;
+            }
+
+            if (startNode != root)
+            {
+                ++hitCount;
+            }
+            else
+            {
+                ++missCount;
+            }
+            return startNode;
+        }
+    }
+
+    /**
+     * Compares two keys in the order of this tree
+     *
+     * Keys of the types that have a built-in comparator are compared in a
+     * separate branch each, so that the comparison of those keys remains
+     * monomorphic no matter which other key types the program uses.
+     */
+    private int compareKeys(K first, K second)
+    {
+        int cmpRc;
+        switch (keyOrder)
+        {
+            case ORDER_LONG:
+                cmpRc = Long.compare(((Long) first).longValue(), ((Long) second).longValue());
+                break;
+            case ORDER_INTEGER:
+                cmpRc = Integer.compare(((Integer) first).intValue(), ((Integer) second).intValue());
+                break;
+            case ORDER_STRING:
+                cmpRc = ((String) first).compareTo((String) second);
+                break;
+            case ORDER_COMPARATOR:
+                cmpRc = comparator.compare(first, second);
+                break;
+            default:
+                cmpRc = first.compareTo(second);
+                break;
+        }
+        return cmpRc;
+    }
+
+    private int compareToNode(K key, long keyPrefix, Node<K, V> node)
+    {
+        int cmpRc = Long.compareUnsigned(keyPrefix, node.prefix);
+        if (cmpRc == 0)
+        {
+            cmpRc = compareKeys(key, node.key);
+        }
+        return cmpRc;
+    }
+
+    /**
+     * Enables a counting bloom filter that is checked by get() and contains()
+     *
+     * Lookups for keys that are rejected by the filter return without
+     * searching the tree. The filter is maintained by insert() and remove()
+     * and is rebuilt with twice the capacity whenever the number of keys
+     * exceeds the capacity it was sized for.
+     * Keys must implement hashCode() consistently with the key order.
+     */
+    public void enableMembershipFilter(long expectedSize, double falsePositiveRate)
+    {
+        filter = new CountingBloomFilter(Math.max(expectedSize, size), falsePositiveRate);
+        fillFilter();
+    }
+
+    public void disableMembershipFilter()
+    {
+        filter = null;
+    }
+
+    public CountingBloomFilter getMembershipFilter()
+    {
+        return filter;
+    }
+
+    /**
+     * Rebuilds the membership filter from the keys in the tree
+     *
+     * Counters that reached their maximum value are not decremented by
+     * remove(), so after lots of removals, a rebuild restores the
+     * filter's selectivity.
+     */
+    public void rebuildMembershipFilter()
+    {
+        if (filter != null)
+        {
+            CountingBloomFilter oldFilter = filter;
+            filter = new CountingBloomFilter(
+                Math.max(oldFilter.getCapacity(), size), oldFilter.getTargetFalsePositiveRate()
+            );
+            filter.copyStatistics(oldFilter);
+            fillFilter();
+        }
+    }
+
+    private void addToFilter(K key)
+    {
+        if (filter != null)
+        {
+            if (size > filter.getCapacity())
+            {
+                CountingBloomFilter oldFilter = filter;
+                filter = new CountingBloomFilter(
+                    oldFilter.getCapacity() * 2, oldFilter.getTargetFalsePositiveRate()
+                );
+                filter.copyStatistics(oldFilter);
+                fillFilter();
+            }
+            else
+            {
+                filter.add(key);
+            }
+        }
+    }
+
+    private void fillFilter()
+    {
+        Node<K, V> node = root;
+        if (node != null)
+        {
+            while (node.less != null)
+            {
+                node = node.less;
+            }
+        }
+        while (node != null)
+        {
+            filter.add(node.key);
+            if (node.greater != null)
+            {
+                node = node.greater;
+                while (node.less != null)
+                {
+                    node = node.less;
+                }
+            }
+            else
+            {
+                while (node.parent != null && node.parent.greater == node)
+                {
+                    node = node.parent;
+                }
+                node = node.parent;
+            }
+        }
+    }
+
+    private long abbreviate(K key)
+    {
+        return abbreviator != null ? abbreviator.abbreviate(key) : 0;
+    }
+
+    /**
+     * Removes all keys in the specified array, which must be sorted in
+     * ascending order
+     *
+     * Large batches are merged with an in-order traversal of the tree, and
+     * the remaining nodes are relinked into a perfectly balanced tree once,
+     * O(n + m). Small batches, where m * log2(n) is less than n, are removed
+     * key by key, O(m * log(n)).
+     * If the keys are not sorted, some of them may not be removed.
+     */
+    public void removeAll(K[] sortedKeys)
+    {
+        removeAllSorted(sortedKeys, sortedKeys.length, -1.0);
+    }
+
+    /**
+     * Removes all keys in the specified array, which must be sorted in
+     * ascending order
+     *
+     * The tree is merged with the keys and rebuilt if the number of keys is
+     * at least rebuildFraction times the size of the tree, otherwise the keys
+     * are removed one by one.
+     */
+    public void removeAll(K[] sortedKeys, double rebuildFraction)
+    {
+        removeAllSorted(sortedKeys, sortedKeys.length, rebuildFraction);
+    }
+
+    /**
+     * Removes all keys returned by the iterator, which must return
+     * the keys in ascending order
+     *
+     * See removeAll(K[])
+     */
+    public void removeAll(java.util.Iterator<K> sortedKeys)
+    {
+        Object[] keys = new Object[16];
+        int count = 0;
+        while (sortedKeys.hasNext())
+        {
+            if (count == keys.length)
+            {
+                keys = java.util.Arrays.copyOf(keys, count * 2);
+            }
+            keys[count] = sortedKeys.next();
+            ++count;
+        }
+        removeAllSorted(keys, count, -1.0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeAllSorted(Object[] keys, int count, double rebuildFraction)
+    {
+        boolean merge = false;
+        if (count > 0 && size <= Integer.MAX_VALUE)
+        {
+            if (rebuildFraction < 0.0)
+            {
+                merge = (long) count * (64 - Long.numberOfLeadingZeros(size)) >= size;
+            }
+            else
+            {
+                merge = count >= size * rebuildFraction;
+            }
+        }
+
+        if (merge)
+        {
+            Node<K, V>[] nodes = (Node<K, V>[]) new Node<?, ?>[(int) size];
+            int nodeCount = 0;
+            int keyIndex = 0;
+
+            Node<K, V> node = findFirstNode();
+            while (node != null)
+            {
+                int cmpRc = 1;
+                while (keyIndex < count && (cmpRc = compareKeys(node.key, (K) keys[keyIndex])) > 0)
+                {
+                    ++keyIndex;
+                }
 
-                        rotNode.parent      = subNode.parent;
-                        subNode.parent.less = rotNode;
+                if (cmpRc == 0)
+                {
+                    if (filter != null)
+                    {
+                        filter.remove(node.key);
                     }
-                    rotNode = rotNode.parent;
-                    // end of L / RL rotations
+                    ++keyIndex;
                 }
-                rotNode = rotNode.parent;
+                else
+                {
+                    nodes[nodeCount] = node;
+                    ++nodeCount;
+                }
+
+                if (node.greater != null)
+                {
+                    node = node.greater;
+                    while (node.less != null)
+                    {
+                        node = node.less;
+                    }
+                }
+                else
+                {
+                    while (node.parent != null && node.parent.greater == node)
+                    {
+                        node = node.parent;
+                    }
+                    node = node.parent;
+                }
+            }
+
+            if (nodeCount < size)
+            {
+                size = nodeCount;
+                rebuildState = new RebuildState<>(nodes, nodeCount, balancing == Balancing.RED_BLACK);
+                rebuildState.step(Long.MAX_VALUE);
+                installRebuild();
+            }
+        }
+        else
+        {
+            for (int index = 0; index < count; ++index)
+            {
+                remove((K) keys[index]);
             }
         }
     }
@@ -1498,6 +2844,14 @@ public final class QTree<K extends Comparable<K>, V>
     {
         root = null;
         size = 0;
+        firstNode = null;
+        lastNode  = null;
+        ++detachVersion;
+        rebuildState = null;
+        if (filter != null)
+        {
+            filter.clear();
+        }
     }
 
     public long getSize()
@@ -1505,6 +2859,29 @@ public final class QTree<K extends Comparable<K>, V>
         return size;
     }
 
+    public Balancing getBalancing()
+    {
+        return balancing;
+    }
+
+    /**
+     * Returns the number of rotations that insertions and removals performed
+     * since the tree was created, counting a double rotation as two rotations
+     */
+    public long getRotationCount()
+    {
+        return rotationCount;
+    }
+
+    /**
+     * Returns the comparator that orders the keys of this tree, or null
+     * if the tree uses the natural order of the keys
+     */
+    public Comparator<? super K> getComparator()
+    {
+        return comparator;
+    }
+
     public java.util.Enumeration<V> valuesEn()
     {
         ItemEnumerationNode<V> valuesEnumRoot = null;
@@ -1625,7 +3002,7 @@ public final class QTree<K extends Comparable<K>, V>
 
     public QIterator<K> keys(K key)
     {
-        Node<K, V> startNode = findNode(key);
+        Node<K, V> startNode = findNode(key, root);
         QIterator<K> iter = null;
         if (startNode != null)
         {
@@ -1636,7 +3013,7 @@ public final class QTree<K extends Comparable<K>, V>
 
     public QIterator<V> values(K key)
     {
-        Node<K, V> startNode = findNode(key);
+        Node<K, V> startNode = findNode(key, root);
         QIterator<V> iter = null;
         if (startNode != null)
         {
@@ -1647,7 +3024,7 @@ public final class QTree<K extends Comparable<K>, V>
 
     public QIterator<K> reverseKeys(K key)
     {
-        Node<K, V> startNode = findNode(key);
+        Node<K, V> startNode = findNode(key, root);
         QIterator<K> iter = null;
         if (startNode != null)
         {
@@ -1658,7 +3035,7 @@ public final class QTree<K extends Comparable<K>, V>
 
     public QIterator<V> reverseValues(K key)
     {
-        Node<K, V> startNode = findNode(key);
+        Node<K, V> startNode = findNode(key, root);
         QIterator<V> iter = null;
         if (startNode != null)
         {
@@ -1678,6 +3055,40 @@ public final class QTree<K extends Comparable<K>, V>
         return new EntriesReverseIterator(this);
     }
 
+    /**
+     * Returns an iterator that starts at the entry with the least key that is
+     * greater than or equal to the specified key
+     */
+    public QIterator<MapEntry<K, V>> ceilingIterator(K key)
+    {
+        return new EntriesIterator<>(this, findCeilingNode(key, root));
+    }
+
+    /**
+     * Returns an iterator over the entries with keys in the range from fromKey
+     * inclusive to toKey exclusive
+     *
+     * Both ends of the range are located when the iterator is created, so
+     * iterating the range does not compare any keys. A null toKey selects
+     * all keys that are greater than or equal to fromKey. The range is empty
+     * if fromKey is not less than toKey.
+     */
+    public QIterator<MapEntry<K, V>> rangeIterator(K fromKey, K toKey)
+    {
+        Node<K, V> startNode = findCeilingNode(fromKey, root);
+        Node<K, V> endNode = null;
+        if (toKey != null)
+        {
+            endNode = findCeilingNode(toKey, root);
+            if (startNode == null || compareKeys(fromKey, toKey) >= 0)
+            {
+                // Empty range
+                startNode = endNode;
+            }
+        }
+        return new EntriesIterator<>(this, startNode, endNode);
+    }
+
     @SuppressWarnings("unchecked")
     public K[] keysArray(K[] dstArray)
     {
@@ -0,0 +1,89 @@
+package dsaext.qtree;
+
+/**
+ * Statistics of a QTree rebuild
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class RebuildStats
+{
+    private final long   size;
+    private final int    heightBefore;
+    private final int    heightAfter;
+    private final double averageDepthBefore;
+    private final double averageDepthAfter;
+
+    RebuildStats(
+        long   sizeValue,
+        int    heightBeforeValue,
+        int    heightAfterValue,
+        double averageDepthBeforeValue,
+        double averageDepthAfterValue
+    )
+    {
+        size               = sizeValue;
+        heightBefore       = heightBeforeValue;
+        heightAfter        = heightAfterValue;
+        averageDepthBefore = averageDepthBeforeValue;
+        averageDepthAfter  = averageDepthAfterValue;
+    }
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    public int getHeightBefore()
+    {
+        return heightBefore;
+    }
+
+    public int getHeightAfter()
+    {
+        return heightAfter;
+    }
+
+    /**
+     * Returns the average depth of the nodes before the rebuild, the root node
+     * having a depth of 1
+     *
+     * The average depth is the number of nodes that a lookup for a key in the
+     * tree visits on average, which is the locality metric that is observable
+     * from Java, where the memory addresses of the nodes are not.
+     */
+    public double getAverageDepthBefore()
+    {
+        return averageDepthBefore;
+    }
+
+    public double getAverageDepthAfter()
+    {
+        return averageDepthAfter;
+    }
+}
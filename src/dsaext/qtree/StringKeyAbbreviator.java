@@ -0,0 +1,56 @@
+package dsaext.qtree;
+
+/**
+ * Key abbreviation for String keys
+ *
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class StringKeyAbbreviator implements KeyAbbreviator<String>
+{
+    private static final int PREFIX_CHARS = 4;
+
+    /**
+     * Packs the first four UTF-16 chars of the key into the abbreviation,
+     * the first char in the most significant bits.
+     * Shorter keys are padded with zero bits, which preserves the order of
+     * String.compareTo(), because a string that is a prefix of another
+     * string sorts before it.
+     */
+    @Override
+    public long abbreviate(String key)
+    {
+        long prefix = 0;
+        int length = Math.min(key.length(), PREFIX_CHARS);
+        for (int index = 0; index < length; ++index)
+        {
+            prefix |= ((long) key.charAt(index)) << ((PREFIX_CHARS - 1 - index) * Character.SIZE);
+        }
+        return prefix;
+    }
+}
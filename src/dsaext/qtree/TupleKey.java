@@ -0,0 +1,165 @@
+package dsaext.qtree;
+
+import dsaext.QIterator;
+import dsaext.MapEntry;
+import java.util.Arrays;
+
+/**
+ * Composite key of long fields
+ *
+ * Keys are ordered field by field, comparing the fields as signed values.
+ * If one key is a prefix of the other, the shorter key is ordered first.
+ * Comparisons and prefix checks do not allocate. Fields of other types can
+ * be stored by mapping them to long values in an order-preserving way.
+ *
+ * ABBREVIATOR abbreviates keys by their first field, so that a QTree that
+ * is created with it compares most keys without dereferencing their fields.
+ * @version 2026-10-18_001
+ * @author  Robert Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class TupleKey implements Comparable<TupleKey>
+{
+    private final long[] fields;
+
+    /**
+     * Abbreviates keys by their first field, for use with QTree
+     */
+    public static final KeyAbbreviator<TupleKey> ABBREVIATOR = new FirstFieldAbbreviator();
+
+    public TupleKey(long... fieldValues)
+    {
+        fields = fieldValues.clone();
+    }
+
+    private static final class FirstFieldAbbreviator implements KeyAbbreviator<TupleKey>
+    {
+        @Override
+        public long abbreviate(TupleKey key)
+        {
+            long prefix = 0;
+            if (key.fields.length > 0)
+            {
+                /* flip the sign bit, so that unsigned order matches signed order */
+                prefix = key.fields[0] ^ Long.MIN_VALUE;
+            }
+            return prefix;
+        }
+    }
+
+    public int getFieldCount()
+    {
+        return fields.length;
+    }
+
+    public long getField(int index)
+    {
+        return fields[index];
+    }
+
+    /**
+     * Indicates whether the leading fields of this key are equal to the
+     * specified prefix
+     */
+    public boolean hasPrefix(long... prefix)
+    {
+        boolean result = prefix.length <= fields.length;
+        for (int idx = 0; result && idx < prefix.length; ++idx)
+        {
+            result = fields[idx] == prefix[idx];
+        }
+        return result;
+    }
+
+    @Override
+    public int compareTo(TupleKey other)
+    {
+        long[] otherFields = other.fields;
+        int commonLength = Math.min(fields.length, otherFields.length);
+        int cmpRc = 0;
+        for (int idx = 0; cmpRc == 0 && idx < commonLength; ++idx)
+        {
+            cmpRc = Long.compare(fields[idx], otherFields[idx]);
+        }
+        if (cmpRc == 0)
+        {
+            cmpRc = Integer.compare(fields.length, otherFields.length);
+        }
+        return cmpRc;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof TupleKey && Arrays.equals(fields, ((TupleKey) other).fields);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(fields);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(fields);
+    }
+
+    /**
+     * Returns the least key that is greater than all keys that start with
+     * the specified prefix, or null if there is no such key
+     */
+    public static TupleKey prefixEnd(long... prefix)
+    {
+        TupleKey endKey = null;
+        int length = prefix.length;
+        while (length > 0 && prefix[length - 1] == Long.MAX_VALUE)
+        {
+            --length;
+        }
+        if (length > 0)
+        {
+            long[] endFields = Arrays.copyOf(prefix, length);
+            ++endFields[length - 1];
+            endKey = new TupleKey(endFields);
+        }
+        return endKey;
+    }
+
+    /**
+     * Returns an iterator over the entries of the tree with keys that start
+     * with the specified prefix
+     *
+     * The iterator starts at the first key with the prefix and stops at the
+     * first key without it, without comparing the keys in between.
+     */
+    public static <V> QIterator<MapEntry<TupleKey, V>> prefixScan(QTree<TupleKey, V> tree, long... prefix)
+    {
+        return tree.rangeIterator(new TupleKey(prefix), prefixEnd(prefix));
+    }
+}
@@ -0,0 +1,279 @@
+package dsaext.vlist;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free multi-producer multi-consumer vector queue
+ *
+ * A singly linked list with head and tail like VList, where producers link
+ * new nodes at the tail and consumers unlink nodes at the head with
+ * compare-and-set operations, following the algorithm of Michael and Scott.
+ * The head always points to a dummy node whose successor is the first
+ * element.
+ *
+ * The queue is optionally bounded. offer() returns false when a bounded
+ * queue is full, so that producers can apply backpressure.
+ *
+ * @version 2026-10-18_001
+ * @author  R. Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class ConcurrentVQueue<V>
+{
+    private volatile Node<V> head;
+    private volatile Node<V> tail;
+
+    /* maximum number of elements, Long.MAX_VALUE if unbounded */
+    private final long capacity;
+
+    /* element counts, separate so that producers and consumers update different counters */
+    private final AtomicLong enqueueCount = new AtomicLong();
+    private final AtomicLong dequeueCount = new AtomicLong();
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle NEXT;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(ConcurrentVQueue.class, "head", Node.class);
+            TAIL = lookup.findVarHandle(ConcurrentVQueue.class, "tail", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+        }
+        catch (ReflectiveOperationException reflExc)
+        {
+            throw new ExceptionInInitializerError(reflExc);
+        }
+    }
+
+    public ConcurrentVQueue()
+    {
+        this(Long.MAX_VALUE);
+    }
+
+    public ConcurrentVQueue(long maxSize)
+    {
+        if (maxSize < 1)
+        {
+            throw new IllegalArgumentException("ConcurrentVQueue(): capacity " + maxSize);
+        }
+        capacity = maxSize;
+        Node<V> dummy = new Node<>(null);
+        head = dummy;
+        tail = dummy;
+    }
+
+    /**
+     * Appends an element to the tail of the queue
+     *
+     * @return true if the element was added, false if the queue is bounded
+     *     and full
+     */
+    public boolean offer(V val)
+    {
+        if (val == null)
+        {
+            throw new NullPointerException("ConcurrentVQueue does not permit null elements");
+        }
+        boolean added = reserve();
+        if (added)
+        {
+            Node<V> insNode = new Node<>(val);
+            while (true)
+            {
+                Node<V> tailNode = tail;
+                Node<V> nextNode = tailNode.next;
+                if (tailNode == tail)
+                {
+                    if (nextNode == null)
+                    {
+                        if (NEXT.compareAndSet(tailNode, null, insNode))
+                        {
+                            TAIL.compareAndSet(this, tailNode, insNode);
+                            break;
+                        }
+                    }
+                    else
+                    {
+                        /* help a producer that has linked its node but not yet moved the tail */
+                        TAIL.compareAndSet(this, tailNode, nextNode);
+                    }
+                }
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Removes and returns the element at the head of the queue, or null if
+     * the queue is empty
+     */
+    public V poll()
+    {
+        V value = null;
+        while (true)
+        {
+            Node<V> headNode = head;
+            Node<V> tailNode = tail;
+            Node<V> nextNode = headNode.next;
+            if (headNode == head)
+            {
+                if (headNode == tailNode)
+                {
+                    if (nextNode == null)
+                    {
+                        break;
+                    }
+                    TAIL.compareAndSet(this, tailNode, nextNode);
+                }
+                else
+                {
+                    V nextValue = nextNode.value;
+                    if (HEAD.compareAndSet(this, headNode, nextNode))
+                    {
+                        /* the node becomes the new dummy node */
+                        nextNode.value = null;
+                        value = nextValue;
+                        dequeueCount.getAndIncrement();
+                        break;
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes up to maxCount elements from the head of the queue and passes
+     * them to the consumer
+     *
+     * @return number of elements that were removed
+     */
+    public int drain(Consumer<? super V> consumer, int maxCount)
+    {
+        int count = 0;
+        while (count < maxCount)
+        {
+            V value = poll();
+            if (value == null)
+            {
+                break;
+            }
+            consumer.accept(value);
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the element at the head of the queue without removing it, or
+     * null if the queue is empty
+     */
+    public V peek()
+    {
+        V value = null;
+        while (true)
+        {
+            Node<V> firstNode = head.next;
+            if (firstNode == null)
+            {
+                break;
+            }
+            value = firstNode.value;
+            if (value != null)
+            {
+                break;
+            }
+            /* a concurrent poll() made the node the dummy node, retry with the new head */
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of elements in the queue, which may be outdated
+     * immediately if other threads modify the queue concurrently
+     */
+    public long getSize()
+    {
+        long dequeued = dequeueCount.get();
+        return Math.max(enqueueCount.get() - dequeued, 0);
+    }
+
+    public boolean isEmpty()
+    {
+        return peek() == null;
+    }
+
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+    private boolean reserve()
+    {
+        boolean reserved = true;
+        if (capacity == Long.MAX_VALUE)
+        {
+            enqueueCount.getAndIncrement();
+        }
+        else
+        {
+            while (true)
+            {
+                long enqueued = enqueueCount.get();
+                if (enqueued - dequeueCount.get() >= capacity)
+                {
+                    reserved = false;
+                    break;
+                }
+                if (enqueueCount.compareAndSet(enqueued, enqueued + 1))
+                {
+                    break;
+                }
+            }
+        }
+        return reserved;
+    }
+
+    final private static class Node<V>
+    {
+        protected V                value;
+        protected volatile Node<V> next;
+
+        Node(V valueRef)
+        {
+            value = valueRef;
+            next  = null;
+        }
+    }
+}
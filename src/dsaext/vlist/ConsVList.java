@@ -0,0 +1,176 @@
+package dsaext.vlist;
+
+/**
+ * Persistent immutable cons list
+ *
+ * Each instance is a cell with an element and a reference to the rest of the
+ * list. prepend() returns a new list that shares all cells of the original
+ * list, so that any number of versions of a list coexist without copying.
+ * Since the cells are immutable and their fields are final, a list can be
+ * published to other threads through a single volatile write, and readers
+ * iterate it without locks.
+ *
+ * @version 2026-10-18_001
+ * @author  R. Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class ConsVList<V> implements Iterable<V>
+{
+    private final V            value;
+    private final ConsVList<V> next;
+    private final int          size;
+
+    private static final ConsVList<?> EMPTY = new ConsVList<>(null, null, 0);
+
+    private ConsVList(V valueRef, ConsVList<V> nextRef, int listSize)
+    {
+        value = valueRef;
+        next  = nextRef;
+        size  = listSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> ConsVList<V> empty()
+    {
+        return (ConsVList<V>) EMPTY;
+    }
+
+    @SafeVarargs
+    public static <V> ConsVList<V> of(V... values)
+    {
+        ConsVList<V> list = empty();
+        for (int index = values.length - 1; index >= 0; --index)
+        {
+            list = list.prepend(values[index]);
+        }
+        return list;
+    }
+
+    /**
+     * Returns a list with the specified element followed by the elements of
+     * this list
+     */
+    public ConsVList<V> prepend(V val)
+    {
+        return new ConsVList<>(val, this, size + 1);
+    }
+
+    public V getFirst()
+    {
+        if (size == 0)
+        {
+            throw new java.util.NoSuchElementException("ConsVList.getFirst(): empty list");
+        }
+        return value;
+    }
+
+    /**
+     * Returns the list without its first element
+     */
+    public ConsVList<V> getRest()
+    {
+        if (size == 0)
+        {
+            throw new java.util.NoSuchElementException("ConsVList.getRest(): empty list");
+        }
+        return next;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public ConsVList<V> reverse()
+    {
+        ConsVList<V> reversed = empty();
+        for (ConsVList<V> cell = this; cell.size > 0; cell = cell.next)
+        {
+            reversed = reversed.prepend(cell.value);
+        }
+        return reversed;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V[] toArray()
+    {
+        V[] values = (V[]) new Object[size];
+        ConsVList<V> cell = this;
+        for (int index = 0; index < size; ++index)
+        {
+            values[index] = cell.value;
+            cell = cell.next;
+        }
+
+        return values;
+    }
+
+    @Override
+    public java.util.Iterator<V> iterator()
+    {
+        return new ConsVListIterator<>(this);
+    }
+
+    private static final class ConsVListIterator<V> implements java.util.Iterator<V>
+    {
+        private ConsVList<V> next;
+
+        ConsVListIterator(ConsVList<V> list)
+        {
+            next = list;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return next.size > 0;
+        }
+
+        @Override
+        public V next()
+        {
+            V value = null;
+            if (next.size > 0)
+            {
+                value = next.value;
+                next = next.next;
+            }
+            return value;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package dsaext.vlist;
+
+/**
+ * Indexed vector list
+ *
+ * Implemented as a skip list where each link stores the number of positions
+ * that it skips, so that get(), set(), insert() and remove() locate any index
+ * in O(log n) expected time. The last node of each level is tracked, so that
+ * append() links a new node without searching, in O(1) expected time.
+ * prepend() also links without searching, but adjusts the span of the head
+ * link of each level that the new node does not reach.
+ *
+ * @version 2026-10-18_001
+ * @author  R. Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class IndexedVList<V> implements Iterable<V>
+{
+    private static final int MAX_LEVEL = 32;
+
+    private int     size;
+    private int     level;
+    private Node<V> header;
+
+    /* last node of each level and its position, the header has position 0 */
+    private Node<V>[] last;
+    private long[]    lastPos;
+
+    /* search results, predecessors of the searched position on each level */
+    private Node<V>[] update;
+    private long[]    updatePos;
+
+    private long randomState;
+
+    public IndexedVList()
+    {
+        header     = new Node<>(null, MAX_LEVEL);
+        last       = newNodeArray(MAX_LEVEL);
+        lastPos    = new long[MAX_LEVEL];
+        update     = newNodeArray(MAX_LEVEL);
+        updatePos  = new long[MAX_LEVEL];
+        randomState = System.nanoTime() | 1;
+        clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newNodeArray(int length)
+    {
+        return (Node<V>[]) new Node<?>[length];
+    }
+
+    public void prepend(V val)
+    {
+        for (int lvl = 0; lvl < level; ++lvl)
+        {
+            update[lvl]    = header;
+            updatePos[lvl] = 0;
+        }
+        link(val, 1);
+    }
+
+    public void append(V val)
+    {
+        long pos = (long) size + 1;
+        int nodeLevel = randomLevel();
+        Node<V> insNode = new Node<>(val, nodeLevel);
+        for (int lvl = level; lvl < nodeLevel; ++lvl)
+        {
+            last[lvl]    = header;
+            lastPos[lvl] = 0;
+        }
+        if (nodeLevel > level)
+        {
+            level = nodeLevel;
+        }
+        for (int lvl = 0; lvl < nodeLevel; ++lvl)
+        {
+            last[lvl].next[lvl] = insNode;
+            last[lvl].span[lvl] = pos - lastPos[lvl];
+            last[lvl]    = insNode;
+            lastPos[lvl] = pos;
+        }
+
+        ++size;
+    }
+
+    public void insert(V value, long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > size)
+        {
+            throw new IndexOutOfBoundsException("IndexedVList.insert(): index " + index);
+        }
+
+        if (index == size)
+        {
+            append(value);
+        }
+        else
+        {
+            long pos = index + 1;
+            findPredecessors(pos);
+            link(value, pos);
+        }
+    }
+
+    public void remove(long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("IndexedVList.remove(): invalid index " + index);
+        }
+
+        long pos = index + 1;
+        findPredecessors(pos);
+        Node<V> rmNode = update[0].next[0];
+        for (int lvl = 0; lvl < level; ++lvl)
+        {
+            Node<V> prevNode = update[lvl];
+            if (prevNode.next[lvl] == rmNode)
+            {
+                prevNode.next[lvl] = rmNode.next[lvl];
+                prevNode.span[lvl] = rmNode.next[lvl] != null ? prevNode.span[lvl] + rmNode.span[lvl] - 1 : 0;
+            }
+            else
+            if (prevNode.next[lvl] != null)
+            {
+                --prevNode.span[lvl];
+            }
+
+            if (last[lvl] == rmNode)
+            {
+                last[lvl]    = prevNode;
+                lastPos[lvl] = updatePos[lvl];
+            }
+            else
+            if (lastPos[lvl] > pos)
+            {
+                --lastPos[lvl];
+            }
+        }
+        while (level > 1 && header.next[level - 1] == null)
+        {
+            --level;
+        }
+
+        --size;
+    }
+
+    public V get(long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("IndexedVList.get(): invalid index " + index);
+        }
+
+        return findNode(index + 1).value;
+    }
+
+    public void set(long index, V value) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("IndexedVList.set(): invalid index " + index);
+        }
+
+        findNode(index + 1).value = value;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public void clear()
+    {
+        for (int lvl = 0; lvl < MAX_LEVEL; ++lvl)
+        {
+            header.next[lvl] = null;
+            header.span[lvl] = 0;
+            last[lvl]        = header;
+            lastPos[lvl]     = 0;
+            update[lvl]      = null;
+        }
+        level = 1;
+        size  = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V[] toArray()
+    {
+        V[] values = (V[]) new Object[size];
+        Node<V> node = header.next[0];
+        for (int index = 0; index < size; ++index)
+        {
+            values[index] = node.value;
+            node = node.next[0];
+        }
+
+        return values;
+    }
+
+    @Override
+    public java.util.Iterator<V> iterator()
+    {
+        return new IndexedVListIterator<>(this);
+    }
+
+    /* returns the node at the specified position, where the first node has position 1 */
+    private Node<V> findNode(long pos)
+    {
+        Node<V> node;
+        if (pos == size)
+        {
+            node = last[0];
+        }
+        else
+        {
+            node = header;
+            long nodePos = 0;
+            for (int lvl = level - 1; lvl >= 0; --lvl)
+            {
+                while (node.next[lvl] != null && nodePos + node.span[lvl] <= pos)
+                {
+                    nodePos += node.span[lvl];
+                    node = node.next[lvl];
+                }
+                if (nodePos == pos)
+                {
+                    break;
+                }
+            }
+        }
+        return node;
+    }
+
+    /* fills update and updatePos with the predecessors of the specified position on each level */
+    private void findPredecessors(long pos)
+    {
+        Node<V> node = header;
+        long nodePos = 0;
+        for (int lvl = level - 1; lvl >= 0; --lvl)
+        {
+            while (node.next[lvl] != null && nodePos + node.span[lvl] < pos)
+            {
+                nodePos += node.span[lvl];
+                node = node.next[lvl];
+            }
+            update[lvl]    = node;
+            updatePos[lvl] = nodePos;
+        }
+    }
+
+    /* links a new node at the specified position after the predecessors in update */
+    private void link(V value, long pos)
+    {
+        int nodeLevel = randomLevel();
+        Node<V> insNode = new Node<>(value, nodeLevel);
+        for (int lvl = level; lvl < nodeLevel; ++lvl)
+        {
+            update[lvl]    = header;
+            updatePos[lvl] = 0;
+        }
+        if (nodeLevel > level)
+        {
+            level = nodeLevel;
+        }
+
+        for (int lvl = 0; lvl < level; ++lvl)
+        {
+            Node<V> prevNode = update[lvl];
+            if (lvl < nodeLevel)
+            {
+                insNode.next[lvl] = prevNode.next[lvl];
+                if (insNode.next[lvl] != null)
+                {
+                    insNode.span[lvl] = updatePos[lvl] + prevNode.span[lvl] + 1 - pos;
+                }
+                prevNode.next[lvl] = insNode;
+                prevNode.span[lvl] = pos - updatePos[lvl];
+            }
+            else
+            if (prevNode.next[lvl] != null)
+            {
+                ++prevNode.span[lvl];
+            }
+
+            if (lastPos[lvl] >= pos)
+            {
+                ++lastPos[lvl];
+            }
+            else
+            if (lvl < nodeLevel && last[lvl] == prevNode)
+            {
+                last[lvl]    = insNode;
+                lastPos[lvl] = pos;
+            }
+        }
+
+        ++size;
+    }
+
+    /* returns a level with probability 1/4 for each level above the first */
+    private int randomLevel()
+    {
+        long rnd = randomState;
+        rnd ^= rnd << 13;
+        rnd ^= rnd >>> 7;
+        rnd ^= rnd << 17;
+        randomState = rnd;
+        int nodeLevel = 1 + Long.numberOfTrailingZeros(rnd | (1L << 62)) / 2;
+        return Math.min(nodeLevel, MAX_LEVEL);
+    }
+
+    private static final class IndexedVListIterator<V> implements java.util.Iterator<V>
+    {
+        private Node<V> next;
+
+        IndexedVListIterator(IndexedVList<V> containerRef)
+        {
+            next = containerRef.header.next[0];
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return (next != null);
+        }
+
+        @Override
+        public V next()
+        {
+            V value = null;
+            if (next != null)
+            {
+                value = next.value;
+                next = next.next[0];
+            }
+            return value;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    final private static class Node<V>
+    {
+        protected V             value;
+        protected final Node<V>[] next;
+
+        /* number of positions skipped by each link */
+        protected final long[]  span;
+
+        Node(V valueRef, int nodeLevel)
+        {
+            value = valueRef;
+            next  = newNodeArray(nodeLevel);
+            span  = new long[nodeLevel];
+        }
+    }
+}
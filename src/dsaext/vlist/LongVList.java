@@ -0,0 +1,374 @@
+package dsaext.vlist;
+
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Vector list of long values
+ *
+ * Stores unboxed long values in a linked list of array chunks, which grow
+ * and split like the chunks of UnrolledVList. No operation boxes the values,
+ * including iteration through the primitive iterator and stream().
+ *
+ * @version 2026-10-18_001
+ * @author  R. Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class LongVList
+{
+    private int       size;
+    private Chunk     head;
+    private Chunk     tail;
+    private final int chunkCapacity;
+
+    public static final int DEFAULT_CHUNK_CAPACITY = 256;
+
+    public LongVList()
+    {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    public LongVList(int capacity)
+    {
+        if (capacity < 2)
+        {
+            throw new IllegalArgumentException("LongVList(): chunk capacity " + capacity);
+        }
+        head = null;
+        tail = null;
+        size = 0;
+        chunkCapacity = capacity;
+    }
+
+    public void prepend(long val)
+    {
+        if (head == null || head.count == chunkCapacity)
+        {
+            Chunk insChunk = new Chunk(chunkCapacity);
+            insChunk.next = head;
+            head = insChunk;
+            if (tail == null)
+            {
+                tail = insChunk;
+            }
+        }
+        head.insert(0, val);
+
+        ++size;
+    }
+
+    public void append(long val)
+    {
+        if (tail == null || tail.count == chunkCapacity)
+        {
+            Chunk insChunk = new Chunk(chunkCapacity);
+            if (tail == null)
+            {
+                head = insChunk;
+            }
+            else
+            {
+                tail.next = insChunk;
+            }
+            tail = insChunk;
+        }
+        tail.values[tail.count++] = val;
+
+        ++size;
+    }
+
+    public void insert(long value, long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > size)
+        {
+            throw new IndexOutOfBoundsException("LongVList.insert(): index " + index);
+        }
+
+        if (index == size)
+        {
+            append(value);
+        }
+        else
+        {
+            Chunk chunk = head;
+            int offset = (int) index;
+            while (offset > chunk.count)
+            {
+                offset -= chunk.count;
+                chunk = chunk.next;
+            }
+            if (chunk.count == chunkCapacity)
+            {
+                Chunk splitChunk = split(chunk);
+                if (offset > chunk.count)
+                {
+                    offset -= chunk.count;
+                    chunk = splitChunk;
+                }
+            }
+            chunk.insert(offset, value);
+
+            ++size;
+        }
+    }
+
+    public void remove(long index) throws IndexOutOfBoundsException
+    {
+        if (head == null || index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("LongVList.remove(): invalid index " + index);
+        }
+
+        Chunk prevChunk = null;
+        Chunk chunk = head;
+        int offset = (int) index;
+        while (offset >= chunk.count)
+        {
+            offset -= chunk.count;
+            prevChunk = chunk;
+            chunk = chunk.next;
+        }
+        chunk.remove(offset);
+
+        if (chunk.count == 0)
+        {
+            if (prevChunk == null)
+            {
+                head = chunk.next;
+            }
+            else
+            {
+                prevChunk.next = chunk.next;
+            }
+            if (tail == chunk)
+            {
+                tail = prevChunk;
+            }
+        }
+        else
+        if (chunk.count < chunkCapacity / 4 && chunk.next != null &&
+            chunk.count + chunk.next.count <= chunkCapacity)
+        {
+            merge(chunk);
+        }
+
+        --size;
+    }
+
+    public long get(long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("LongVList.get(): invalid index " + index);
+        }
+
+        ChunkPosition pos = findChunk(index);
+        return pos.chunk.values[pos.offset];
+    }
+
+    public void set(long index, long value) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("LongVList.set(): invalid index " + index);
+        }
+
+        ChunkPosition pos = findChunk(index);
+        pos.chunk.values[pos.offset] = value;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public void clear()
+    {
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
+    public long[] toArray()
+    {
+        long[] values = new long[size];
+        int index = 0;
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next)
+        {
+            System.arraycopy(chunk.values, 0, values, index, chunk.count);
+            index += chunk.count;
+        }
+
+        return values;
+    }
+
+    public PrimitiveIterator.OfLong iterator()
+    {
+        return new LongVListIterator(head);
+    }
+
+    public LongStream stream()
+    {
+        return StreamSupport.longStream(
+            Spliterators.spliterator(iterator(), size, Spliterator.ORDERED),
+            false
+        );
+    }
+
+    /**
+     * Returns the chunk that contains the element at the specified index
+     * together with the element's offset within that chunk
+     */
+    private ChunkPosition findChunk(long index)
+    {
+        Chunk chunk;
+        long chunkStart;
+        if (index >= size - tail.count)
+        {
+            chunk = tail;
+            chunkStart = size - tail.count;
+        }
+        else
+        {
+            chunk = head;
+            chunkStart = 0;
+            while (index >= chunkStart + chunk.count)
+            {
+                chunkStart += chunk.count;
+                chunk = chunk.next;
+            }
+        }
+        return new ChunkPosition(chunk, (int) (index - chunkStart));
+    }
+
+    private Chunk split(Chunk chunk)
+    {
+        Chunk splitChunk = new Chunk(chunkCapacity);
+        int keepCount = chunk.count / 2;
+        int moveCount = chunk.count - keepCount;
+        System.arraycopy(chunk.values, keepCount, splitChunk.values, 0, moveCount);
+        splitChunk.count = moveCount;
+        chunk.count = keepCount;
+
+        splitChunk.next = chunk.next;
+        chunk.next = splitChunk;
+        if (tail == chunk)
+        {
+            tail = splitChunk;
+        }
+        return splitChunk;
+    }
+
+    private void merge(Chunk chunk)
+    {
+        Chunk nextChunk = chunk.next;
+        System.arraycopy(nextChunk.values, 0, chunk.values, chunk.count, nextChunk.count);
+        chunk.count += nextChunk.count;
+        chunk.next = nextChunk.next;
+        if (tail == nextChunk)
+        {
+            tail = chunk;
+        }
+    }
+
+    private static final class LongVListIterator implements PrimitiveIterator.OfLong
+    {
+        private Chunk chunk;
+        private int   offset;
+
+        LongVListIterator(Chunk headChunk)
+        {
+            chunk  = headChunk;
+            offset = 0;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return (chunk != null);
+        }
+
+        @Override
+        public long nextLong()
+        {
+            if (chunk == null)
+            {
+                throw new java.util.NoSuchElementException();
+            }
+            long value = chunk.values[offset];
+            ++offset;
+            if (offset == chunk.count)
+            {
+                chunk  = chunk.next;
+                offset = 0;
+            }
+            return value;
+        }
+    }
+
+    final private static class ChunkPosition
+    {
+        final Chunk chunk;
+        final int   offset;
+
+        ChunkPosition(Chunk chunkRef, int chunkOffset)
+        {
+            chunk  = chunkRef;
+            offset = chunkOffset;
+        }
+    }
+
+    final private static class Chunk
+    {
+        protected final long[] values;
+        protected int          count;
+        protected Chunk        next;
+
+        Chunk(int capacity)
+        {
+            values = new long[capacity];
+            count  = 0;
+            next   = null;
+        }
+
+        void insert(int offset, long value)
+        {
+            System.arraycopy(values, offset, values, offset + 1, count - offset);
+            values[offset] = value;
+            ++count;
+        }
+
+        void remove(int offset)
+        {
+            --count;
+            System.arraycopy(values, offset + 1, values, offset, count - offset);
+        }
+    }
+}
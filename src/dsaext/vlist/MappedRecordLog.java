@@ -0,0 +1,554 @@
+package dsaext.vlist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Append-only log of binary records in memory-mapped file segments
+ *
+ * Records are either of a fixed length that is specified when the log is
+ * opened, or of variable length, in which case each record is prefixed with
+ * its length. Records are written directly into segment files of a fixed
+ * size that are mapped into memory, and a new segment is started when a record
+ * does not fit into the current segment. The header of each segment contains
+ * the number of bytes used, the number of records in the segment and the
+ * record length, so that an existing log is recovered when it is opened again
+ * and cannot be opened with a different record format.
+ *
+ * The position of a record is the segment index in the upper 32 bits and the
+ * offset within the segment in the lower 32 bits. Records are returned as
+ * read-only slices of the mapped segments without copying.
+ *
+ * Instances are not thread-safe. Mappings are released by the garbage
+ * collector after the log is closed.
+ *
+ * @version 2026-10-18_001
+ * @author  R. Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class MappedRecordLog implements Closeable, Iterable<ByteBuffer>
+{
+    public static final int HEADER_SIZE = 16;
+    public static final int LENGTH_SIZE = 4;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /* segment header: record count and limit, format tag, record length */
+    private static final int HEADER_USED_OFFSET   = 0;
+    private static final int HEADER_FORMAT_OFFSET = 8;
+    private static final int HEADER_RECLEN_OFFSET = 12;
+    private static final int FORMAT_TAG           = 0x564C4F47;
+
+    private final Path directory;
+    private final int  segmentSize;
+    private final int  recordLength;
+
+    private final List<Segment> segments;
+    private Segment current;
+    private int     flushIndex;
+    private long    recordCount;
+    private boolean open;
+
+    /**
+     * Opens or creates a log of variable-length records
+     */
+    public MappedRecordLog(Path dirPath, int segSize) throws IOException
+    {
+        this(dirPath, segSize, 0);
+    }
+
+    /**
+     * Opens or creates a log of records
+     *
+     * @param dirPath directory that contains the segment files
+     * @param segSize size of each segment file in bytes
+     * @param recLength length of each record in bytes, or 0 for variable-length records
+     */
+    public MappedRecordLog(Path dirPath, int segSize, int recLength) throws IOException
+    {
+        if (recLength < 0)
+        {
+            throw new IllegalArgumentException("MappedRecordLog(): invalid record length " + recLength);
+        }
+        if (segSize < HEADER_SIZE + Math.max(recLength, LENGTH_SIZE + 1))
+        {
+            throw new IllegalArgumentException("MappedRecordLog(): invalid segment size " + segSize);
+        }
+        directory    = dirPath;
+        segmentSize  = segSize;
+        recordLength = recLength;
+        segments     = new ArrayList<>();
+        recordCount  = 0;
+
+        Files.createDirectories(directory);
+        List<Path> segPaths = new ArrayList<>();
+        try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(
+            directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX))
+        {
+            for (Path segPath : dirStream)
+            {
+                segPaths.add(segPath);
+            }
+        }
+        segPaths.sort(null);
+
+        try
+        {
+            for (Path segPath : segPaths)
+            {
+                if (!segPath.equals(segmentPath(segments.size())))
+                {
+                    throw new IOException("MappedRecordLog(): missing segment before " + segPath);
+                }
+                if (Files.size(segPath) != segmentSize)
+                {
+                    throw new IOException("MappedRecordLog(): segment size mismatch in " + segPath);
+                }
+                Segment seg = openSegment(segments.size());
+                if (seg.buffer.getInt(HEADER_FORMAT_OFFSET) != FORMAT_TAG)
+                {
+                    throw new IOException("MappedRecordLog(): corrupt segment header in " + segPath);
+                }
+                if (seg.buffer.getInt(HEADER_RECLEN_OFFSET) != recordLength)
+                {
+                    throw new IOException(
+                        "MappedRecordLog(): record length " + seg.buffer.getInt(HEADER_RECLEN_OFFSET) +
+                        " != " + recordLength + " in " + segPath
+                    );
+                }
+                if (seg.limit < HEADER_SIZE || seg.limit > segmentSize || seg.count < 0 ||
+                    (recordLength == 0 ?
+                        seg.count > (seg.limit - HEADER_SIZE) / (LENGTH_SIZE + 1) :
+                        seg.limit - HEADER_SIZE != (long) seg.count * recordLength))
+                {
+                    throw new IOException("MappedRecordLog(): corrupt segment header in " + segPath);
+                }
+                recordCount += seg.count;
+            }
+            if (segments.isEmpty())
+            {
+                openSegment(0);
+            }
+        }
+        catch (IOException ioExc)
+        {
+            closeSegments();
+            throw ioExc;
+        }
+        current    = segments.get(segments.size() - 1);
+        flushIndex = 0;
+        open       = true;
+    }
+
+    private Path segmentPath(int segIndex)
+    {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segIndex, SEGMENT_SUFFIX));
+    }
+
+    private Segment openSegment(int segIndex) throws IOException
+    {
+        FileChannel channel = FileChannel.open(
+            segmentPath(segIndex),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        Segment seg;
+        try
+        {
+            seg = new Segment(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+            if (seg.limit == 0)
+            {
+                /* new segment */
+                seg.limit = HEADER_SIZE;
+                seg.buffer.putInt(HEADER_FORMAT_OFFSET, FORMAT_TAG);
+                seg.buffer.putInt(HEADER_RECLEN_OFFSET, recordLength);
+                seg.buffer.putLong(HEADER_USED_OFFSET, HEADER_SIZE);
+            }
+        }
+        catch (IOException ioExc)
+        {
+            channel.close();
+            throw ioExc;
+        }
+        segments.add(seg);
+        return seg;
+    }
+
+    private void checkOpen()
+    {
+        if (!open)
+        {
+            throw new IllegalStateException("MappedRecordLog: log is closed");
+        }
+    }
+
+    /**
+     * Appends a record
+     *
+     * @return position of the record
+     */
+    public long append(byte[] data) throws IOException
+    {
+        return append(data, 0, data.length);
+    }
+
+    /**
+     * Appends a record
+     *
+     * @return position of the record
+     */
+    public long append(byte[] data, int offset, int length) throws IOException
+    {
+        Objects.checkFromIndexSize(offset, length, data.length);
+        int dataOffset = reserve(length);
+        current.buffer.put(dataOffset, data, offset, length);
+        return commit(dataOffset, length);
+    }
+
+    /**
+     * Appends the remaining bytes of the specified buffer as a record
+     *
+     * The position of the buffer is not changed.
+     *
+     * @return position of the record
+     */
+    public long append(ByteBuffer src) throws IOException
+    {
+        int length = src.remaining();
+        int dataOffset = reserve(length);
+        current.buffer.put(dataOffset, src, src.position(), length);
+        return commit(dataOffset, length);
+    }
+
+    /* returns the segment offset for the record data, starting a new segment if required */
+    private int reserve(int length) throws IOException
+    {
+        checkOpen();
+        int recSize;
+        if (recordLength == 0)
+        {
+            if (length < 1)
+            {
+                throw new IllegalArgumentException("MappedRecordLog.append(): empty record");
+            }
+            recSize = LENGTH_SIZE + length;
+        }
+        else
+        {
+            if (length != recordLength)
+            {
+                throw new IllegalArgumentException(
+                    "MappedRecordLog.append(): record length " + length + " != " + recordLength
+                );
+            }
+            recSize = length;
+        }
+        if (recSize > segmentSize - HEADER_SIZE || recSize < 0)
+        {
+            throw new IllegalArgumentException("MappedRecordLog.append(): record length " + length +
+                " exceeds the segment size");
+        }
+
+        if (current.limit > segmentSize - recSize)
+        {
+            current = openSegment(segments.size());
+        }
+        return recordLength == 0 ? current.limit + LENGTH_SIZE : current.limit;
+    }
+
+    /* writes the length prefix and the segment header after the record data */
+    private long commit(int dataOffset, int length)
+    {
+        int recOffset = current.limit;
+        if (recordLength == 0)
+        {
+            current.buffer.putInt(recOffset, length);
+        }
+        current.limit = dataOffset + length;
+        ++current.count;
+        current.buffer.putLong(HEADER_USED_OFFSET, ((long) current.count << 32) | current.limit);
+        ++recordCount;
+        return ((long) (segments.size() - 1) << 32) | recOffset;
+    }
+
+    /**
+     * Returns the record at the specified position as a read-only buffer
+     */
+    public ByteBuffer get(long position) throws IndexOutOfBoundsException
+    {
+        checkOpen();
+        int segIndex = (int) (position >>> 32);
+        int offset = (int) position;
+        if (position < 0 || segIndex >= segments.size() || offset < HEADER_SIZE ||
+            offset >= segments.get(segIndex).limit || !isRecordStart(offset))
+        {
+            throw new IndexOutOfBoundsException("MappedRecordLog.get(): invalid position " + position);
+        }
+        return recordAt(segments.get(segIndex), offset);
+    }
+
+    /* checks the alignment of fixed-length record offsets */
+    private boolean isRecordStart(int offset)
+    {
+        return recordLength == 0 || (offset - HEADER_SIZE) % recordLength == 0;
+    }
+
+    private ByteBuffer recordAt(Segment seg, int offset)
+    {
+        ByteBuffer record;
+        if (recordLength == 0)
+        {
+            int length = seg.buffer.getInt(offset);
+            if (length < 1 || length > seg.limit - offset - LENGTH_SIZE)
+            {
+                throw new IllegalStateException("MappedRecordLog: corrupt record at offset " + offset);
+            }
+            record = seg.buffer.slice(offset + LENGTH_SIZE, length);
+        }
+        else
+        {
+            record = seg.buffer.slice(offset, recordLength);
+        }
+        return record.asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the position of the record with the specified index
+     *
+     * Only available for fixed-length records.
+     */
+    public long positionOf(long index) throws IndexOutOfBoundsException
+    {
+        if (recordLength == 0)
+        {
+            throw new UnsupportedOperationException("MappedRecordLog.positionOf(): variable-length records");
+        }
+        if (index < 0 || index > (recordCount - 1))
+        {
+            throw new IndexOutOfBoundsException("MappedRecordLog.positionOf(): invalid index " + index);
+        }
+        int segRecords = (segmentSize - HEADER_SIZE) / recordLength;
+        long segIndex = index / segRecords;
+        int offset = HEADER_SIZE + (int) (index % segRecords) * recordLength;
+        return (segIndex << 32) | offset;
+    }
+
+    public long getRecordCount()
+    {
+        return recordCount;
+    }
+
+    /**
+     * Returns the position after the last record, which is the position of the
+     * next record if it fits into the current segment
+     */
+    public long getEndPosition()
+    {
+        return ((long) (segments.size() - 1) << 32) | current.limit;
+    }
+
+    public int getRecordLength()
+    {
+        return recordLength;
+    }
+
+    public int getSegmentSize()
+    {
+        return segmentSize;
+    }
+
+    public int getSegmentCount()
+    {
+        return segments.size();
+    }
+
+    /**
+     * Writes all records appended since the last flush to the storage device
+     */
+    public void flush()
+    {
+        checkOpen();
+        for (int idx = flushIndex; idx < segments.size(); ++idx)
+        {
+            segments.get(idx).buffer.force();
+        }
+        flushIndex = segments.size() - 1;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (open)
+        {
+            flush();
+            open = false;
+            closeSegments();
+        }
+    }
+
+    private void closeSegments() throws IOException
+    {
+        IOException closeExc = null;
+        for (Segment seg : segments)
+        {
+            try
+            {
+                seg.channel.close();
+            }
+            catch (IOException ioExc)
+            {
+                closeExc = ioExc;
+            }
+        }
+        segments.clear();
+        if (closeExc != null)
+        {
+            throw closeExc;
+        }
+    }
+
+    @Override
+    public Cursor iterator()
+    {
+        return cursor();
+    }
+
+    /**
+     * Returns a cursor positioned at the first record
+     */
+    public Cursor cursor()
+    {
+        checkOpen();
+        return new Cursor(0, HEADER_SIZE);
+    }
+
+    /**
+     * Returns a cursor positioned at the record at the specified position
+     *
+     * The position may also be the end position of the log or of a segment.
+     */
+    public Cursor cursor(long position) throws IndexOutOfBoundsException
+    {
+        checkOpen();
+        int segIndex = (int) (position >>> 32);
+        int offset = (int) position;
+        if (position < 0 || segIndex >= segments.size() || offset < HEADER_SIZE ||
+            offset > segments.get(segIndex).limit || !isRecordStart(offset))
+        {
+            throw new IndexOutOfBoundsException("MappedRecordLog.cursor(): invalid position " + position);
+        }
+        return new Cursor(segIndex, offset);
+    }
+
+    /**
+     * Sequential read cursor
+     *
+     * A cursor also returns records that are appended after it was created.
+     */
+    public final class Cursor implements Iterator<ByteBuffer>
+    {
+        private int segIndex;
+        private int offset;
+
+        private Cursor(int startSegIndex, int startOffset)
+        {
+            segIndex = startSegIndex;
+            offset   = startOffset;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            checkOpen();
+            while (offset >= segments.get(segIndex).limit && segIndex < segments.size() - 1)
+            {
+                ++segIndex;
+                offset = HEADER_SIZE;
+            }
+            return offset < segments.get(segIndex).limit;
+        }
+
+        @Override
+        public ByteBuffer next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            ByteBuffer record = recordAt(segments.get(segIndex), offset);
+            offset += recordLength == 0 ? LENGTH_SIZE + record.remaining() : recordLength;
+            return record;
+        }
+
+        /**
+         * Returns the position of the record that will be returned by next()
+         */
+        public long getPosition()
+        {
+            return ((long) segIndex << 32) | offset;
+        }
+
+        /**
+         * Moves the cursor to the specified position
+         */
+        public void seek(long position) throws IndexOutOfBoundsException
+        {
+            Cursor target = cursor(position);
+            segIndex = target.segIndex;
+            offset   = target.offset;
+        }
+    }
+
+    private static final class Segment
+    {
+        final FileChannel      channel;
+        final MappedByteBuffer buffer;
+        int limit;
+        int count;
+
+        Segment(FileChannel channelRef, MappedByteBuffer bufferRef)
+        {
+            channel = channelRef;
+            buffer  = bufferRef;
+            long header = buffer.getLong(HEADER_USED_OFFSET);
+            limit = (int) header;
+            count = (int) (header >>> 32);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package dsaext.vlist;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free multi-producer single-consumer vector queue
+ *
+ * Producers link new nodes by atomically exchanging the tail and then
+ * setting the previous tail's successor, which never needs to retry. The
+ * single consumer advances the head without atomic operations. Only one
+ * thread at a time may call poll(), drain() or peek(). getSize(), isEmpty()
+ * and getCapacity() may be called by any thread.
+ *
+ * While a producer is between exchanging the tail and linking its node,
+ * the consumer can not see that node or the nodes that were appended after
+ * it, so poll() may return null although the queue is not empty. The
+ * nodes become visible as soon as the producer completes the offer().
+ *
+ * The queue is optionally bounded. offer() returns false when a bounded
+ * queue is full, so that producers can apply backpressure.
+ *
+ * @version 2026-10-18_001
+ * @author  R. Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class MpscVQueue<V>
+{
+    /* accessed by the consumer only */
+    private Node<V> head;
+
+    private volatile Node<V> tail;
+
+    /* maximum number of elements, Long.MAX_VALUE if unbounded */
+    private final long capacity;
+
+    private final AtomicLong enqueueCount = new AtomicLong();
+
+    /* written by the consumer only */
+    private volatile long dequeueCount;
+
+    private static final VarHandle TAIL;
+    private static final VarHandle NEXT;
+    private static final VarHandle DEQUEUE_COUNT;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(MpscVQueue.class, "tail", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+            DEQUEUE_COUNT = lookup.findVarHandle(MpscVQueue.class, "dequeueCount", long.class);
+        }
+        catch (ReflectiveOperationException reflExc)
+        {
+            throw new ExceptionInInitializerError(reflExc);
+        }
+    }
+
+    public MpscVQueue()
+    {
+        this(Long.MAX_VALUE);
+    }
+
+    public MpscVQueue(long maxSize)
+    {
+        if (maxSize < 1)
+        {
+            throw new IllegalArgumentException("MpscVQueue(): capacity " + maxSize);
+        }
+        capacity = maxSize;
+        Node<V> dummy = new Node<>(null);
+        head = dummy;
+        tail = dummy;
+    }
+
+    /**
+     * Appends an element to the tail of the queue
+     *
+     * @return true if the element was added, false if the queue is bounded
+     *     and full
+     */
+    public boolean offer(V val)
+    {
+        if (val == null)
+        {
+            throw new NullPointerException("MpscVQueue does not permit null elements");
+        }
+        boolean added = reserve();
+        if (added)
+        {
+            Node<V> insNode = new Node<>(val);
+            @SuppressWarnings("unchecked")
+            Node<V> prevNode = (Node<V>) TAIL.getAndSet(this, insNode);
+            NEXT.setRelease(prevNode, insNode);
+        }
+        return added;
+    }
+
+    /**
+     * Removes and returns the element at the head of the queue, or null if
+     * no element is visible to the consumer
+     */
+    public V poll()
+    {
+        V value = null;
+        Node<V> nextNode = head.next;
+        if (nextNode != null)
+        {
+            value = nextNode.value;
+            nextNode.value = null;
+            head = nextNode;
+            DEQUEUE_COUNT.setRelease(this, dequeueCount + 1);
+        }
+        return value;
+    }
+
+    /**
+     * Removes up to maxCount elements from the head of the queue and passes
+     * them to the consumer
+     *
+     * The dequeue count is published once for the whole batch.
+     *
+     * @return number of elements that were removed
+     */
+    public int drain(Consumer<? super V> consumer, int maxCount)
+    {
+        int count = 0;
+        Node<V> headNode = head;
+        try
+        {
+            while (count < maxCount)
+            {
+                Node<V> nextNode = headNode.next;
+                if (nextNode == null)
+                {
+                    break;
+                }
+                V value = nextNode.value;
+                nextNode.value = null;
+                headNode = nextNode;
+                ++count;
+                consumer.accept(value);
+            }
+        }
+        finally
+        {
+            head = headNode;
+            DEQUEUE_COUNT.setRelease(this, dequeueCount + count);
+        }
+        return count;
+    }
+
+    public V peek()
+    {
+        Node<V> firstNode = head.next;
+        return firstNode != null ? firstNode.value : null;
+    }
+
+    /**
+     * Returns the number of elements in the queue, which may be outdated
+     * immediately if other threads modify the queue concurrently
+     */
+    public long getSize()
+    {
+        long dequeued = dequeueCount;
+        return Math.max(enqueueCount.get() - dequeued, 0);
+    }
+
+    /**
+     * Indicates whether the queue is empty, based on the element counts like
+     * getSize(), so that any thread may call this method
+     */
+    public boolean isEmpty()
+    {
+        return getSize() == 0;
+    }
+
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+    private boolean reserve()
+    {
+        boolean reserved = true;
+        if (capacity == Long.MAX_VALUE)
+        {
+            enqueueCount.getAndIncrement();
+        }
+        else
+        {
+            while (true)
+            {
+                long enqueued = enqueueCount.get();
+                if (enqueued - dequeueCount >= capacity)
+                {
+                    reserved = false;
+                    break;
+                }
+                if (enqueueCount.compareAndSet(enqueued, enqueued + 1))
+                {
+                    break;
+                }
+            }
+        }
+        return reserved;
+    }
+
+    final private static class Node<V>
+    {
+        protected V                value;
+        protected volatile Node<V> next;
+
+        Node(V valueRef)
+        {
+            value = valueRef;
+            next  = null;
+        }
+    }
+}
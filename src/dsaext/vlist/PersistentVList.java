@@ -0,0 +1,362 @@
+package dsaext.vlist;
+
+/**
+ * Persistent immutable vector list
+ *
+ * A 32-way trie of arrays with a separate tail array for the last elements.
+ * append(), set() and removeLast() return a new list that shares all arrays
+ * of the original list except those on the path to the modified element, so
+ * that appending is O(1) amortized and indexed access is O(log32 n). Like
+ * ConsVList, a list can be published to other threads through a single
+ * volatile write and iterated by readers without locks or copies.
+ *
+ * @version 2026-10-18_001
+ * @author  R. Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class PersistentVList<V> implements Iterable<V>
+{
+    private static final int BITS  = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK  = WIDTH - 1;
+
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+
+    private static final PersistentVList<?> EMPTY =
+        new PersistentVList<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int      size;
+    private final int      shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVList(int listSize, int levelShift, Object[] rootNode, Object[] tailNode)
+    {
+        size  = listSize;
+        shift = levelShift;
+        root  = rootNode;
+        tail  = tailNode;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentVList<V> empty()
+    {
+        return (PersistentVList<V>) EMPTY;
+    }
+
+    @SafeVarargs
+    public static <V> PersistentVList<V> of(V... values)
+    {
+        PersistentVList<V> list = empty();
+        for (V value : values)
+        {
+            list = list.append(value);
+        }
+        return list;
+    }
+
+    /* index of the first element in the tail array */
+    private int tailOffset()
+    {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    /* returns the leaf array that contains the element at the specified index */
+    private Object[] leafFor(int index)
+    {
+        Object[] node;
+        if (index >= tailOffset())
+        {
+            node = tail;
+        }
+        else
+        {
+            node = root;
+            for (int level = shift; level > 0; level -= BITS)
+            {
+                node = (Object[]) node[(index >>> level) & MASK];
+            }
+        }
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("PersistentVList.get(): invalid index " + index);
+        }
+        return (V) leafFor((int) index)[(int) index & MASK];
+    }
+
+    /**
+     * Returns a list with the specified element appended to the elements of
+     * this list
+     */
+    public PersistentVList<V> append(V val)
+    {
+        PersistentVList<V> result;
+        int tailLength = size - tailOffset();
+        if (tailLength < WIDTH)
+        {
+            Object[] newTail = java.util.Arrays.copyOf(tail, tailLength + 1);
+            newTail[tailLength] = val;
+            result = new PersistentVList<>(size + 1, shift, root, newTail);
+        }
+        else
+        {
+            /* move the full tail into the trie */
+            Object[] newRoot;
+            int newShift = shift;
+            if ((size >>> BITS) > (1 << shift))
+            {
+                newRoot = new Object[WIDTH];
+                newRoot[0] = root;
+                newRoot[1] = newPath(shift, tail);
+                newShift += BITS;
+            }
+            else
+            {
+                newRoot = pushTail(shift, root, tail);
+            }
+            result = new PersistentVList<>(size + 1, newShift, newRoot, new Object[] {val});
+        }
+        return result;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode)
+    {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] node = parent.clone();
+        Object[] insNode;
+        if (level == BITS)
+        {
+            insNode = tailNode;
+        }
+        else
+        {
+            Object[] child = (Object[]) parent[subIndex];
+            insNode = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+        node[subIndex] = insNode;
+        return node;
+    }
+
+    private static Object[] newPath(int level, Object[] leaf)
+    {
+        Object[] node = leaf;
+        for (int pathLevel = level; pathLevel > 0; pathLevel -= BITS)
+        {
+            Object[] parent = new Object[WIDTH];
+            parent[0] = node;
+            node = parent;
+        }
+        return node;
+    }
+
+    /**
+     * Returns a list with the element at the specified index replaced
+     */
+    public PersistentVList<V> set(long index, V val) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("PersistentVList.set(): invalid index " + index);
+        }
+
+        PersistentVList<V> result;
+        int pos = (int) index;
+        if (pos >= tailOffset())
+        {
+            Object[] newTail = tail.clone();
+            newTail[pos & MASK] = val;
+            result = new PersistentVList<>(size, shift, root, newTail);
+        }
+        else
+        {
+            result = new PersistentVList<>(size, shift, assoc(shift, root, pos, val), tail);
+        }
+        return result;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object val)
+    {
+        Object[] newNode = node.clone();
+        if (level == 0)
+        {
+            newNode[index & MASK] = val;
+        }
+        else
+        {
+            int subIndex = (index >>> level) & MASK;
+            newNode[subIndex] = assoc(level - BITS, (Object[]) node[subIndex], index, val);
+        }
+        return newNode;
+    }
+
+    /**
+     * Returns a list without the last element of this list
+     */
+    public PersistentVList<V> removeLast()
+    {
+        if (size == 0)
+        {
+            throw new java.util.NoSuchElementException("PersistentVList.removeLast(): empty list");
+        }
+
+        PersistentVList<V> result;
+        if (size == 1)
+        {
+            result = empty();
+        }
+        else
+        if (size - tailOffset() > 1)
+        {
+            result = new PersistentVList<>(size - 1, shift, root, java.util.Arrays.copyOf(tail, tail.length - 1));
+        }
+        else
+        {
+            /* the last leaf of the trie becomes the tail */
+            Object[] newTail = leafFor(size - 2);
+            Object[] newRoot = popTail(shift, root);
+            int newShift = shift;
+            if (newRoot == null)
+            {
+                newRoot = EMPTY_NODE;
+            }
+            if (shift > BITS && newRoot[1] == null)
+            {
+                newRoot = (Object[]) newRoot[0];
+                newShift -= BITS;
+            }
+            result = new PersistentVList<>(size - 1, newShift, newRoot, newTail);
+        }
+        return result;
+    }
+
+    private Object[] popTail(int level, Object[] node)
+    {
+        Object[] result;
+        int subIndex = ((size - 2) >>> level) & MASK;
+        if (level > BITS)
+        {
+            Object[] newChild = popTail(level - BITS, (Object[]) node[subIndex]);
+            if (newChild == null && subIndex == 0)
+            {
+                result = null;
+            }
+            else
+            {
+                result = node.clone();
+                result[subIndex] = newChild;
+            }
+        }
+        else
+        if (subIndex == 0)
+        {
+            result = null;
+        }
+        else
+        {
+            result = node.clone();
+            result[subIndex] = null;
+        }
+        return result;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V[] toArray()
+    {
+        V[] values = (V[]) new Object[size];
+        for (int index = 0; index < size; index += WIDTH)
+        {
+            Object[] leaf = leafFor(index);
+            System.arraycopy(leaf, 0, values, index, Math.min(WIDTH, size - index));
+        }
+
+        return values;
+    }
+
+    @Override
+    public java.util.Iterator<V> iterator()
+    {
+        return new PersistentVListIterator<>(this);
+    }
+
+    private static final class PersistentVListIterator<V> implements java.util.Iterator<V>
+    {
+        private final PersistentVList<V> container;
+        private Object[] leaf;
+        private int      index;
+
+        PersistentVListIterator(PersistentVList<V> containerRef)
+        {
+            container = containerRef;
+            index     = 0;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return index < container.size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next()
+        {
+            V value = null;
+            if (index < container.size)
+            {
+                if ((index & MASK) == 0)
+                {
+                    leaf = container.leafFor(index);
+                }
+                value = (V) leaf[index & MASK];
+                ++index;
+            }
+            return value;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
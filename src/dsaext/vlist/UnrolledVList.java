@@ -0,0 +1,392 @@
+package dsaext.vlist;
+
+/**
+ * Unrolled vector list
+ *
+ * Stores the elements in a linked list of chunks, where each chunk holds an
+ * array of up to chunkCapacity elements. Positional operations skip whole
+ * chunks by their element count, and iteration and toArray() copy or read
+ * the elements of each chunk at array speed. A full chunk is split in half
+ * when an element is inserted into it, and a chunk that becomes less than a
+ * quarter full is merged with its successor if both fit into one chunk.
+ *
+ * @version 2026-10-18_001
+ * @author  R. Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class UnrolledVList<V> implements Iterable<V>
+{
+    private int       size;
+    private Chunk<V>  head;
+    private Chunk<V>  tail;
+    private final int chunkCapacity;
+
+    public static final int DEFAULT_CHUNK_CAPACITY = 32;
+
+    public UnrolledVList()
+    {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    public UnrolledVList(int capacity)
+    {
+        if (capacity < 2)
+        {
+            throw new IllegalArgumentException("UnrolledVList(): chunk capacity " + capacity);
+        }
+        head = null;
+        tail = null;
+        size = 0;
+        chunkCapacity = capacity;
+    }
+
+    public void prepend(V val)
+    {
+        if (head == null || head.count == chunkCapacity)
+        {
+            Chunk<V> insChunk = new Chunk<>(chunkCapacity);
+            insChunk.next = head;
+            head = insChunk;
+            if (tail == null)
+            {
+                tail = insChunk;
+            }
+        }
+        head.insert(0, val);
+
+        ++size;
+    }
+
+    public void append(V val)
+    {
+        if (tail == null || tail.count == chunkCapacity)
+        {
+            Chunk<V> insChunk = new Chunk<>(chunkCapacity);
+            if (tail == null)
+            {
+                head = insChunk;
+            }
+            else
+            {
+                tail.next = insChunk;
+            }
+            tail = insChunk;
+        }
+        tail.values[tail.count++] = val;
+
+        ++size;
+    }
+
+    public void insert(V value, long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > size)
+        {
+            throw new IndexOutOfBoundsException("UnrolledVList.insert(): index " + index);
+        }
+
+        if (index == size)
+        {
+            append(value);
+        }
+        else
+        {
+            Chunk<V> chunk = head;
+            int offset = (int) index;
+            while (offset > chunk.count)
+            {
+                offset -= chunk.count;
+                chunk = chunk.next;
+            }
+            if (chunk.count == chunkCapacity)
+            {
+                Chunk<V> splitChunk = split(chunk);
+                if (offset > chunk.count)
+                {
+                    offset -= chunk.count;
+                    chunk = splitChunk;
+                }
+            }
+            chunk.insert(offset, value);
+
+            ++size;
+        }
+    }
+
+    public void remove(long index) throws IndexOutOfBoundsException
+    {
+        if (head == null || index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("UnrolledVList.remove(): invalid index " + index);
+        }
+
+        Chunk<V> prevChunk = null;
+        Chunk<V> chunk = head;
+        int offset = (int) index;
+        while (offset >= chunk.count)
+        {
+            offset -= chunk.count;
+            prevChunk = chunk;
+            chunk = chunk.next;
+        }
+        chunk.remove(offset);
+
+        if (chunk.count == 0)
+        {
+            unlink(prevChunk, chunk);
+        }
+        else
+        if (chunk.count < chunkCapacity / 4 && chunk.next != null &&
+            chunk.count + chunk.next.count <= chunkCapacity)
+        {
+            merge(chunk);
+        }
+
+        --size;
+    }
+
+    public V get(long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("UnrolledVList.get(): invalid index " + index);
+        }
+
+        ChunkPosition<V> pos = findChunk(index);
+        return pos.chunk.get(pos.offset);
+    }
+
+    public void set(long index, V value) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("UnrolledVList.set(): invalid index " + index);
+        }
+
+        ChunkPosition<V> pos = findChunk(index);
+        pos.chunk.values[pos.offset] = value;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public void clear()
+    {
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V[] toArray()
+    {
+        V[] values = (V[]) new Object[size];
+        int index = 0;
+        for (Chunk<V> chunk = head; chunk != null; chunk = chunk.next)
+        {
+            System.arraycopy(chunk.values, 0, values, index, chunk.count);
+            index += chunk.count;
+        }
+
+        return values;
+    }
+
+    @Override
+    public java.util.Iterator<V> iterator()
+    {
+        return new UnrolledVListIterator<>(this);
+    }
+
+    /**
+     * Returns the chunk that contains the element at the specified index
+     * together with the element's offset within that chunk
+     */
+    private ChunkPosition<V> findChunk(long index)
+    {
+        Chunk<V> chunk;
+        long chunkStart;
+        if (index >= size - tail.count)
+        {
+            chunk = tail;
+            chunkStart = size - tail.count;
+        }
+        else
+        {
+            chunk = head;
+            chunkStart = 0;
+            while (index >= chunkStart + chunk.count)
+            {
+                chunkStart += chunk.count;
+                chunk = chunk.next;
+            }
+        }
+        return new ChunkPosition<>(chunk, (int) (index - chunkStart));
+    }
+
+    /**
+     * Moves the upper half of a full chunk into a new chunk that is
+     * linked after it
+     */
+    private Chunk<V> split(Chunk<V> chunk)
+    {
+        Chunk<V> splitChunk = new Chunk<>(chunkCapacity);
+        int keepCount = chunk.count / 2;
+        int moveCount = chunk.count - keepCount;
+        System.arraycopy(chunk.values, keepCount, splitChunk.values, 0, moveCount);
+        java.util.Arrays.fill(chunk.values, keepCount, chunk.count, null);
+        splitChunk.count = moveCount;
+        chunk.count = keepCount;
+
+        splitChunk.next = chunk.next;
+        chunk.next = splitChunk;
+        if (tail == chunk)
+        {
+            tail = splitChunk;
+        }
+        return splitChunk;
+    }
+
+    /**
+     * Moves the elements of the chunk's successor into the chunk and
+     * unlinks the successor
+     */
+    private void merge(Chunk<V> chunk)
+    {
+        Chunk<V> nextChunk = chunk.next;
+        System.arraycopy(nextChunk.values, 0, chunk.values, chunk.count, nextChunk.count);
+        chunk.count += nextChunk.count;
+        chunk.next = nextChunk.next;
+        if (tail == nextChunk)
+        {
+            tail = chunk;
+        }
+    }
+
+    private void unlink(Chunk<V> prevChunk, Chunk<V> chunk)
+    {
+        if (prevChunk == null)
+        {
+            head = chunk.next;
+        }
+        else
+        {
+            prevChunk.next = chunk.next;
+        }
+        if (tail == chunk)
+        {
+            tail = prevChunk;
+        }
+    }
+
+    private static final class UnrolledVListIterator<V> implements java.util.Iterator<V>
+    {
+        private Chunk<V> chunk;
+        private int offset;
+
+        UnrolledVListIterator(UnrolledVList<V> containerRef)
+        {
+            chunk = containerRef.head;
+            offset = 0;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return (chunk != null);
+        }
+
+        @Override
+        public V next()
+        {
+            V value = null;
+            if (chunk != null)
+            {
+                value = chunk.get(offset);
+                ++offset;
+                if (offset == chunk.count)
+                {
+                    chunk = chunk.next;
+                    offset = 0;
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    final private static class ChunkPosition<V>
+    {
+        final Chunk<V> chunk;
+        final int      offset;
+
+        ChunkPosition(Chunk<V> chunkRef, int chunkOffset)
+        {
+            chunk  = chunkRef;
+            offset = chunkOffset;
+        }
+    }
+
+    final private static class Chunk<V>
+    {
+        protected final Object[] values;
+        protected int            count;
+        protected Chunk<V>       next;
+
+        Chunk(int capacity)
+        {
+            values = new Object[capacity];
+            count  = 0;
+            next   = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(int offset)
+        {
+            return (V) values[offset];
+        }
+
+        void insert(int offset, V value)
+        {
+            System.arraycopy(values, offset, values, offset + 1, count - offset);
+            values[offset] = value;
+            ++count;
+        }
+
+        void remove(int offset)
+        {
+            --count;
+            System.arraycopy(values, offset + 1, values, offset, count - offset);
+            values[count] = null;
+        }
+    }
+}
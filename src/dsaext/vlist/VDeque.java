@@ -0,0 +1,282 @@
+package dsaext.vlist;
+
+/**
+ * Vector deque
+ *
+ * Stores the elements in a ring buffer with a power of two capacity, so that
+ * elements are added and removed at both ends and accessed by index in O(1)
+ * time without allocating per element. The buffer grows by doubling when it
+ * is full. Null elements are not permitted, so that the poll and peek
+ * methods can return null for an empty deque.
+ *
+ * @version 2026-10-18_001
+ * @author  R. Altnoeder (r.altnoeder@gmx.net)
+ *
+ * Copyright (C) 2026 Robert ALTNOEDER
+ *
+ * Redistribution and use in source and binary forms,
+ * with or without modification, are permitted provided that
+ * the following conditions are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *  2. Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in
+ *     the documentation and/or other materials provided with the distribution.
+ *  3. The name of the author may not be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE AUTHOR ``AS IS'' AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+public final class VDeque<V> implements Iterable<V>
+{
+    private Object[] elements;
+    private int      headIdx;
+    private int      size;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY     = 1 << 30;
+
+    public VDeque()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public VDeque(int initialCapacity)
+    {
+        if (initialCapacity < 0 || initialCapacity > MAX_CAPACITY)
+        {
+            throw new IllegalArgumentException("VDeque(): capacity " + initialCapacity);
+        }
+        int capacity = Math.max(Integer.highestOneBit(Math.max(initialCapacity, 1) - 1) << 1, 2);
+        elements = new Object[capacity];
+        headIdx  = 0;
+        size     = 0;
+    }
+
+    public void addFirst(V val)
+    {
+        checkElement(val);
+        if (size == elements.length)
+        {
+            grow();
+        }
+        headIdx = (headIdx - 1) & (elements.length - 1);
+        elements[headIdx] = val;
+        ++size;
+    }
+
+    public void addLast(V val)
+    {
+        checkElement(val);
+        if (size == elements.length)
+        {
+            grow();
+        }
+        elements[(headIdx + size) & (elements.length - 1)] = val;
+        ++size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V pollFirst()
+    {
+        V value = null;
+        if (size > 0)
+        {
+            value = (V) elements[headIdx];
+            elements[headIdx] = null;
+            headIdx = (headIdx + 1) & (elements.length - 1);
+            --size;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V pollLast()
+    {
+        V value = null;
+        if (size > 0)
+        {
+            int tailIdx = (headIdx + size - 1) & (elements.length - 1);
+            value = (V) elements[tailIdx];
+            elements[tailIdx] = null;
+            --size;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V peekFirst()
+    {
+        return size > 0 ? (V) elements[headIdx] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V peekLast()
+    {
+        return size > 0 ? (V) elements[(headIdx + size - 1) & (elements.length - 1)] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("VDeque.get(): invalid index " + index);
+        }
+        return (V) elements[(headIdx + (int) index) & (elements.length - 1)];
+    }
+
+    public void set(long index, V value) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > (size - 1))
+        {
+            throw new IndexOutOfBoundsException("VDeque.set(): invalid index " + index);
+        }
+        checkElement(value);
+        elements[(headIdx + (int) index) & (elements.length - 1)] = value;
+    }
+
+    /**
+     * Removes elements from the front of the deque into the array
+     *
+     * @return number of elements that were removed, which is the lesser of
+     *     the size of the deque and the length of the array
+     */
+    public int drainTo(V[] dstArray)
+    {
+        return drainTo(dstArray, 0, dstArray.length);
+    }
+
+    /**
+     * Removes up to maxCount elements from the front of the deque into the
+     * array, starting at the specified offset
+     *
+     * @return number of elements that were removed
+     */
+    public int drainTo(V[] dstArray, int offset, int maxCount)
+    {
+        if (offset < 0 || maxCount < 0 || maxCount > dstArray.length - offset)
+        {
+            throw new IndexOutOfBoundsException(
+                "VDeque.drainTo(): offset " + offset + ", count " + maxCount
+            );
+        }
+        int count = Math.min(size, maxCount);
+        int firstCount = Math.min(count, elements.length - headIdx);
+        System.arraycopy(elements, headIdx, dstArray, offset, firstCount);
+        System.arraycopy(elements, 0, dstArray, offset + firstCount, count - firstCount);
+        clearRange(headIdx, count);
+        headIdx = (headIdx + count) & (elements.length - 1);
+        size -= count;
+        return count;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        clearRange(headIdx, size);
+        headIdx = 0;
+        size    = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V[] toArray()
+    {
+        V[] values = (V[]) new Object[size];
+        int firstCount = Math.min(size, elements.length - headIdx);
+        System.arraycopy(elements, headIdx, values, 0, firstCount);
+        System.arraycopy(elements, 0, values, firstCount, size - firstCount);
+        return values;
+    }
+
+    @Override
+    public java.util.Iterator<V> iterator()
+    {
+        return new VDequeIterator<>(this);
+    }
+
+    private void checkElement(V val)
+    {
+        if (val == null)
+        {
+            throw new NullPointerException("VDeque does not permit null elements");
+        }
+    }
+
+    /* sets count elements starting at startIdx to null, wrapping around */
+    private void clearRange(int startIdx, int count)
+    {
+        int firstCount = Math.min(count, elements.length - startIdx);
+        java.util.Arrays.fill(elements, startIdx, startIdx + firstCount, null);
+        java.util.Arrays.fill(elements, 0, count - firstCount, null);
+    }
+
+    private void grow()
+    {
+        if (elements.length == MAX_CAPACITY)
+        {
+            throw new IllegalStateException("VDeque: maximum capacity exceeded");
+        }
+        Object[] newElements = new Object[elements.length * 2];
+        int firstCount = elements.length - headIdx;
+        System.arraycopy(elements, headIdx, newElements, 0, firstCount);
+        System.arraycopy(elements, 0, newElements, firstCount, headIdx);
+        elements = newElements;
+        headIdx  = 0;
+    }
+
+    private static final class VDequeIterator<V> implements java.util.Iterator<V>
+    {
+        private VDeque<V> container;
+        private int       index;
+
+        VDequeIterator(VDeque<V> containerRef)
+        {
+            container = containerRef;
+            index     = 0;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return index < container.size;
+        }
+
+        @Override
+        public V next()
+        {
+            V value = null;
+            if (index < container.size)
+            {
+                value = container.get(index);
+                ++index;
+            }
+            return value;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
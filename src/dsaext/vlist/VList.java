@@ -3,10 +3,10 @@ package dsaext.vlist;
 /**
  * Vector list
  *
- * @version 2018-07-11_001
+ * @version 2026-10-18_001
  * @author  R. Altnoeder (r.altnoeder@gmx.net)
  *
- * Copyright (C) 2011 - 2018 Robert ALTNOEDER
+ * Copyright (C) 2011 - 2026 Robert ALTNOEDER
  *
  * Redistribution and use in source and binary forms,
  * with or without modification, are permitted provided that
@@ -152,6 +152,143 @@ public final class VList<V> implements Iterable<V>
         --size;
     }
 
+    /**
+     * Moves all elements of the donor list to the end of this list
+     *
+     * The donor's nodes are relinked in O(1) time, and the donor is empty
+     * afterwards.
+     */
+    public void appendAll(VList<V> donor)
+    {
+        if (donor == this)
+        {
+            throw new IllegalArgumentException("VList.appendAll(): list cannot be appended to itself");
+        }
+
+        if (donor.head != null)
+        {
+            if (tail == null)
+            {
+                head = donor.head;
+            }
+            else
+            {
+                tail.next = donor.head;
+            }
+            tail = donor.tail;
+            size += donor.size;
+            donor.clear();
+        }
+    }
+
+    /**
+     * Moves all elements of the donor list to the start of this list
+     *
+     * The donor's nodes are relinked in O(1) time, and the donor is empty
+     * afterwards.
+     */
+    public void prependAll(VList<V> donor)
+    {
+        if (donor == this)
+        {
+            throw new IllegalArgumentException("VList.prependAll(): list cannot be prepended to itself");
+        }
+
+        if (donor.head != null)
+        {
+            donor.tail.next = head;
+            head = donor.head;
+            if (tail == null)
+            {
+                tail = donor.tail;
+            }
+            size += donor.size;
+            donor.clear();
+        }
+    }
+
+    /**
+     * Detaches the elements from the specified index to the end of this list
+     *
+     * The detached nodes are moved to the returned list without copying.
+     * Locating the split position walks index nodes from the head.
+     *
+     * @return list with the elements from index to the end of this list
+     */
+    public VList<V> splitAt(long index) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || index > size)
+        {
+            throw new IndexOutOfBoundsException("VList.splitAt(): index " + index);
+        }
+
+        VList<V> suffix = new VList<>();
+        if (index == 0)
+        {
+            suffix.appendAll(this);
+        }
+        else
+        if (index < size)
+        {
+            Node<V> prevNode = head;
+            for (long pos = 1; pos < index; ++pos)
+            {
+                prevNode = prevNode.next;
+            }
+            suffix.head = prevNode.next;
+            suffix.tail = tail;
+            suffix.size = size - (int) index;
+            prevNode.next = null;
+            tail = prevNode;
+            size = (int) index;
+        }
+        return suffix;
+    }
+
+    /**
+     * Moves all elements of this list to the end of the target list
+     *
+     * @return number of elements that were moved
+     */
+    public int drainTo(VList<V> target)
+    {
+        int count = size;
+        target.appendAll(this);
+        return count;
+    }
+
+    /**
+     * Moves up to maxCount elements from the start of this list to the end
+     * of the target list
+     *
+     * Walks the moved nodes once to find the end of the moved sublist, but
+     * does not copy or reallocate them.
+     *
+     * @return number of elements that were moved
+     */
+    public int drainTo(VList<V> target, int maxCount)
+    {
+        if (target == this)
+        {
+            throw new IllegalArgumentException("VList.drainTo(): list cannot be drained to itself");
+        }
+
+        int count = 0;
+        if (maxCount >= size)
+        {
+            count = drainTo(target);
+        }
+        else
+        if (maxCount > 0)
+        {
+            VList<V> suffix = splitAt(maxCount);
+            count = size;
+            target.appendAll(this);
+            appendAll(suffix);
+        }
+        return count;
+    }
+
     public int getSize()
     {
         return size;
@@ -182,45 +319,406 @@ public final class VList<V> implements Iterable<V>
         return values;
     }
 
+    /**
+     * Sorts the list in ascending natural order of its elements, which must
+     * implement Comparable
+     */
+    @SuppressWarnings("unchecked")
+    public void sort()
+    {
+        sort((java.util.Comparator<? super V>) java.util.Comparator.naturalOrder());
+    }
+
+    /**
+     * Sorts the list with a stable bottom-up merge sort
+     *
+     * The existing nodes are relinked in place, so the sort needs O(1)
+     * additional space and performs O(n log n) comparisons.
+     */
+    public void sort(java.util.Comparator<? super V> cmp)
+    {
+        if (size > 1)
+        {
+            Segment<V> sorted = new Segment<>(head);
+            sortSegment(sorted, size, cmp);
+            head = sorted.head;
+            tail = sorted.tail;
+        }
+    }
+
+    /**
+     * Sorts the list with a stable merge sort that sorts sublists in parallel
+     *
+     * The list is split into sublists of at most PARALLEL_SORT_THRESHOLD
+     * elements, which are sorted by tasks of the common fork/join pool and
+     * then merged by relinking their nodes. No elements or nodes are copied.
+     */
+    public void parallelSort(java.util.Comparator<? super V> cmp)
+    {
+        if (size <= PARALLEL_SORT_THRESHOLD)
+        {
+            sort(cmp);
+        }
+        else
+        {
+            SortTask<V> task = new SortTask<>(head, size, cmp);
+            java.util.concurrent.ForkJoinPool.commonPool().invoke(task);
+            head = task.sorted.head;
+            tail = task.sorted.tail;
+        }
+    }
+
+    /* maximum number of elements that parallelSort() sorts sequentially in one task */
+    public static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    /* null-terminated sequence of nodes */
+    private static final class Segment<V>
+    {
+        Node<V> head;
+        Node<V> tail;
+
+        Segment(Node<V> headNode)
+        {
+            head = headNode;
+            tail = null;
+        }
+    }
+
+    private static final class SortTask<V> extends java.util.concurrent.RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int count;
+        private final java.util.Comparator<? super V> cmp;
+        private final Segment<V> sorted;
+
+        SortTask(Node<V> headNode, int nodeCount, java.util.Comparator<? super V> cmpRef)
+        {
+            count  = nodeCount;
+            cmp    = cmpRef;
+            sorted = new Segment<>(headNode);
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (count <= PARALLEL_SORT_THRESHOLD)
+            {
+                sortSegment(sorted, count, cmp);
+            }
+            else
+            {
+                int lessCount = count / 2;
+                Node<V> greaterHead = cut(sorted.head, lessCount);
+                SortTask<V> lessTask = new SortTask<>(sorted.head, lessCount, cmp);
+                SortTask<V> greaterTask = new SortTask<>(greaterHead, count - lessCount, cmp);
+                lessTask.fork();
+                greaterTask.compute();
+                lessTask.join();
+                merge(lessTask.sorted.head, greaterTask.sorted.head, cmp, sorted);
+            }
+        }
+    }
+
+    /**
+     * Sorts a null-terminated sequence of count nodes that starts at the
+     * segment's head and sets the segment's head and tail to the sorted
+     * sequence
+     */
+    private static <V> void sortSegment(Segment<V> segment, int count, java.util.Comparator<? super V> cmp)
+    {
+        Segment<V> merged = new Segment<>(null);
+        Node<V> list = segment.head;
+        Node<V> listTail = list;
+        for (int width = 1; width < count; width *= 2)
+        {
+            Node<V> remaining = list;
+            list = null;
+            listTail = null;
+            while (remaining != null)
+            {
+                Node<V> less = remaining;
+                Node<V> greater = cut(less, width);
+                remaining = cut(greater, width);
+                merge(less, greater, cmp, merged);
+                if (listTail == null)
+                {
+                    list = merged.head;
+                }
+                else
+                {
+                    listTail.next = merged.head;
+                }
+                listTail = merged.tail;
+            }
+        }
+        segment.head = list;
+        segment.tail = listTail;
+    }
+
+    /**
+     * Detaches the nodes after the first count nodes of a sequence
+     *
+     * @return the first detached node, or null if the sequence has no more
+     *     than count nodes
+     */
+    private static <V> Node<V> cut(Node<V> node, int count)
+    {
+        Node<V> rest = null;
+        if (node != null)
+        {
+            for (int pos = 1; pos < count && node.next != null; ++pos)
+            {
+                node = node.next;
+            }
+            rest = node.next;
+            node.next = null;
+        }
+        return rest;
+    }
+
+    /**
+     * Merges two sorted null-terminated sequences into the result segment,
+     * taking nodes from the less sequence first if elements are equal
+     */
+    private static <V> void merge(
+        Node<V> less,
+        Node<V> greater,
+        java.util.Comparator<? super V> cmp,
+        Segment<V> result
+    )
+    {
+        Node<V> mergedHead = null;
+        Node<V> mergedTail = null;
+        while (less != null && greater != null)
+        {
+            Node<V> node;
+            if (cmp.compare(greater.value, less.value) < 0)
+            {
+                node = greater;
+                greater = greater.next;
+            }
+            else
+            {
+                node = less;
+                less = less.next;
+            }
+            if (mergedTail == null)
+            {
+                mergedHead = node;
+            }
+            else
+            {
+                mergedTail.next = node;
+            }
+            mergedTail = node;
+        }
+        Node<V> rest = less != null ? less : greater;
+        if (mergedTail == null)
+        {
+            mergedHead = rest;
+        }
+        else
+        {
+            mergedTail.next = rest;
+        }
+        if (rest != null)
+        {
+            mergedTail = rest;
+            while (mergedTail.next != null)
+            {
+                mergedTail = mergedTail.next;
+            }
+        }
+        result.head = mergedHead;
+        result.tail = mergedTail;
+    }
+
     @Override
     public java.util.Iterator<V> iterator()
     {
-        return new VListIterator(this);
+        return new Cursor();
     }
 
-    private static final class VListIterator<V> implements java.util.Iterator<V>
+    /**
+     * Returns a cursor that is positioned before the first element
+     */
+    public Cursor cursor()
     {
-        private VList<V> container;
-        private Node<V> next;
+        return new Cursor();
+    }
 
-        protected VListIterator(VList<V> containerRef)
+    /**
+     * Removes all elements that match the filter in a single pass
+     *
+     * @return number of elements that were removed
+     */
+    public int removeIf(java.util.function.Predicate<? super V> filter)
+    {
+        int count = 0;
+        Node<V> prevNode = null;
+        Node<V> node = head;
+        while (node != null)
         {
-            container = containerRef;
-            next = container.head;
+            Node<V> nextNode = node.next;
+            if (filter.test(node.value))
+            {
+                if (prevNode == null)
+                {
+                    head = nextNode;
+                }
+                else
+                {
+                    prevNode.next = nextNode;
+                }
+                if (node == tail)
+                {
+                    tail = prevNode;
+                }
+                ++count;
+            }
+            else
+            {
+                prevNode = node;
+            }
+            node = nextNode;
+        }
+        size -= count;
+        return count;
+    }
+
+    /**
+     * Mutable iterator over the elements of a VList
+     *
+     * The cursor tracks the predecessor of the element most recently returned
+     * by next(), so that it can remove that element, replace it, or insert
+     * elements before or after it in O(1) time. The list must not be modified
+     * other than through the cursor while the cursor is in use.
+     */
+    public final class Cursor implements java.util.Iterator<V>
+    {
+        /* node before the cursor position, null if the cursor is at the start */
+        private Node<V> before;
+
+        /* node most recently returned by next(), null if none or removed */
+        private Node<V> current;
+
+        /* predecessor of current, null if current is the head */
+        private Node<V> currentPrev;
+
+        private Cursor()
+        {
+            before      = null;
+            current     = null;
+            currentPrev = null;
         }
 
         @Override
         public boolean hasNext()
         {
-            return (next != null);
+            return (before == null ? head : before.next) != null;
         }
 
         @Override
         public V next()
         {
             V value = null;
-            if (next != null)
+            Node<V> nextNode = before == null ? head : before.next;
+            if (nextNode != null)
             {
-                value = next.value;
-                next = next.next;
+                currentPrev = before;
+                current     = nextNode;
+                before      = nextNode;
+                value       = nextNode.value;
             }
             return value;
         }
 
+        /**
+         * Removes the element most recently returned by next()
+         */
         @Override
         public void remove()
         {
-            throw new UnsupportedOperationException();
+            checkCurrent();
+            if (currentPrev == null)
+            {
+                head = current.next;
+            }
+            else
+            {
+                currentPrev.next = current.next;
+            }
+            if (tail == current)
+            {
+                tail = currentPrev;
+            }
+            if (before == current)
+            {
+                before = currentPrev;
+            }
+            current = null;
+            --size;
+        }
+
+        /**
+         * Replaces the element most recently returned by next()
+         */
+        public void set(V value)
+        {
+            checkCurrent();
+            current.value = value;
+        }
+
+        /**
+         * Inserts an element before the element most recently returned by
+         * next()
+         */
+        public void insertBefore(V value)
+        {
+            checkCurrent();
+            Node<V> insNode = new Node<>(value);
+            insNode.next = current;
+            if (currentPrev == null)
+            {
+                head = insNode;
+            }
+            else
+            {
+                currentPrev.next = insNode;
+            }
+            currentPrev = insNode;
+            ++size;
+        }
+
+        /**
+         * Inserts an element after the element most recently returned by
+         * next()
+         *
+         * The inserted element is not returned by subsequent calls of next().
+         * Repeated calls insert the elements in the order of the calls.
+         */
+        public void insertAfter(V value)
+        {
+            checkCurrent();
+            /* before is either current or the element inserted last */
+            Node<V> insNode = new Node<>(value);
+            insNode.next = before.next;
+            before.next = insNode;
+            if (tail == before)
+            {
+                tail = insNode;
+            }
+            before = insNode;
+            ++size;
+        }
+
+        private void checkCurrent()
+        {
+            if (current == null)
+            {
+                throw new IllegalStateException();
+            }
         }
     }
 